@@ -1,14 +1,24 @@
 package tech.cassandre.trading.bot.batch;
 
 import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.domain.Strategy;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.repository.OrderRepository;
 import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.util.base.BaseExternalFlux;
+import tech.cassandre.trading.bot.util.base.BoundedBufferSink;
+import tech.cassandre.trading.bot.util.base.BufferOverflowPolicy;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Order flux - push {@link OrderDTO}.
@@ -21,6 +31,12 @@ public class OrderFlux extends BaseExternalFlux<OrderDTO> {
     /** Order repository. */
     private final OrderRepository orderRepository;
 
+    /** Last emitted state of each order (order id as key) - used to detect changes without database access. */
+    private final Map<String, OrderDTO> lastEmittedOrders = new ConcurrentHashMap<>();
+
+    /** True when the order index has been loaded from the database. */
+    private volatile boolean orderIndexLoaded = false;
+
     /**
      * Constructor.
      *
@@ -28,6 +44,24 @@ public class OrderFlux extends BaseExternalFlux<OrderDTO> {
      * @param newOrderRepository order repository
      */
     public OrderFlux(final TradeService newTradeService, final OrderRepository newOrderRepository) {
+        this(newTradeService, newOrderRepository, BoundedBufferSink.DEFAULT_CAPACITY, BufferOverflowPolicy.BLOCK, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newTradeService    trade service
+     * @param newOrderRepository order repository
+     * @param newBufferCapacity  buffer capacity
+     * @param newOverflowPolicy  what to do when the buffer is full
+     * @param newSpillDirectory  directory used to spill values (spill policy)
+     */
+    public OrderFlux(final TradeService newTradeService,
+                     final OrderRepository newOrderRepository,
+                     final int newBufferCapacity,
+                     final BufferOverflowPolicy newOverflowPolicy,
+                     final Path newSpillDirectory) {
+        super(new BoundedBufferSink<>("order", newBufferCapacity, newOverflowPolicy, newSpillDirectory));
         this.tradeService = newTradeService;
         this.orderRepository = newOrderRepository;
     }
@@ -36,13 +70,13 @@ public class OrderFlux extends BaseExternalFlux<OrderDTO> {
     protected final Set<OrderDTO> getNewValues() {
         getLogger().debug("OrderFlux - Retrieving new values");
         Set<OrderDTO> newValues = new LinkedHashSet<>();
+        loadOrderIndex();
 
         // Finding which order has been updated.
         tradeService.getOrders().forEach(order -> {
             getLogger().debug("OrderFlux - Treating order : {}", order.getId());
-            final Optional<Order> orderInDatabase = orderRepository.findById(order.getId());
-            // If it does not exist or something changed, we do it.
-            if (orderInDatabase.isEmpty() || !mapper.mapToOrderDTO(orderInDatabase.get()).equals(order)) {
+            // If it's unknown or something changed, we do it.
+            if (!order.equals(lastEmittedOrders.get(order.getId()))) {
                 getLogger().debug("OrderFlux - Order {} has changed : {}", order.getId(), order);
                 newValues.add(order);
             }
@@ -51,19 +85,63 @@ public class OrderFlux extends BaseExternalFlux<OrderDTO> {
         return newValues;
     }
 
+    @Override
+    public final void emitValue(final OrderDTO newValue) {
+        lastEmittedOrders.put(newValue.getId(), newValue);
+        super.emitValue(newValue);
+    }
+
     @Override
     public final void backupValue(final OrderDTO newValue) {
-        final Order valueToSave = mapper.mapToOrder(newValue);
-        // We retrieve value already in database.
-        final Optional<Order> orderInDatabase = orderRepository.findById(newValue.getId());
-        orderInDatabase.ifPresent(order -> {
-            // We set the strategy.
-            valueToSave.setStrategy(order.getStrategy());
-            // We add the trades we already have.
-            // orderInDatabase.get().getTrades().forEach(trade -> valueToSave.getTrades().add(trade));
-        });
+        backupValues(Collections.singletonList(newValue));
+    }
+
+    @Override
+    protected final void backupValues(final List<OrderDTO> newValues) {
+        // We retrieve the strategies of the orders already in database (orders received from the exchange don't
+        // have the strategy that created them, only the orders created by Cassandre have it).
+        final Map<String, Strategy> strategies = new HashMap<>();
+        orderRepository.findAllById(newValues.stream().map(OrderDTO::getId).collect(Collectors.toList()))
+                .forEach(order -> strategies.put(order.getId(), order.getStrategy()));
+        final List<Order> valuesToSave = newValues.stream()
+                .map(newValue -> {
+                    final Order valueToSave = mapper.mapToOrder(newValue);
+                    if (newValue.getStrategy() == null && strategies.containsKey(newValue.getId())) {
+                        valueToSave.setStrategy(strategies.get(newValue.getId()));
+                    }
+                    return valueToSave;
+                })
+                .collect(Collectors.toList());
         // We save.
-        orderRepository.save(valueToSave);
+        orderRepository.saveAll(valuesToSave);
+    }
+
+    @Override
+    protected final Object getBackupKey(final OrderDTO value) {
+        return value.getId();
+    }
+
+    /**
+     * Loads, once, the last known state of each order from the database.
+     */
+    private synchronized void loadOrderIndex() {
+        if (!orderIndexLoaded) {
+            orderRepository.findByOrderByTimestampAsc()
+                    .stream()
+                    .map(mapper::mapToOrderDTO)
+                    .forEach(order -> lastEmittedOrders.putIfAbsent(order.getId(), order));
+            orderIndexLoaded = true;
+            getLogger().debug("OrderFlux - {} order(s) loaded from database", lastEmittedOrders.size());
+        }
+    }
+
+    /**
+     * Returns the number of orders in the index.
+     *
+     * @return indexed orders count
+     */
+    public final int getIndexedOrdersCount() {
+        return lastEmittedOrders.size();
     }
 
 }
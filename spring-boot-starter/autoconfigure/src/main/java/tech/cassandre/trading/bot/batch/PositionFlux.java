@@ -5,7 +5,11 @@ import tech.cassandre.trading.bot.dto.position.PositionDTO;
 import tech.cassandre.trading.bot.repository.PositionRepository;
 import tech.cassandre.trading.bot.util.base.BaseInternalFlux;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Position flux - push {@link PositionDTO}.
@@ -24,6 +28,16 @@ public class PositionFlux extends BaseInternalFlux<PositionDTO> {
         this.positionRepository = newPositionRepository;
     }
 
+    @Override
+    protected final boolean isConflated() {
+        return true;
+    }
+
+    @Override
+    protected final Object getConflationKey(final PositionDTO value) {
+        return value.getId();
+    }
+
     @Override
     public final void backupValue(final PositionDTO newValue) {
         Optional<Position> p = positionRepository.findById(newValue.getId());
@@ -34,4 +48,24 @@ public class PositionFlux extends BaseInternalFlux<PositionDTO> {
         }
     }
 
+    @Override
+    protected final void backupValues(final List<PositionDTO> newValues) {
+        // Only positions already in database are saved.
+        final Set<Long> positionsInDatabase = new HashSet<>();
+        positionRepository.findAllById(newValues.stream().map(PositionDTO::getId).collect(Collectors.toList()))
+                .forEach(position -> positionsInDatabase.add(position.getId()));
+        newValues.stream()
+                .filter(p -> !positionsInDatabase.contains(p.getId()))
+                .forEach(p -> getLogger().error("Position {} was not saved because it was not found in database", p.getId()));
+        positionRepository.saveAll(newValues.stream()
+                .filter(p -> positionsInDatabase.contains(p.getId()))
+                .map(mapper::mapToPosition)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    protected final Object getBackupKey(final PositionDTO value) {
+        return value.getId();
+    }
+
 }
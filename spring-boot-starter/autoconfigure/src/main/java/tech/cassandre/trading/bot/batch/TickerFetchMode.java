@@ -0,0 +1,20 @@
+package tech.cassandre.trading.bot.batch;
+
+/**
+ * How {@link TickerFlux} retrieves tickers.
+ */
+public enum TickerFetchMode {
+
+    /** One currency pair is requested at each update (round robin). */
+    ROUND_ROBIN,
+
+    /** All currency pairs are requested concurrently at each update, tickers are emitted as soon as they arrive. */
+    CONCURRENT,
+
+    /** All currency pairs are requested with a single call at each update (default - round robin if the exchange doesn't support it). */
+    BULK,
+
+    /** Tickers are pushed by the exchange (websocket), REST calls are only used when a currency pair stops receiving tickers. */
+    STREAMING
+
+}
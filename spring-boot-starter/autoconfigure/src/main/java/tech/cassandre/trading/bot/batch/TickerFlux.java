@@ -1,10 +1,16 @@
 package tech.cassandre.trading.bot.batch;
 
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.service.MarketService;
+import tech.cassandre.trading.bot.service.StreamingMarketService;
 import tech.cassandre.trading.bot.util.base.BaseExternalFlux;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -12,15 +18,32 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 /**
  * Ticker flux - push {@link TickerDTO}.
  */
 public class TickerFlux extends BaseExternalFlux<TickerDTO> {
 
+    /** Default maximum time without ticker before falling back to REST calls in streaming mode (ms). */
+    public static final long DEFAULT_GAP_THRESHOLD = 10_000;
+
     /** Market service. */
     private final MarketService marketService;
 
+    /** Fetch mode. */
+    private final TickerFetchMode fetchMode;
+
+    /** Maximum time without ticker before falling back to REST calls in streaming mode (ms). */
+    private final long gapThreshold;
+
+    /** Executor used to retrieve tickers concurrently (only in concurrent mode). */
+    private final ExecutorService fetchExecutor;
+
     /** Requested tickers. */
     private final List<CurrencyPairDTO> requestedCurrencyPairs = new LinkedList<>();
 
@@ -30,41 +53,206 @@ public class TickerFlux extends BaseExternalFlux<TickerDTO> {
     /** Previous values. */
     private final Map<CurrencyPairDTO, TickerDTO> previousValues = new LinkedHashMap<>();
 
+    /** Last time (ms) a ticker was received for each currency pair. */
+    private final Map<CurrencyPairDTO, Long> lastRefreshTimes = new ConcurrentHashMap<>();
+
     /**
      * Constructor.
      *
      * @param newMarketService market service.
      */
     public TickerFlux(final MarketService newMarketService) {
+        this(newMarketService, TickerFetchMode.BULK, 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newMarketService market service.
+     * @param newFetchMode     fetch mode
+     * @param newConcurrency   maximum number of tickers requested at the same time (concurrent mode)
+     */
+    public TickerFlux(final MarketService newMarketService, final TickerFetchMode newFetchMode, final int newConcurrency) {
+        this(newMarketService, newFetchMode, newConcurrency, DEFAULT_GAP_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newMarketService market service.
+     * @param newFetchMode     fetch mode
+     * @param newConcurrency   maximum number of tickers requested at the same time (concurrent mode)
+     * @param newGapThreshold  maximum time without ticker before falling back to REST calls (streaming mode)
+     */
+    public TickerFlux(final MarketService newMarketService, final TickerFetchMode newFetchMode, final int newConcurrency, final long newGapThreshold) {
         this.marketService = newMarketService;
+        this.gapThreshold = newGapThreshold;
+        if (newFetchMode == TickerFetchMode.STREAMING && !(newMarketService instanceof StreamingMarketService)) {
+            getLogger().warn("TickerFlux - Market service doesn't support streaming, using bulk mode");
+            this.fetchMode = TickerFetchMode.BULK;
+        } else {
+            this.fetchMode = newFetchMode;
+        }
+        if (newFetchMode == TickerFetchMode.CONCURRENT) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cassandre-ticker-fetch-");
+            threadFactory.setDaemon(true);
+            this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, newConcurrency), threadFactory);
+        } else {
+            this.fetchExecutor = null;
+        }
     }
 
     /**
      * Update the list of requested currency pairs.
+     * Currency pairs already requested (for example, by another strategy) are not added twice.
      *
      * @param newRequestedCurrencyPairs new list of requested currency pairs.
      */
     public void updateRequestedCurrencyPairs(final Set<CurrencyPairDTO> newRequestedCurrencyPairs) {
-        requestedCurrencyPairs.addAll(newRequestedCurrencyPairs);
-        requestedCurrencyPairs.forEach(cp -> previousValues.put(cp, null));
+        final Set<CurrencyPairDTO> addedCurrencyPairs = new LinkedHashSet<>();
+        synchronized (previousValues) {
+            newRequestedCurrencyPairs.stream()
+                    .filter(cp -> !requestedCurrencyPairs.contains(cp))
+                    .forEach(addedCurrencyPairs::add);
+            requestedCurrencyPairs.addAll(addedCurrencyPairs);
+            addedCurrencyPairs.forEach(cp -> previousValues.put(cp, null));
+        }
+        final long now = System.currentTimeMillis();
+        addedCurrencyPairs.forEach(cp -> lastRefreshTimes.putIfAbsent(cp, now));
+
+        // In streaming mode, tickers are emitted as soon as they are received.
+        if (fetchMode == TickerFetchMode.STREAMING && !addedCurrencyPairs.isEmpty()) {
+            ((StreamingMarketService) marketService).subscribeTickers(addedCurrencyPairs, ticker -> {
+                if (isNewTicker(ticker)) {
+                    emitValue(ticker);
+                }
+            });
+        }
+    }
+
+    @Override
+    protected final boolean isConflated() {
+        return true;
+    }
+
+    @Override
+    protected final Object getConflationKey(final TickerDTO value) {
+        return value.getCurrencyPair();
     }
 
     @Override
     protected final Set<TickerDTO> getNewValues() {
         getLogger().debug("TickerFlux - Retrieving new values");
+        if (fetchMode == TickerFetchMode.CONCURRENT) {
+            fetchConcurrently();
+            return Collections.emptySet();
+        }
+        if (fetchMode == TickerFetchMode.BULK && marketService.isBulkTickersSupported()) {
+            return fetchInBulk();
+        }
+        if (fetchMode == TickerFetchMode.STREAMING) {
+            return fetchMissingTickers();
+        }
+        // Round robin (also used in bulk mode when the exchange can't return several tickers at once).
         Set<TickerDTO> newValues = new LinkedHashSet<>();
         getCurrencyPairToTreat()
                 .flatMap(marketService::getTicker)
-                .ifPresent(t -> {
-                    if (!t.equals(previousValues.get(t.getCurrencyPair()))) {
-                        getLogger().debug("TickerFlux - New ticker received : {}", t);
-                        previousValues.replace(t.getCurrencyPair(), t);
-                        newValues.add(t);
-                    }
-                });
+                .filter(this::isNewTicker)
+                .ifPresent(newValues::add);
         return newValues;
     }
 
+    /**
+     * In streaming mode, requests with REST calls the tickers of currency pairs that didn't receive anything for too long
+     * and subscribes again to their stream.
+     *
+     * @return new tickers
+     */
+    private Set<TickerDTO> fetchMissingTickers() {
+        final long now = System.currentTimeMillis();
+        final Set<CurrencyPairDTO> staleCurrencyPairs = new LinkedHashSet<>();
+        lastRefreshTimes.forEach((cp, time) -> {
+            if (now - time > gapThreshold) {
+                staleCurrencyPairs.add(cp);
+            }
+        });
+        if (staleCurrencyPairs.isEmpty()) {
+            return Collections.emptySet();
+        }
+        getLogger().warn("TickerFlux - No ticker received for {} ms on {}", gapThreshold, staleCurrencyPairs);
+        staleCurrencyPairs.forEach(((StreamingMarketService) marketService)::resubscribeTicker);
+        return marketService.getTickers(staleCurrencyPairs)
+                .stream()
+                .filter(this::isNewTicker)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Requests the tickers of all currency pairs with a single call.
+     *
+     * @return new tickers
+     */
+    private Set<TickerDTO> fetchInBulk() {
+        final Set<CurrencyPairDTO> currencyPairs;
+        synchronized (previousValues) {
+            currencyPairs = new LinkedHashSet<>(requestedCurrencyPairs);
+        }
+        return marketService.getTickers(currencyPairs)
+                .stream()
+                .filter(this::isNewTicker)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Requests the tickers of all currency pairs concurrently and emits each new ticker as soon as it arrives.
+     * The rate limit is still enforced by the market service.
+     */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    private void fetchConcurrently() {
+        final List<CurrencyPairDTO> currencyPairs;
+        synchronized (previousValues) {
+            currencyPairs = new ArrayList<>(requestedCurrencyPairs);
+        }
+        final CompletableFuture<?>[] requests = currencyPairs.stream()
+                .map(cp -> CompletableFuture.supplyAsync(() -> marketService.getTicker(cp), fetchExecutor)
+                        .thenAccept(ticker -> ticker.filter(this::isNewTicker).ifPresent(this::emitValueDuringUpdate))
+                        .exceptionally(throwable -> {
+                            getLogger().error("TickerFlux - Error retrieving ticker for {} : {}", cp, throwable.getMessage());
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        // We wait for all the tickers before starting a new cycle.
+        CompletableFuture.allOf(requests).join();
+    }
+
+    /**
+     * Stops the threads retrieving tickers (concurrent mode).
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Records a received ticker and returns true if it's different from the previous one.
+     *
+     * @param ticker ticker received
+     * @return true if it's a new ticker
+     */
+    private boolean isNewTicker(final TickerDTO ticker) {
+        lastRefreshTimes.put(ticker.getCurrencyPair(), System.currentTimeMillis());
+        synchronized (previousValues) {
+            if (ticker.equals(previousValues.get(ticker.getCurrencyPair()))) {
+                return false;
+            }
+            getLogger().debug("TickerFlux - New ticker received : {}", ticker);
+            previousValues.replace(ticker.getCurrencyPair(), ticker);
+            return true;
+        }
+    }
+
     /**
      * Returns the next currency pair to test.
      *
@@ -95,4 +283,25 @@ public class TickerFlux extends BaseExternalFlux<TickerDTO> {
         return Optional.of(nextCurrencyPairToTreat);
     }
 
+    /**
+     * Returns, for each requested currency pair, the time elapsed since its last ticker was received.
+     *
+     * @return staleness by currency pair
+     */
+    public final Map<CurrencyPairDTO, Duration> getStaleness() {
+        final long now = System.currentTimeMillis();
+        final Map<CurrencyPairDTO, Duration> staleness = new LinkedHashMap<>();
+        lastRefreshTimes.forEach((cp, time) -> staleness.put(cp, Duration.ofMillis(now - time)));
+        return staleness;
+    }
+
+    /**
+     * Getter fetchMode.
+     *
+     * @return fetchMode
+     */
+    public final TickerFetchMode getFetchMode() {
+        return fetchMode;
+    }
+
 }
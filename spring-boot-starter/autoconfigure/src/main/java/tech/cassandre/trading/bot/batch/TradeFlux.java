@@ -1,15 +1,21 @@
 package tech.cassandre.trading.bot.batch;
 
-import tech.cassandre.trading.bot.domain.Trade;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.repository.OrderRepository;
 import tech.cassandre.trading.bot.repository.TradeRepository;
 import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.util.base.BaseExternalFlux;
+import tech.cassandre.trading.bot.util.base.BoundedBufferSink;
+import tech.cassandre.trading.bot.util.base.BufferOverflowPolicy;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.LinkedHashSet;
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Trade flux - push {@link TradeDTO}.
@@ -25,6 +31,12 @@ public class TradeFlux extends BaseExternalFlux<TradeDTO> {
     /** Trade repository. */
     private final TradeRepository tradeRepository;
 
+    /** Last emitted state of each trade (trade id as key) - used to detect changes without database access. */
+    private final Map<String, TradeDTO> lastEmittedTrades = new ConcurrentHashMap<>();
+
+    /** True when the trade index has been loaded from the database. */
+    private volatile boolean tradeIndexLoaded = false;
+
     /**
      * Constructor.
      *
@@ -35,6 +47,26 @@ public class TradeFlux extends BaseExternalFlux<TradeDTO> {
     public TradeFlux(final TradeService newTradeService,
                      final OrderRepository newOrderRepository,
                      final TradeRepository newTradeRepository) {
+        this(newTradeService, newOrderRepository, newTradeRepository, BoundedBufferSink.DEFAULT_CAPACITY, BufferOverflowPolicy.BLOCK, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newTradeService    trade service
+     * @param newOrderRepository order repository
+     * @param newTradeRepository trade repository
+     * @param newBufferCapacity  buffer capacity
+     * @param newOverflowPolicy  what to do when the buffer is full
+     * @param newSpillDirectory  directory used to spill values (spill policy)
+     */
+    public TradeFlux(final TradeService newTradeService,
+                     final OrderRepository newOrderRepository,
+                     final TradeRepository newTradeRepository,
+                     final int newBufferCapacity,
+                     final BufferOverflowPolicy newOverflowPolicy,
+                     final Path newSpillDirectory) {
+        super(new BoundedBufferSink<>("trade", newBufferCapacity, newOverflowPolicy, newSpillDirectory));
         this.tradeRepository = newTradeRepository;
         this.orderRepository = newOrderRepository;
         this.tradeService = newTradeService;
@@ -44,12 +76,12 @@ public class TradeFlux extends BaseExternalFlux<TradeDTO> {
     protected final Set<TradeDTO> getNewValues() {
         getLogger().debug("TradeFlux - Retrieving new values");
         Set<TradeDTO> newValues = new LinkedHashSet<>();
+        loadTradeIndex();
 
         // Finding which trades has been updated.
         tradeService.getTrades().forEach(trade -> {
             getLogger().debug("TradeFlux - Treating trade : {}", trade.getId());
-            final Optional<Trade> tradeInDatabase = tradeRepository.findById(trade.getId());
-            if (tradeInDatabase.isEmpty() || !mapper.mapToTradeDTO(tradeInDatabase.get()).equals(trade)) {
+            if (!trade.equals(lastEmittedTrades.get(trade.getId()))) {
                 getLogger().info("TradeFlux - Trade {} has changed : {}", trade.getId(), trade);
                 newValues.add(trade);
             }
@@ -58,9 +90,50 @@ public class TradeFlux extends BaseExternalFlux<TradeDTO> {
         return newValues;
     }
 
+    @Override
+    public final void emitValue(final TradeDTO newValue) {
+        lastEmittedTrades.put(newValue.getId(), newValue);
+        super.emitValue(newValue);
+    }
+
     @Override
     public final void backupValue(final TradeDTO newValue) {
         tradeRepository.save(mapper.mapToTrade(newValue));
     }
 
+    @Override
+    protected final void backupValues(final List<TradeDTO> newValues) {
+        tradeRepository.saveAll(newValues.stream()
+                .map(mapper::mapToTrade)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    protected final Object getBackupKey(final TradeDTO value) {
+        return value.getId();
+    }
+
+    /**
+     * Loads, once, the last known state of each trade from the database.
+     */
+    private synchronized void loadTradeIndex() {
+        if (!tradeIndexLoaded) {
+            tradeRepository.findByOrderByTimestampAsc()
+                    .stream()
+                    .map(mapper::mapToTradeDTO)
+                    .forEach(trade -> lastEmittedTrades.putIfAbsent(trade.getId(), trade));
+            tradeIndexLoaded = true;
+            getLogger().debug("TradeFlux - {} trade(s) loaded from database", lastEmittedTrades.size());
+        }
+    }
+
+    /**
+     * Returns the number of trades in the index.
+     *
+     * @return indexed trades count
+     */
+    public final int getIndexedTradesCount() {
+        return lastEmittedTrades.size();
+    }
+
 }
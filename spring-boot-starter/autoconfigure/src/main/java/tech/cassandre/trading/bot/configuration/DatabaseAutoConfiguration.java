@@ -2,6 +2,7 @@ package tech.cassandre.trading.bot.configuration;
 
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,6 +32,9 @@ public class DatabaseAutoConfiguration extends BaseConfiguration {
     /** Scale. */
     public static final int SCALE = 8;
 
+    /** JDBC batch size (used when several entities are saved at once). */
+    public static final int JDBC_BATCH_SIZE = 50;
+
     /** Database parameters. */
     private final DatabaseParameters databaseParameters;
 
@@ -59,6 +63,20 @@ public class DatabaseAutoConfiguration extends BaseConfiguration {
         return p;
     }
 
+    /**
+     * Enables JDBC batching for saveAll() calls (unless it's already configured).
+     *
+     * @return hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.putIfAbsent("hibernate.jdbc.batch_size", String.valueOf(JDBC_BATCH_SIZE));
+            hibernateProperties.putIfAbsent("hibernate.order_inserts", "true");
+            hibernateProperties.putIfAbsent("hibernate.order_updates", "true");
+        };
+    }
+
     /**
      * Makes ZonedDateTime compatible with auditing fields.
      *
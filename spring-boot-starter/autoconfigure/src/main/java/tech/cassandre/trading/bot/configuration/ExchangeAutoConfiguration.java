@@ -1,5 +1,7 @@
 package tech.cassandre.trading.bot.configuration;
 
+import info.bitrich.xchangestream.core.StreamingExchange;
+import info.bitrich.xchangestream.core.StreamingExchangeFactory;
 import org.knowm.xchange.Exchange;
 import org.knowm.xchange.ExchangeFactory;
 import org.knowm.xchange.ExchangeSpecification;
@@ -13,8 +15,11 @@ import si.mazi.rescu.HttpStatusIOException;
 import tech.cassandre.trading.bot.batch.AccountFlux;
 import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.PositionFlux;
+import tech.cassandre.trading.bot.batch.TickerFetchMode;
 import tech.cassandre.trading.bot.batch.TickerFlux;
 import tech.cassandre.trading.bot.batch.TradeFlux;
+import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
 import tech.cassandre.trading.bot.repository.OrderRepository;
 import tech.cassandre.trading.bot.repository.PositionRepository;
 import tech.cassandre.trading.bot.repository.TradeRepository;
@@ -27,21 +32,32 @@ import tech.cassandre.trading.bot.service.dry.TradeServiceDryModeImplementation;
 import tech.cassandre.trading.bot.service.dry.UserServiceDryModeImplementation;
 import tech.cassandre.trading.bot.service.xchange.ExchangeServiceXChangeImplementation;
 import tech.cassandre.trading.bot.service.xchange.MarketServiceXChangeImplementation;
+import tech.cassandre.trading.bot.service.xchange.MarketServiceXChangeStreamingImplementation;
 import tech.cassandre.trading.bot.service.xchange.TradeServiceXChangeImplementation;
 import tech.cassandre.trading.bot.service.xchange.UserServiceXChangeImplementation;
 import tech.cassandre.trading.bot.util.base.BaseConfiguration;
+import tech.cassandre.trading.bot.util.base.BaseService;
 import tech.cassandre.trading.bot.util.exception.ConfigurationException;
 import tech.cassandre.trading.bot.util.parameters.ExchangeParameters;
+import tech.cassandre.trading.bot.util.parameters.FluxParameters;
+import tech.cassandre.trading.bot.util.scheduler.ActivityMonitor;
+import tech.cassandre.trading.bot.util.scheduler.ExchangeRateBudget;
 
 import javax.annotation.PostConstruct;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Set;
 import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * ExchangeConfiguration configures the exchange connection.
  */
 @Configuration
-@EnableConfigurationProperties(ExchangeParameters.class)
+@EnableConfigurationProperties({ExchangeParameters.class, FluxParameters.class})
 public class ExchangeAutoConfiguration extends BaseConfiguration {
 
     /** XChange user sandbox parameter. */
@@ -59,6 +75,9 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
     /** Exchange parameters. */
     private final ExchangeParameters exchangeParameters;
 
+    /** Flux parameters. */
+    private final FluxParameters fluxParameters;
+
     /** Exchange service. */
     private ExchangeService exchangeService;
 
@@ -86,6 +105,12 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
     /** Position flux. */
     private PositionFlux positionFlux;
 
+    /** Exchange rate budget shared by all services. */
+    private ExchangeRateBudget exchangeRateBudget;
+
+    /** Activity monitor (knows if orders or positions are pending). */
+    private final ActivityMonitor activityMonitor = new ActivityMonitor(ActivityMonitor.DEFAULT_QUIET_PERIOD);
+
     /** Order repository. */
     private final OrderRepository orderRepository;
 
@@ -100,17 +125,20 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
      *
      * @param newApplicationContext application context
      * @param newExchangeParameters exchange parameters
+     * @param newFluxParameters     flux parameters
      * @param newOrderRepository    order repository
      * @param newTradeRepository    trade repository
      * @param newPositionRepository position repository
      */
     public ExchangeAutoConfiguration(final ApplicationContext newApplicationContext,
                                      final ExchangeParameters newExchangeParameters,
+                                     final FluxParameters newFluxParameters,
                                      final OrderRepository newOrderRepository,
                                      final TradeRepository newTradeRepository,
                                      final PositionRepository newPositionRepository) {
         this.applicationContext = newApplicationContext;
         this.exchangeParameters = newExchangeParameters;
+        this.fluxParameters = newFluxParameters;
         this.orderRepository = newOrderRepository;
         this.tradeRepository = newTradeRepository;
         this.positionRepository = newPositionRepository;
@@ -153,6 +181,7 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
             long accountRate = getRateValue(exchangeParameters.getRates().getAccount());
             long tickerRate = getRateValue(exchangeParameters.getRates().getTicker());
             long tradeRate = getRateValue(exchangeParameters.getRates().getTrade());
+            exchangeRateBudget = createExchangeRateBudget();
 
             // Creates Cassandre services.
             UserServiceDryModeImplementation userServiceDryMode;
@@ -162,25 +191,63 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
                 getLogger().info("Dry mode is off");
                 this.exchangeService = new ExchangeServiceXChangeImplementation(xChangeExchange);
                 this.userService = new UserServiceXChangeImplementation(accountRate, xChangeAccountService);
-                this.marketService = new MarketServiceXChangeImplementation(tickerRate, xChangeMarketDataService);
-                this.tradeService = new TradeServiceXChangeImplementation(tradeRate, xChangeTradeService);
+                this.marketService = createMarketService(exchangeSpecification, tickerRate, xChangeMarketDataService);
+                final TradeServiceXChangeImplementation tradeServiceXChange = new TradeServiceXChangeImplementation(tradeRate,
+                        xChangeTradeService,
+                        fluxParameters.getTradeHistory().isIncremental(),
+                        fluxParameters.getTradeHistory().getFullSweepInterval());
+                // Orders that were not in a final status when the bot stopped are tracked again.
+                final Set<OrderStatusDTO> finalStatuses = Arrays.stream(OrderStatusDTO.values())
+                        .filter(OrderStatusDTO::isFinal)
+                        .collect(Collectors.toSet());
+                tradeServiceXChange.trackOrders(orderRepository.findByStatusNotInOrderByTimestampAsc(finalStatuses)
+                        .stream()
+                        .map(Order::getId)
+                        .collect(Collectors.toList()));
+                this.tradeService = tradeServiceXChange;
             } else {
                 // Dry mode.
                 getLogger().info("Dry mode is on");
                 this.exchangeService = new ExchangeServiceDryModeImplementation(applicationContext);
                 userServiceDryMode = new UserServiceDryModeImplementation();
                 this.userService = userServiceDryMode;
-                this.marketService = new MarketServiceXChangeImplementation(tickerRate, xChangeMarketDataService);
+                this.marketService = createMarketService(exchangeSpecification, tickerRate, xChangeMarketDataService);
                 tradeServiceDryMode = new TradeServiceDryModeImplementation(userServiceDryMode, tradeRepository, orderRepository);
                 this.tradeService = tradeServiceDryMode;
             }
+            Stream.of(exchangeService, userService, marketService, tradeService)
+                    .filter(BaseService.class::isInstance)
+                    .forEach(service -> {
+                        ((BaseService) service).setRateBudget(exchangeRateBudget);
+                        ((BaseService) service).setActivityMonitor(activityMonitor);
+                    });
 
             // Creates Cassandre flux.
             accountFlux = new AccountFlux(userService);
-            tickerFlux = new TickerFlux(marketService);
-            orderFlux = new OrderFlux(tradeService, orderRepository);
-            tradeFlux = new TradeFlux(tradeService, orderRepository, tradeRepository);
+            tickerFlux = new TickerFlux(marketService,
+                    fluxParameters.getTicker().getFetchMode(),
+                    fluxParameters.getTicker().getConcurrency(),
+                    fluxParameters.getTicker().getGapThreshold());
+            orderFlux = new OrderFlux(tradeService,
+                    orderRepository,
+                    fluxParameters.getOrder().getCapacity(),
+                    fluxParameters.getOrder().getOverflowPolicy(),
+                    Paths.get(fluxParameters.getOrder().getSpillDirectory()));
+            tradeFlux = new TradeFlux(tradeService,
+                    orderRepository,
+                    tradeRepository,
+                    fluxParameters.getTrade().getCapacity(),
+                    fluxParameters.getTrade().getOverflowPolicy(),
+                    Paths.get(fluxParameters.getTrade().getSpillDirectory()));
             positionFlux = new PositionFlux(positionRepository);
+            if (fluxParameters.getBackup().isWriteBehind()) {
+                getLogger().info("ExchangeConfiguration - Orders, trades and positions are saved asynchronously");
+                final int batchSize = fluxParameters.getBackup().getBatchSize();
+                final long flushInterval = fluxParameters.getBackup().getFlushInterval();
+                orderFlux.enableWriteBehind(batchSize, flushInterval);
+                tradeFlux.enableWriteBehind(batchSize, flushInterval);
+                positionFlux.enableWriteBehind(batchSize, flushInterval);
+            }
 
             // Force login to check credentials.
             xChangeAccountService.getAccountInfo();
@@ -212,12 +279,59 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
                 e.printStackTrace();
                 throw new ConfigurationException("Error while connecting to the exchange " + e.getMessage());
             }
+        } catch (ConfigurationException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             throw new ConfigurationException("Unknown Configuration error : " + e.getMessage());
         }
     }
 
+    /**
+     * Creates the market service (streaming or not depending on the ticker fetch mode).
+     *
+     * @param exchangeSpecification    exchange specification
+     * @param tickerRate               ticker rate
+     * @param xChangeMarketDataService XChange market data service
+     * @return market service
+     */
+    private MarketService createMarketService(final ExchangeSpecification exchangeSpecification,
+                                              final long tickerRate,
+                                              final MarketDataService xChangeMarketDataService) {
+        if (fluxParameters.getTicker().getFetchMode() != TickerFetchMode.STREAMING) {
+            return new MarketServiceXChangeImplementation(tickerRate, xChangeMarketDataService);
+        }
+        try {
+            // Same specification as the REST exchange but with the streaming exchange class.
+            ExchangeSpecification streamingExchangeSpecification = new ExchangeSpecification(getStreamingExchangeClassName());
+            streamingExchangeSpecification.setUserName(exchangeSpecification.getUserName());
+            streamingExchangeSpecification.setApiKey(exchangeSpecification.getApiKey());
+            streamingExchangeSpecification.setSecretKey(exchangeSpecification.getSecretKey());
+            streamingExchangeSpecification.setExchangeSpecificParameters(exchangeSpecification.getExchangeSpecificParameters());
+            StreamingExchange streamingExchange = StreamingExchangeFactory.INSTANCE.createExchange(streamingExchangeSpecification);
+            getLogger().info("ExchangeConfiguration - Tickers will be retrieved with {}", getStreamingExchangeClassName());
+            return new MarketServiceXChangeStreamingImplementation(tickerRate, xChangeMarketDataService, streamingExchange);
+        } catch (RuntimeException e) {
+            throw new ConfigurationException("Impossible to create the streaming exchange " + getStreamingExchangeClassName() + " : " + e.getMessage(),
+                    "Add the xchange-stream dependency of your exchange or change " + FluxParameters.Ticker.PARAMETER_FLUX_TICKER_FETCH_MODE);
+        }
+    }
+
+    /**
+     * Returns the XChange streaming class based on the exchange name.
+     *
+     * @return XChange streaming class name
+     */
+    private String getStreamingExchangeClassName() {
+        // Returns the XChange stream class name (info.bitrich.xchangestream.kucoin.KucoinStreamingExchange).
+        return "info.bitrich.xchangestream."
+                .concat(exchangeParameters.getName().toLowerCase())
+                .concat(".")
+                .concat(exchangeParameters.getName().substring(0, 1).toUpperCase())
+                .concat(exchangeParameters.getName().substring(1).toLowerCase())
+                .concat("StreamingExchange");
+    }
+
     /**
      * Returns the XChange class based on the exchange name.
      *
@@ -237,6 +351,26 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
                 .concat(xChangeCLassSuffix);                                            // Adding exchange (Exchange).
     }
 
+    /**
+     * Creates the exchange rate budget shared by all services (no limit if no shared rate is set).
+     *
+     * @return exchange rate budget
+     */
+    private ExchangeRateBudget createExchangeRateBudget() {
+        final String sharedRate = exchangeParameters.getRates().getShared();
+        if (sharedRate == null || sharedRate.isEmpty()) {
+            return new ExchangeRateBudget(0, 1);
+        }
+        try {
+            final ExchangeRateBudget budget = new ExchangeRateBudget(getRateValue(sharedRate), exchangeParameters.getRates().getBurst());
+            getLogger().info("ExchangeConfiguration - Shared exchange rate : {} ms (burst : {})", budget.getInterval(), budget.getBurst());
+            return budget;
+        } catch (DateTimeParseException e) {
+            throw new ConfigurationException("Invalid shared rate : " + sharedRate,
+                    "Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)");
+        }
+    }
+
     /**
      * Return rate value.
      *
@@ -310,6 +444,26 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
         return tradeService;
     }
 
+    /**
+     * Getter for exchangeRateBudget.
+     *
+     * @return exchangeRateBudget
+     */
+    @Bean
+    public ExchangeRateBudget getExchangeRateBudget() {
+        return exchangeRateBudget;
+    }
+
+    /**
+     * Getter for activityMonitor.
+     *
+     * @return activityMonitor
+     */
+    @Bean
+    public ActivityMonitor getActivityMonitor() {
+        return activityMonitor;
+    }
+
     /**
      * Getter for accountFlux.
      *
@@ -1,24 +1,40 @@
 package tech.cassandre.trading.bot.configuration;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.event.EventListener;
 import tech.cassandre.trading.bot.batch.AccountFlux;
 import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.TickerFlux;
 import tech.cassandre.trading.bot.batch.TradeFlux;
+import tech.cassandre.trading.bot.util.base.BaseConfiguration;
+import tech.cassandre.trading.bot.util.base.BaseExternalFlux;
+import tech.cassandre.trading.bot.util.exception.ConfigurationException;
+import tech.cassandre.trading.bot.util.parameters.ScheduleParameters;
+import tech.cassandre.trading.bot.util.scheduler.ActivityMonitor;
+import tech.cassandre.trading.bot.util.scheduler.AdaptivePollingTrigger;
+import tech.cassandre.trading.bot.util.scheduler.PollingLane;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * ScheduleAutoConfiguration configures the flux calls.
+ * Each flux is called in its own lane (dedicated threads) with an adaptive delay : as fast as allowed when it returns
+ * new values, slower when it's idle.
  */
 @Configuration
 @Profile("!schedule-disabled")
-@EnableScheduling
-public class ScheduleAutoConfiguration {
+@EnableConfigurationProperties(ScheduleParameters.class)
+public class ScheduleAutoConfiguration extends BaseConfiguration {
 
-    /** Position update delay. */
-    private static final long ONE_SECOND = 1_000;
+    /** Schedule parameters. */
+    private final ScheduleParameters scheduleParameters;
 
     /** Account flux. */
     private final AccountFlux accountFlux;
@@ -32,55 +48,94 @@ public class ScheduleAutoConfiguration {
     /** Trade flux. */
     private final TradeFlux tradeFlux;
 
+    /** Activity monitor. */
+    private final ActivityMonitor activityMonitor;
+
+    /** Polling lanes (one per flux). */
+    private final Map<String, PollingLane> pollingLanes = new LinkedHashMap<>();
+
     /**
      * Constructor.
      *
-     * @param newAccountFlux  account flux
-     * @param newTickerFlux   ticker flux
-     * @param newOrderFlux    order flux
-     * @param newTradeFlux    trade flux
+     * @param newScheduleParameters schedule parameters
+     * @param newAccountFlux        account flux
+     * @param newTickerFlux         ticker flux
+     * @param newOrderFlux          order flux
+     * @param newTradeFlux          trade flux
+     * @param newActivityMonitor    activity monitor
      */
-    public ScheduleAutoConfiguration(final AccountFlux newAccountFlux,
+    public ScheduleAutoConfiguration(final ScheduleParameters newScheduleParameters,
+                                     final AccountFlux newAccountFlux,
                                      final TickerFlux newTickerFlux,
                                      final OrderFlux newOrderFlux,
-                                     final TradeFlux newTradeFlux) {
+                                     final TradeFlux newTradeFlux,
+                                     final ActivityMonitor newActivityMonitor) {
+        this.scheduleParameters = newScheduleParameters;
         this.accountFlux = newAccountFlux;
         this.tickerFlux = newTickerFlux;
         this.orderFlux = newOrderFlux;
         this.tradeFlux = newTradeFlux;
+        this.activityMonitor = newActivityMonitor;
     }
 
     /**
-     * Recurrent calls the account flux.
+     * Creates a polling lane for each flux.
      */
-    // TODO Remove initialDelay
-    @Scheduled(fixedDelay = 1)
-    public void setupAccountFlux() {
-        accountFlux.update();
+    @PostConstruct
+    public void configure() {
+        if (scheduleParameters.getMaximumDelay() < scheduleParameters.getMinimumDelay()) {
+            throw new ConfigurationException("Maximum delay is lower than minimum delay",
+                    "Set " + ScheduleParameters.PARAMETER_SCHEDULE_MAXIMUM_DELAY + " to a value higher than " + ScheduleParameters.PARAMETER_SCHEDULE_MINIMUM_DELAY);
+        }
+        getLogger().info("ScheduleConfiguration - Polling delays between {} ms and {} ms", scheduleParameters.getMinimumDelay(), scheduleParameters.getMaximumDelay());
+        addPollingLane("account", accountFlux);
+        addPollingLane("ticker", tickerFlux);
+        addPollingLane("order", orderFlux);
+        addPollingLane("trade", tradeFlux);
+        if (scheduleParameters.getIdleDelay() > 0) {
+            // Orders & trades are only checked every idle delay when no order or position is pending.
+            getLogger().info("ScheduleConfiguration - Order and trade fluxes called every {} ms when idle", scheduleParameters.getIdleDelay());
+            pollingLanes.get("order").enableIdleHeartbeat(activityMonitor, scheduleParameters.getIdleDelay());
+            pollingLanes.get("trade").enableIdleHeartbeat(activityMonitor, scheduleParameters.getIdleDelay());
+        }
     }
 
     /**
-     * Recurrent calls the ticker flux.
+     * Starts the polling lanes once the application is ready - strategies are then subscribed to the fluxes, so the
+     * first values are not lost.
      */
-    @Scheduled(fixedDelay = 1)
-    public void setupTickerFlux() {
-        tickerFlux.update();
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPollingLanes() {
+        pollingLanes.values().forEach(PollingLane::start);
     }
 
     /**
-     * Recurrent calls the order flux.
+     * Stops all polling lanes.
      */
-    @Scheduled(fixedDelay = 1)
-    public void setupOrderFlux() {
-        orderFlux.update();
+    @PreDestroy
+    public void stopPollingLanes() {
+        pollingLanes.values().forEach(PollingLane::stop);
     }
 
     /**
-     * Recurrent calls the trade flux.
+     * Creates the polling lane of a flux.
+     *
+     * @param name lane name
+     * @param flux flux to update
+     */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    private void addPollingLane(final String name, final BaseExternalFlux<?> flux) {
+        final AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(scheduleParameters.getMinimumDelay(), scheduleParameters.getMaximumDelay());
+        pollingLanes.put(name, new PollingLane(name, flux, trigger, scheduleParameters.getThreadNamePrefix()));
+    }
+
+    /**
+     * Getter pollingLanes (gives access to the lanes metrics).
+     *
+     * @return pollingLanes
      */
-    @Scheduled(fixedDelay = 1)
-    public void setupTradeFlux() {
-        tradeFlux.update();
+    public Map<String, PollingLane> getPollingLanes() {
+        return Collections.unmodifiableMap(pollingLanes);
     }
 
 }
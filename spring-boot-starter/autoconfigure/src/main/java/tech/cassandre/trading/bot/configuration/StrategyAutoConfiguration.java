@@ -3,15 +3,19 @@ package tech.cassandre.trading.bot.configuration;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import reactor.core.publisher.ConnectableFlux;
 import tech.cassandre.trading.bot.batch.AccountFlux;
 import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.PositionFlux;
 import tech.cassandre.trading.bot.batch.TickerFlux;
 import tech.cassandre.trading.bot.batch.TradeFlux;
+import tech.cassandre.trading.bot.domain.Order;
 import tech.cassandre.trading.bot.domain.Strategy;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.dto.user.AccountDTO;
@@ -25,31 +29,62 @@ import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.service.UserService;
 import tech.cassandre.trading.bot.service.dry.TradeServiceDryModeImplementation;
 import tech.cassandre.trading.bot.service.dry.UserServiceDryModeImplementation;
+import tech.cassandre.trading.bot.service.intern.AsynchronousTradeService;
+import tech.cassandre.trading.bot.service.intern.GainsLedger;
 import tech.cassandre.trading.bot.service.intern.PositionServiceImplementation;
 import tech.cassandre.trading.bot.strategy.CassandreStrategy;
 import tech.cassandre.trading.bot.strategy.CassandreStrategyInterface;
 import tech.cassandre.trading.bot.strategy.GenericCassandreStrategy;
 import tech.cassandre.trading.bot.util.base.BaseConfiguration;
 import tech.cassandre.trading.bot.util.exception.ConfigurationException;
+import tech.cassandre.trading.bot.util.parameters.FluxParameters;
+import tech.cassandre.trading.bot.util.scheduler.ActivityMonitor;
+import tech.cassandre.trading.bot.util.scheduler.EventLane;
+import tech.cassandre.trading.bot.util.scheduler.ExchangeRateBudget;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
 
 /**
- * StrategyAutoConfiguration configures the strategy.
+ * StrategyAutoConfiguration configures the strategies.
+ * Fluxes are shared : data is retrieved once and sent to every strategy, each strategy receiving its events in order
+ * in its own lane. The position service has its own high priority lane.
  */
 @Configuration
 public class StrategyAutoConfiguration extends BaseConfiguration {
 
+    /** Thread name prefix of the strategy lanes. */
+    private static final String STRATEGY_THREAD_NAME_PREFIX = "cassandre-strategy-";
+
+    /** Thread name prefix of the position service lane. */
+    private static final String POSITION_THREAD_NAME_PREFIX = "cassandre-positions-";
+
+    /** Name of the position service lane. */
+    private static final String POSITION_LANE_NAME = "positions";
+
     /** Application context. */
     private final ApplicationContext applicationContext;
 
     /** Trade service. */
     private final TradeService tradeService;
 
+    /** Asynchronous trade service. */
+    private AsynchronousTradeService asynchronousTradeService;
+
+    /** Gains ledger. */
+    private GainsLedger gainsLedger;
+
     /** Position service. */
     private PositionService positionService;
 
@@ -83,6 +118,36 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
     /** Position flux. */
     private final PositionFlux positionFlux;
 
+    /** Exchange rate budget. */
+    private final ExchangeRateBudget exchangeRateBudget;
+
+    /** Activity monitor. */
+    private final ActivityMonitor activityMonitor;
+
+    /** Flux parameters. */
+    private final FluxParameters fluxParameters;
+
+    /** Strategies by strategy id. */
+    private final Map<String, CassandreStrategyInterface> strategies = new LinkedHashMap<>();
+
+    /** Currency pairs requested by the strategies by strategy id. */
+    private final Map<String, Set<CurrencyPairDTO>> requestedCurrencyPairs = new LinkedHashMap<>();
+
+    /** Strategy ids by order id (trades are sent to the strategy that created their order). */
+    private final Map<String, String> orderStrategyIds = new ConcurrentHashMap<>();
+
+    /** Event lanes of the strategies by strategy id. */
+    private final Map<String, EventLane> strategyLanes = new LinkedHashMap<>();
+
+    /** Thread pool running the strategy lanes. */
+    private ThreadPoolTaskExecutor strategyExecutor;
+
+    /** Thread running the position service lane. */
+    private ThreadPoolTaskExecutor positionExecutor;
+
+    /** Position service lane. */
+    private EventLane positionLane;
+
     /**
      * Constructor.
      *
@@ -98,6 +163,9 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
      * @param newTradeRepository    trade repository
      * @param newPositionRepository position repository
      * @param newPositionFlux       position flux
+     * @param newExchangeRateBudget exchange rate budget
+     * @param newActivityMonitor    activity monitor
+     * @param newFluxParameters     flux parameters
      */
     @SuppressWarnings("checkstyle:ParameterNumber")
     public StrategyAutoConfiguration(final ApplicationContext newApplicationContext,
@@ -111,7 +179,10 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
                                      final OrderRepository newOrderRepository,
                                      final TradeRepository newTradeRepository,
                                      final PositionRepository newPositionRepository,
-                                     final PositionFlux newPositionFlux) {
+                                     final PositionFlux newPositionFlux,
+                                     final ExchangeRateBudget newExchangeRateBudget,
+                                     final ActivityMonitor newActivityMonitor,
+                                     final FluxParameters newFluxParameters) {
         this.applicationContext = newApplicationContext;
         this.userService = newUserService;
         this.tradeService = newTradeService;
@@ -124,18 +195,47 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
         this.tradeRepository = newTradeRepository;
         this.positionRepository = newPositionRepository;
         this.positionFlux = newPositionFlux;
+        this.exchangeRateBudget = newExchangeRateBudget;
+        this.activityMonitor = newActivityMonitor;
+        this.fluxParameters = newFluxParameters;
     }
 
     /**
-     * Search for the strategy and runs it.
+     * Search for the strategies and runs them.
      */
     @PostConstruct
     public void configure() {
         // Retrieving all the beans have the annotation @Strategy.
         final Map<String, Object> strategyBeans = applicationContext.getBeansWithAnnotation(CassandreStrategy.class);
+        checkStrategies(strategyBeans);
+
+        // =============================================================================================================
+        // Setting up asynchronous trade service & position service (shared by all strategies).
+        this.asynchronousTradeService = new AsynchronousTradeService(tradeService);
+        final PositionServiceImplementation positionServiceImplementation = new PositionServiceImplementation(tradeService, positionRepository, positionFlux, asynchronousTradeService);
+        positionServiceImplementation.setActivityMonitor(activityMonitor);
+        this.positionService = positionServiceImplementation;
+
+        // =============================================================================================================
+        // Setting up strategies.
+        setUpStrategies(strategyBeans);
 
         // =============================================================================================================
-        // Check if everything is ok.
+        // Connecting fluxes.
+        connectFluxes(positionServiceImplementation);
+
+        // If in dry mode, we setup dependencies.
+        if (userService instanceof UserServiceDryModeImplementation) {
+            strategies.values().forEach(strategy -> ((UserServiceDryModeImplementation) userService).setDependencies((GenericCassandreStrategy) strategy));
+        }
+    }
+
+    /**
+     * Checks that the strategies are correctly configured.
+     *
+     * @param strategyBeans strategy beans
+     */
+    private void checkStrategies(final Map<String, Object> strategyBeans) {
 
         // Check if there is no strategy.
         if (strategyBeans.isEmpty()) {
@@ -144,111 +244,351 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
                     "You must have one class with @Strategy");
         }
 
-        // Check if there are several strategies.
-        if (strategyBeans.size() > 1) {
-            getLogger().error("Several strategies found");
-            strategyBeans.forEach((s, o) -> getLogger().error(" - " + s));
-            throw new ConfigurationException("Several strategies found",
-                    "Cassandre trading bot only supports one strategy at a time (@Strategy)");
-        }
-
-        // Check if the strategy extends CassandreStrategy.
-        Object o = strategyBeans.values().iterator().next();
-        if (!(o instanceof CassandreStrategyInterface)) {
-            throw new ConfigurationException("Your strategy doesn't extend BasicCassandreStrategy or BasicTa4jCassandreStrategy",
-                    o.getClass() + " must extend BasicCassandreStrategy or BasicTa4jCassandreStrategy");
-        }
+        // Check if the strategies extend CassandreStrategy.
+        strategyBeans.values().forEach(o -> {
+            if (!(o instanceof CassandreStrategyInterface)) {
+                throw new ConfigurationException("Your strategy doesn't extend BasicCassandreStrategy or BasicTa4jCassandreStrategy",
+                        o.getClass() + " must extend BasicCassandreStrategy or BasicTa4jCassandreStrategy");
+            }
+        });
+
+        // Check that strategies have different ids.
+        final Set<String> strategyIds = new HashSet<>();
+        strategyBeans.values().forEach(o -> {
+            if (!strategyIds.add(o.getClass().getAnnotation(CassandreStrategy.class).id())) {
+                getLogger().error("Several strategies have the same id");
+                strategyBeans.forEach((s, b) -> getLogger().error(" - " + s));
+                throw new ConfigurationException("Several strategies have the same id",
+                        "Each strategy must have its own id (@Strategy(id = \"...\"))");
+            }
+        });
 
-        // Check that the trading account the strategy asks for really exists.
+        // Check that the trading account the strategies ask for really exists.
         final Optional<UserDTO> user = userService.getUser();
         if (user.isPresent()) {
-            final Optional<AccountDTO> tradeAccount = ((CassandreStrategyInterface) o).getTradeAccount(new LinkedHashSet<>(user.get().getAccounts().values()));
-            if (tradeAccount.isEmpty()) {
-                StringJoiner accountList = new StringJoiner(", ");
-                user.get().getAccounts().values().forEach(accountDTO -> System.out.println("=> " + accountDTO));
-                user.get().getAccounts().values().forEach(accountDTO -> accountList.add(accountDTO.getName()));
-                throw new ConfigurationException("Your strategy specifies a trading account that doesn't exist",
-                        "Check your getTradeAccount(Set<AccountDTO> accounts) method as it returns an empty result - Account list : " + accountList);
-            }
+            strategyBeans.values().forEach(o -> {
+                final Optional<AccountDTO> tradeAccount = ((CassandreStrategyInterface) o).getTradeAccount(new LinkedHashSet<>(user.get().getAccounts().values()));
+                if (tradeAccount.isEmpty()) {
+                    StringJoiner accountList = new StringJoiner(", ");
+                    user.get().getAccounts().values().forEach(accountDTO -> System.out.println("=> " + accountDTO));
+                    user.get().getAccounts().values().forEach(accountDTO -> accountList.add(accountDTO.getName()));
+                    throw new ConfigurationException("Your strategy specifies a trading account that doesn't exist",
+                            "Check your getTradeAccount(Set<AccountDTO> accounts) method as it returns an empty result - Account list : " + accountList);
+                }
+            });
         } else {
             throw new ConfigurationException("Impossible to retrieve your user information",
                     "Impossible to retrieve your user information. Check logs.");
         }
+    }
 
-        // =============================================================================================================
-        // Getting strategy information.
-        CassandreStrategyInterface strategy = (CassandreStrategyInterface) o;
-
-        // Displaying strategy name.
-        CassandreStrategy cassandreStrategyAnnotation = o.getClass().getAnnotation(CassandreStrategy.class);
-        getLogger().info("StrategyConfiguration - Running strategy '{}'", cassandreStrategyAnnotation.name());
-
-        // Displaying requested currency pairs.
-        StringJoiner currencyPairList = new StringJoiner(", ");
-        strategy.getRequestedCurrencyPairs()
-                .forEach(currencyPair -> currencyPairList.add(currencyPair.toString()));
-        getLogger().info("StrategyConfiguration - The strategy requires the following currency pair(s) : " + currencyPairList);
-
-        // =============================================================================================================
-        // Setting up position service.
-        this.positionService = new PositionServiceImplementation(tradeService, positionRepository, positionFlux);
+    /**
+     * Sets up the strategies and their lanes.
+     *
+     * @param strategyBeans strategy beans
+     */
+    private void setUpStrategies(final Map<String, Object> strategyBeans) {
+        // Each strategy receives its events in its own lane (one worker per strategy).
+        final boolean severalStrategies = strategyBeans.size() > 1;
+        strategyExecutor = getLaneExecutor(strategyBeans.size(), STRATEGY_THREAD_NAME_PREFIX, Thread.NORM_PRIORITY);
+
+        // The position service (position rules) receives its events in its own high priority lane, so a slow strategy
+        // never delays the closing of positions.
+        positionExecutor = getLaneExecutor(1, POSITION_THREAD_NAME_PREFIX, Thread.MAX_PRIORITY);
+        positionLane = new EventLane(POSITION_LANE_NAME, positionExecutor, fluxParameters.getLanes().getPositionCapacity());
+
+        strategyBeans.values().forEach(o -> {
+            CassandreStrategyInterface strategy = (CassandreStrategyInterface) o;
+
+            // Displaying strategy name.
+            CassandreStrategy cassandreStrategyAnnotation = o.getClass().getAnnotation(CassandreStrategy.class);
+            getLogger().info("StrategyConfiguration - Running strategy '{}'", cassandreStrategyAnnotation.name());
+
+            // Displaying requested currency pairs.
+            StringJoiner currencyPairList = new StringJoiner(", ");
+            strategy.getRequestedCurrencyPairs()
+                    .forEach(currencyPair -> currencyPairList.add(currencyPair.toString()));
+            getLogger().info("StrategyConfiguration - The strategy requires the following currency pair(s) : " + currencyPairList);
+
+            // Saving strategy in database.
+            Strategy s = new Strategy();
+            s.setId(cassandreStrategyAnnotation.id());
+            s.setName(cassandreStrategyAnnotation.name());
+            strategyRepository.save(s);
+
+            // Setting services & repositories.
+            strategy.setStrategyDTO(mapper.mapToStrategyDTO(s));
+            strategy.setOrderRepository(orderRepository);
+            strategy.setTradeRepository(tradeRepository);
+            strategy.setTradeService(tradeService);
+            strategy.setAsynchronousTradeService(asynchronousTradeService);
+            strategy.setPositionService(positionService);
+            strategy.setPositionRepository(positionRepository);
+            strategy.setOrderFlux(orderFlux);
+            strategy.setTradeFlux(tradeFlux);
+            strategy.setPositionFlux(positionFlux);
+            strategy.setPartitioned(severalStrategies);
+
+            strategies.put(s.getId(), strategy);
+            strategyLanes.put(s.getId(), new EventLane(s.getId(), strategyExecutor, fluxParameters.getLanes().getStrategyCapacity()));
+            requestedCurrencyPairs.put(s.getId(), new HashSet<>(strategy.getRequestedCurrencyPairs()));
+        });
+    }
 
-        // =============================================================================================================
-        // Setting up strategy.
-
-        // Saving strategy in database.
-        Strategy s = new Strategy();
-        s.setId(cassandreStrategyAnnotation.id());
-        s.setName(cassandreStrategyAnnotation.name());
-        strategyRepository.save(s);
-
-        // Setting services & repositories.
-        strategy.setStrategyDTO(mapper.mapToStrategyDTO(s));
-        strategy.setOrderRepository(orderRepository);
-        strategy.setTradeRepository(tradeRepository);
-        strategy.setTradeService(tradeService);
-        strategy.setPositionService(positionService);
-        strategy.setPositionRepository(positionRepository);
+    /**
+     * Connects the fluxes to the strategies and to the services.
+     *
+     * @param positionServiceImplementation position service
+     */
+    private void connectFluxes(final PositionServiceImplementation positionServiceImplementation) {
 
         // Account flux.
         final ConnectableFlux<AccountDTO> connectableAccountFlux = accountFlux.getFlux().publish();
-        connectableAccountFlux.subscribe(strategy::accountUpdate);
+        connectableAccountFlux.subscribe(account -> dispatchToAll(account.getId(), strategy -> strategy.accountUpdate(account)));
         connectableAccountFlux.connect();
 
         // Position flux.
         final ConnectableFlux<PositionDTO> connectablePositionFlux = positionFlux.getFlux().publish();
-        connectablePositionFlux.subscribe(strategy::positionUpdate);        // For strategy.
+        connectablePositionFlux.subscribe(position -> dispatch(getStrategyId(position.getStrategy()), strategy -> strategy.positionUpdate(position)));  // For strategies.
+        connectablePositionFlux.subscribe(exchangeRateBudget::positionUpdate);  // For ticker priorities.
+        connectablePositionFlux.subscribe(activityMonitor::positionUpdate);     // For idle detection.
+        connectablePositionFlux.subscribe(positionServiceImplementation::positionUpdate);  // For position index.
         connectablePositionFlux.connect();
+        positionServiceImplementation.loadPositionIndex();
+        this.gainsLedger = positionServiceImplementation.getGainsLedger();
+        gainsLedger.startVerification(GainsLedger.DEFAULT_VERIFICATION_PERIOD);
+        positionRepository.findByStatusNot(CLOSED)
+                .stream()
+                .map(mapper::mapToPositionDTO)
+                .forEach(p -> {
+                    exchangeRateBudget.positionUpdate(p);
+                    activityMonitor.positionUpdate(p);
+                });
 
         // Order flux.
         final ConnectableFlux<OrderDTO> connectableOrderFlux = orderFlux.getFlux().publish();
-        connectableOrderFlux.subscribe(strategy::orderUpdate);              // For strategy.
-        connectableOrderFlux.subscribe(positionService::orderUpdate);       // For strategy.
+        connectableOrderFlux.subscribe(this::orderUpdate);                 // For trades dispatch.
+        // The position service lane comes first so a full strategy lane never delays the position rules.
+        connectableOrderFlux.subscribe(order -> positionLane.execute(() -> positionService.orderUpdate(order)));   // For position service.
+        connectableOrderFlux.subscribe(order -> dispatch(getStrategyId(order), strategy -> strategy.orderUpdate(order)));  // For strategies.
+        connectableOrderFlux.subscribe(activityMonitor::orderUpdate);       // For idle detection.
         connectableOrderFlux.connect();
+        orderRepository.findByOrderByTimestampAsc()
+                .stream()
+                .map(mapper::mapToOrderDTO)
+                .forEach(activityMonitor::orderUpdate);
 
-        // Trade flux to strategy.
+        // Trade flux to strategies.
         final ConnectableFlux<TradeDTO> connectableTradeFlux = tradeFlux.getFlux().publish();
-        connectableTradeFlux.subscribe(strategy::tradeUpdate);              // For strategy.
-        connectableTradeFlux.subscribe(positionService::tradeUpdate);       // For position service.
+        connectableTradeFlux.subscribe(trade -> positionLane.execute(() -> positionService.tradeUpdate(trade)));   // For position service.
+        connectableTradeFlux.subscribe(trade -> dispatch(getStrategyId(trade), strategy -> strategy.tradeUpdate(trade)));  // For strategies.
         connectableTradeFlux.connect();
 
         // Ticker flux.
-        tickerFlux.updateRequestedCurrencyPairs(strategy.getRequestedCurrencyPairs());
         final ConnectableFlux<TickerDTO> connectableTickerFlux = tickerFlux.getFlux().publish();
         // if in dry mode, we also send the ticker to the trade service in dry mode.
         if (tradeService instanceof TradeServiceDryModeImplementation) {
             connectableTickerFlux.subscribe(((TradeServiceDryModeImplementation) tradeService)::tickerUpdate);
         }
-        connectableTickerFlux.subscribe(strategy::tickerUpdate);            // For strategy.
-        connectableTickerFlux.subscribe(positionService::tickerUpdate);     // For position service.
+        connectableTickerFlux.subscribe(ticker -> positionLane.execute(ticker.getCurrencyPair(), () -> positionService.tickerUpdate(ticker)));  // For position service.
+        connectableTickerFlux.subscribe(ticker -> dispatchTicker(ticker, strategy -> strategy.tickerUpdate(ticker)));  // For strategies.
         connectableTickerFlux.connect();
+        // Requested after the connection as, in streaming mode, tickers are emitted as soon as we subscribe.
+        // Tickers are retrieved once for all the strategies (with the union of their currency pairs).
+        final Set<CurrencyPairDTO> allRequestedCurrencyPairs = new LinkedHashSet<>();
+        requestedCurrencyPairs.values().forEach(allRequestedCurrencyPairs::addAll);
+        tickerFlux.updateRequestedCurrencyPairs(allRequestedCurrencyPairs);
+    }
 
-        // If in dry mode, we setup dependencies.
-        if (userService instanceof UserServiceDryModeImplementation) {
-            ((UserServiceDryModeImplementation) userService).setDependencies((GenericCassandreStrategy) strategy);
+    /**
+     * Stops the lanes, waits for the orders being sent and stops the gains verification.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (strategyExecutor != null) {
+            strategyExecutor.shutdown();
+        }
+        if (positionExecutor != null) {
+            positionExecutor.shutdown();
+        }
+        if (asynchronousTradeService != null) {
+            asynchronousTradeService.close();
+        }
+        if (gainsLedger != null) {
+            gainsLedger.close();
+        }
+    }
+
+    /**
+     * Returns an executor running lanes - a lane is never scheduled twice, so the executor has one thread per lane and
+     * its queue never holds more than one task per lane.
+     *
+     * @param lanesCount       number of lanes
+     * @param threadNamePrefix thread name prefix
+     * @param threadPriority   thread priority
+     * @return executor
+     */
+    private ThreadPoolTaskExecutor getLaneExecutor(final int lanesCount, final String threadNamePrefix, final int threadPriority) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(lanesCount);
+        executor.setMaxPoolSize(lanesCount);
+        executor.setQueueCapacity(lanesCount);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setThreadPriority(threadPriority);
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Sends an event that can be dropped (account) to all the strategies, in their lanes.
+     *
+     * @param key    key of the event (a newer event with the same key can replace it if a lane is full)
+     * @param update update to call on strategies
+     */
+    private void dispatchToAll(final Object key, final Consumer<CassandreStrategyInterface> update) {
+        strategies.forEach((id, strategy) -> strategyLanes.get(id).execute(key, () -> update.accept(strategy)));
+    }
+
+    /**
+     * Sends a ticker to the strategies that requested its currency pair, in their lanes.
+     *
+     * @param ticker ticker (a newer ticker for the same currency pair can replace it if a lane is full)
+     * @param update update to call on strategies
+     */
+    private void dispatchTicker(final TickerDTO ticker, final Consumer<CassandreStrategyInterface> update) {
+        strategies.forEach((id, strategy) -> {
+            if (requestedCurrencyPairs.get(id).contains(ticker.getCurrencyPair())) {
+                strategyLanes.get(id).execute(ticker.getCurrencyPair(), () -> update.accept(strategy));
+            }
+        });
+    }
+
+    /**
+     * Sends an event to the strategies concerned, in their lanes.
+     * With several strategies, an event belonging to a strategy is only sent to this strategy.
+     *
+     * @param strategyId id of the strategy the event belongs to (null if it belongs to all strategies)
+     * @param update     update to call on strategies
+     */
+    private void dispatch(final String strategyId, final Consumer<CassandreStrategyInterface> update) {
+        strategies.forEach((id, strategy) -> {
+            if (strategyId == null || strategies.size() == 1 || id.equals(strategyId)) {
+                strategyLanes.get(id).execute(() -> update.accept(strategy));
+            }
+        });
+    }
+
+    /**
+     * Returns the id of a strategy.
+     *
+     * @param strategy strategy
+     * @return strategy id (null if no strategy)
+     */
+    private String getStrategyId(final StrategyDTO strategy) {
+        if (strategy != null) {
+            return strategy.getId();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the id of the strategy that created an order (orders received from the exchange don't have it).
+     *
+     * @param order order
+     * @return strategy id (null if unknown or if there is only one strategy)
+     */
+    private String getStrategyId(final OrderDTO order) {
+        if (order.getStrategy() != null) {
+            return order.getStrategy().getId();
+        } else {
+            return getOrderStrategyId(order.getId());
         }
     }
 
+    /**
+     * Returns the id of the strategy that created the order of a trade.
+     *
+     * @param trade trade
+     * @return strategy id (null if unknown or if there is only one strategy)
+     */
+    private String getStrategyId(final TradeDTO trade) {
+        return getOrderStrategyId(trade.getOrderId());
+    }
+
+    /**
+     * Returns the id of the strategy that created an order.
+     *
+     * @param orderId order id
+     * @return strategy id (null if unknown or if there is only one strategy)
+     */
+    private String getOrderStrategyId(final String orderId) {
+        if (strategies.size() > 1 && orderId != null) {
+            final String strategyId = orderStrategyIds.get(orderId);
+            if (strategyId != null) {
+                return strategyId;
+            }
+            // Order not received from the order flux (created before a restart), we search it once in database.
+            final Optional<String> savedStrategyId = orderRepository.findById(orderId)
+                    .map(Order::getStrategy)
+                    .map(Strategy::getId);
+            savedStrategyId.ifPresent(id -> orderStrategyIds.put(orderId, id));
+            return savedStrategyId.orElse(null);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Method called by streams on every order update - remembers the strategy that created the order.
+     *
+     * @param order order
+     */
+    private void orderUpdate(final OrderDTO order) {
+        if (strategies.size() > 1 && order.getStrategy() != null) {
+            orderStrategyIds.put(order.getId(), order.getStrategy().getId());
+        }
+    }
+
+    /**
+     * Returns the strategy lanes by strategy id.
+     *
+     * @return strategy lanes
+     */
+    public Map<String, EventLane> getStrategyLanes() {
+        return strategyLanes;
+    }
+
+    /**
+     * Returns the position service lane.
+     *
+     * @return position lane
+     */
+    public EventLane getPositionLane() {
+        return positionLane;
+    }
+
+    /**
+     * Getter for asynchronousTradeService.
+     *
+     * @return asynchronousTradeService
+     */
+    @Bean
+    public AsynchronousTradeService getAsynchronousTradeService() {
+        return asynchronousTradeService;
+    }
+
+    /**
+     * Getter for gainsLedger.
+     *
+     * @return gainsLedger
+     */
+    @Bean
+    public GainsLedger getGainsLedger() {
+        return gainsLedger;
+    }
+
     /**
      * Getter for positionService.
      *
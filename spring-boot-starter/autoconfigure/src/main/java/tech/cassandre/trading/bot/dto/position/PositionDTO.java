@@ -89,6 +89,15 @@ public class PositionDTO {
     /** Big integer scale. */
     private static final int BIGINTEGER_SCALE = 4;
 
+    /** Gains calculated with doubles are checked with the exact calculation when they are this close to a rule (percentage points). */
+    private static final double GAIN_PERCENTAGE_TOLERANCE = 0.02;
+
+    /** Relative tolerance added to the gain tolerance (exact gains are floats). */
+    private static final double GAIN_PERCENTAGE_RELATIVE_TOLERANCE = 0.000_001;
+
+    /** Margin used to calculate trigger prices as gains are rounded (0.02%). */
+    private static final BigDecimal TRIGGER_PRICE_MARGIN = new BigDecimal("0.0002");
+
     /**
      * Constructor.
      *
@@ -225,6 +234,8 @@ public class PositionDTO {
 
     /**
      * Returns true if the position should be closed.
+     * Rules are checked with gains calculated with doubles and the exact calculation (with BigDecimal) is only done
+     * when the gain is close to a rule threshold.
      *
      * @param ticker ticker
      * @return true if the rules says the position should be closed.
@@ -232,44 +243,157 @@ public class PositionDTO {
     public boolean shouldBeClosed(final TickerDTO ticker) {
         // The status must be OPENED to be closed.
         // The currency pair of the ticker must be the same than the currency pair of the open trade.
-        if (getClosingOrderId() != null || !ticker.getCurrencyPair().equals(currencyPair)) {
+        final BigDecimal price = ticker.getLast();
+        if (getClosingOrderId() != null || !ticker.getCurrencyPair().equals(currencyPair)
+                || status != OPENED && status != CLOSED || price == null) {
             return false;
         } else {
-            final Optional<GainDTO> gain = calculateGainFromPrice(ticker.getLast());
-            if (gain.isPresent()) {
-                // We save the last calculated gain.
-                this.latestPrice = ticker.getLast();
-                if (rules.isStopGainPercentageSet() && gain.get().getPercentage() >= rules.getStopGainPercentage()
-                        || rules.isStopLossPercentageSet() && gain.get().getPercentage() <= -rules.getStopLossPercentage()) {
-                    // If the rules tells we should sell.
-                    return true;
-                } else {
-                    // We check if this gain is at a new highest.
-                    if (highestPrice == null) {
-                        highestPrice = ticker.getLast();
-                    } else {
-                        final Optional<GainDTO> highestGain = calculateGainFromPrice(highestPrice);
-                        if (highestGain.isPresent() && highestGain.get().getPercentage() <= gain.get().getPercentage()) {
-                            highestPrice = ticker.getLast();
-                        }
-                    }
-                    // We check if this gain is at a new lowest.
-                    if (lowestPrice == null) {
-                        lowestPrice = ticker.getLast();
-                    } else {
-                        final Optional<GainDTO> lowestGain = calculateGainFromPrice(lowestPrice);
-                        if (lowestGain.isPresent() && lowestGain.get().getPercentage() >= gain.get().getPercentage()) {
-                            lowestPrice = ticker.getLast();
-                        }
-                    }
-                    return false;
-                }
+            // We save the last price.
+            this.latestPrice = price;
+            final double openingPrice = openingOrder.getTrades().iterator().next().getPrice().doubleValue();
+            final double gainPercentage = (price.doubleValue() - openingPrice) / openingPrice * ONE_HUNDRED;
+            if (rules.isStopGainPercentageSet() && isGainAtLeast(price, gainPercentage, rules.getStopGainPercentage())
+                    || rules.isStopLossPercentageSet() && isGainAtMost(price, gainPercentage, -rules.getStopLossPercentage())) {
+                // If the rules tells we should sell.
+                return true;
             } else {
+                updateHighestAndLowestPrices(price);
                 return false;
             }
         }
     }
 
+    /**
+     * Returns true if the gain at this price is greater than or equal to a percentage.
+     *
+     * @param price          price
+     * @param gainPercentage gain percentage at this price (calculated with doubles)
+     * @param percentage     percentage
+     * @return true if the gain is greater than or equal to the percentage
+     */
+    private boolean isGainAtLeast(final BigDecimal price, final double gainPercentage, final double percentage) {
+        final double tolerance = getGainPercentageTolerance(percentage);
+        if (gainPercentage > percentage + tolerance) {
+            return true;
+        } else if (gainPercentage < percentage - tolerance) {
+            return false;
+        } else {
+            return calculateGainFromPrice(price).map(gain -> gain.getPercentage() >= percentage).orElse(false);
+        }
+    }
+
+    /**
+     * Returns true if the gain at this price is lower than or equal to a percentage.
+     *
+     * @param price          price
+     * @param gainPercentage gain percentage at this price (calculated with doubles)
+     * @param percentage     percentage
+     * @return true if the gain is lower than or equal to the percentage
+     */
+    private boolean isGainAtMost(final BigDecimal price, final double gainPercentage, final double percentage) {
+        final double tolerance = getGainPercentageTolerance(percentage);
+        if (gainPercentage < percentage - tolerance) {
+            return true;
+        } else if (gainPercentage > percentage + tolerance) {
+            return false;
+        } else {
+            return calculateGainFromPrice(price).map(gain -> gain.getPercentage() <= percentage).orElse(false);
+        }
+    }
+
+    /**
+     * Returns the maximum difference between a gain calculated with doubles and the exact gain around a percentage.
+     *
+     * @param percentage percentage
+     * @return tolerance
+     */
+    private static double getGainPercentageTolerance(final double percentage) {
+        return GAIN_PERCENTAGE_TOLERANCE + Math.abs(percentage) * GAIN_PERCENTAGE_RELATIVE_TOLERANCE;
+    }
+
+    /**
+     * Updates the latest, lowest and highest prices of an opened position with a new price.
+     * This gives the same result as a call to shouldBeClosed() that doesn't close the position, without checking rules.
+     *
+     * @param price price
+     * @return true if the highest or the lowest price changed
+     */
+    public final boolean updatePrice(final BigDecimal price) {
+        if (status == OPENED && price != null) {
+            latestPrice = price;
+            return updateHighestAndLowestPrices(price);
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Updates the highest and lowest prices - as the gain only depends on the price, prices are compared without
+     * calculating gains.
+     *
+     * @param price price
+     * @return true if the highest or the lowest price changed
+     */
+    private boolean updateHighestAndLowestPrices(final BigDecimal price) {
+        boolean changed = false;
+        if (highestPrice == null || highestPrice.compareTo(price) < 0) {
+            highestPrice = price;
+            changed = true;
+        }
+        if (lowestPrice == null || lowestPrice.compareTo(price) > 0) {
+            lowestPrice = price;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the price from which the stop gain rule may close the position.
+     * This price is slightly lower than the exact one (gains are rounded) : shouldBeClosed() must be called to check.
+     *
+     * @return stop gain trigger price (empty if no stop gain rule or no opening trade)
+     */
+    public final Optional<BigDecimal> getStopGainTriggerPrice() {
+        if (rules != null && rules.isStopGainPercentageSet()) {
+            final BigDecimal ratio = BigDecimal.ONE
+                    .add(BigDecimal.valueOf(rules.getStopGainPercentage()).divide(BigDecimal.valueOf(ONE_HUNDRED)))
+                    .subtract(TRIGGER_PRICE_MARGIN);
+            return getOpeningPrice().map(price -> price.multiply(ratio));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the price from which the stop loss rule may close the position.
+     * This price is slightly higher than the exact one (gains are rounded) : shouldBeClosed() must be called to check.
+     *
+     * @return stop loss trigger price (empty if no stop loss rule or no opening trade)
+     */
+    public final Optional<BigDecimal> getStopLossTriggerPrice() {
+        if (rules != null && rules.isStopLossPercentageSet()) {
+            final BigDecimal ratio = BigDecimal.ONE
+                    .subtract(BigDecimal.valueOf(rules.getStopLossPercentage()).divide(BigDecimal.valueOf(ONE_HUNDRED)))
+                    .add(TRIGGER_PRICE_MARGIN);
+            return getOpeningPrice().map(price -> price.multiply(ratio));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the price used to calculate gains (price of the first opening trade).
+     *
+     * @return opening price
+     */
+    private Optional<BigDecimal> getOpeningPrice() {
+        if (openingOrder != null && openingOrder.getTrades() != null && !openingOrder.getTrades().isEmpty()) {
+            return Optional.ofNullable(openingOrder.getTrades().iterator().next().getPrice());
+        } else {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Calculate the gain from a price.
      *
@@ -6,6 +6,8 @@ import lombok.Value;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import tech.cassandre.trading.bot.util.java.EqualsBuilder;
 
+import java.io.Serializable;
+
 import static lombok.AccessLevel.PRIVATE;
 
 /**
@@ -15,7 +17,10 @@ import static lombok.AccessLevel.PRIVATE;
 @Builder
 @AllArgsConstructor(access = PRIVATE)
 @SuppressWarnings("checkstyle:VisibilityModifier")
-public class StrategyDTO {
+public class StrategyDTO implements Serializable {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
 
     /** An identifier that uniquely identifies the strategy. */
     String id;
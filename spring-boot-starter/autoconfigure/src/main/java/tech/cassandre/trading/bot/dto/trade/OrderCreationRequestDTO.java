@@ -0,0 +1,47 @@
+package tech.cassandre.trading.bot.dto.trade;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * DTO representing an order to create (used to send several orders at once).
+ * Without limit price, a market order is created.
+ */
+@Value
+@Builder
+@AllArgsConstructor(access = PRIVATE)
+@SuppressWarnings("checkstyle:VisibilityModifier")
+public class OrderCreationRequestDTO {
+
+    /** Strategy. */
+    StrategyDTO strategy;
+
+    /** Order type i.e. bid or ask. */
+    OrderTypeDTO type;
+
+    /** Currency-pair. */
+    CurrencyPairDTO currencyPair;
+
+    /** Amount to be ordered. */
+    BigDecimal amount;
+
+    /** Limit price (null for a market order). */
+    BigDecimal limitPrice;
+
+    /**
+     * Returns true if this request is a limit order.
+     *
+     * @return true if limit order
+     */
+    public boolean isLimitOrder() {
+        return limitPrice != null;
+    }
+
+}
@@ -3,12 +3,16 @@ package tech.cassandre.trading.bot.dto.util;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import tech.cassandre.trading.bot.util.java.EqualsBuilder;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 /**
  * Currency amount (amount value + currency).
  */
-public class CurrencyAmountDTO {
+public class CurrencyAmountDTO implements Serializable {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
 
     /** Amount value. */
     private final BigDecimal value;
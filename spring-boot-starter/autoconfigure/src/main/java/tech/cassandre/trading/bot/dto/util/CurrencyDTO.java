@@ -1,5 +1,6 @@
 package tech.cassandre.trading.bot.dto.util;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -13,7 +14,10 @@ import java.util.TreeSet;
  * Currency.
  */
 @SuppressWarnings("unused")
-public final class CurrencyDTO {
+public final class CurrencyDTO implements Serializable {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
 
     /** List of currencies. */
     private static final Map<String, CurrencyDTO> CURRENCIES = new HashMap<>();
@@ -1072,7 +1076,10 @@ public final class CurrencyDTO {
     /**
      * Currency attributes.
      */
-    private static class CurrencyAttributes {
+    private static class CurrencyAttributes implements Serializable {
+
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
 
         /** Codes. */
         private final Set<String> codes;
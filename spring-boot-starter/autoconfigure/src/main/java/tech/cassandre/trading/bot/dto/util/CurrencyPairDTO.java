@@ -1,5 +1,6 @@
 package tech.cassandre.trading.bot.dto.util;
 
+import java.io.Serializable;
 import java.util.Objects;
 
 /**
@@ -7,7 +8,10 @@ import java.util.Objects;
  * The base currency represents how much of the quote currency to get one unit of the base currency.
  * For example, if you were looking at the CAD/USD currency pair, the Canadian dollar would be the base currency, and the U.S. dollar would be the quote currency.
  */
-public final class CurrencyPairDTO {
+public final class CurrencyPairDTO implements Serializable {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
 
     /** Currency pair separator. */
     private static final String CURRENCY_PAIR_SEPARATOR = "/";
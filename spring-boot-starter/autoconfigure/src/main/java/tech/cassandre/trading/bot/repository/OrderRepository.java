@@ -3,8 +3,10 @@ package tech.cassandre.trading.bot.repository;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Order repository.
@@ -18,4 +20,20 @@ public interface OrderRepository extends CrudRepository<Order, String> {
      */
     List<Order> findByOrderByTimestampAsc();
 
+    /**
+     * Find all orders of a strategy by timestamp.
+     *
+     * @param strategyId strategy id
+     * @return orders
+     */
+    List<Order> findByStrategyIdOrderByTimestampAsc(String strategyId);
+
+    /**
+     * Find all orders without the given statuses by timestamp.
+     *
+     * @param statuses statuses
+     * @return orders
+     */
+    List<Order> findByStatusNotInOrderByTimestampAsc(Set<OrderStatusDTO> statuses);
+
 }
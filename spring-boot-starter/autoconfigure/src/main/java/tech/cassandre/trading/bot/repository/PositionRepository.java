@@ -6,6 +6,7 @@ import tech.cassandre.trading.bot.domain.Position;
 import tech.cassandre.trading.bot.dto.position.PositionStatusDTO;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Position repository.
@@ -20,6 +21,14 @@ public interface PositionRepository extends CrudRepository<Position, Long> {
      */
     List<Position> findByOrderById();
 
+    /**
+     * Find all positions of a strategy (sorted by id).
+     *
+     * @param strategyId strategy id
+     * @return positions
+     */
+    List<Position> findByStrategyIdOrderById(String strategyId);
+
     /**
      * Find all positions by status.
      *
@@ -36,4 +45,20 @@ public interface PositionRepository extends CrudRepository<Position, Long> {
      */
     List<Position> findByStatusNot(PositionStatusDTO status);
 
+    /**
+     * Find the position opened by an order.
+     *
+     * @param orderId order id
+     * @return position
+     */
+    Optional<Position> findByOpeningOrderId(String orderId);
+
+    /**
+     * Find the position closed by an order.
+     *
+     * @param orderId order id
+     * @return position
+     */
+    Optional<Position> findByClosingOrderId(String orderId);
+
 }
@@ -3,7 +3,9 @@ package tech.cassandre.trading.bot.service;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service giving information about market price.
@@ -18,4 +20,26 @@ public interface MarketService {
      */
     Optional<TickerDTO> getTicker(CurrencyPairDTO currencyPair);
 
+    /**
+     * Returns the tickers of several currency pairs.
+     * By default, tickers are retrieved one by one with {@link #getTicker(CurrencyPairDTO)}.
+     *
+     * @param currencyPairs currency pairs
+     * @return tickers (currency pairs without ticker are ignored)
+     */
+    default Set<TickerDTO> getTickers(final Set<CurrencyPairDTO> currencyPairs) {
+        Set<TickerDTO> tickers = new LinkedHashSet<>();
+        currencyPairs.forEach(cp -> getTicker(cp).ifPresent(tickers::add));
+        return tickers;
+    }
+
+    /**
+     * Returns true if {@link #getTickers(Set)} retrieves several tickers with a single call.
+     *
+     * @return true if supported
+     */
+    default boolean isBulkTickersSupported() {
+        return false;
+    }
+
 }
@@ -0,0 +1,34 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Service giving information about market price and able to push tickers as soon as the exchange sends them.
+ */
+public interface StreamingMarketService extends MarketService {
+
+    /**
+     * Subscribes to the tickers of currency pairs.
+     *
+     * @param currencyPairs currency pairs
+     * @param listener      listener called for each ticker received
+     */
+    void subscribeTickers(Set<CurrencyPairDTO> currencyPairs, Consumer<TickerDTO> listener);
+
+    /**
+     * Cancels and recreates the ticker subscription of a currency pair (used when no ticker was received for too long).
+     *
+     * @param currencyPair currency pair
+     */
+    void resubscribeTicker(CurrencyPairDTO currencyPair);
+
+    /**
+     * Cancels all subscriptions and closes the connection.
+     */
+    void close();
+
+}
@@ -1,12 +1,15 @@
 package tech.cassandre.trading.bot.service;
 
 import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationRequestDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -66,6 +69,14 @@ public interface TradeService {
                                                 BigDecimal amount,
                                                 BigDecimal limitPrice);
 
+    /**
+     * Creates several orders at once.
+     *
+     * @param orders orders to create
+     * @return order results (one result per order, in the same order)
+     */
+    List<OrderCreationResultDTO> createOrders(List<OrderCreationRequestDTO> orders);
+
     /**
      * Cancel order.
      *
@@ -74,6 +85,14 @@ public interface TradeService {
      */
     boolean cancelOrder(String orderId);
 
+    /**
+     * Cancel several orders at once.
+     *
+     * @param orderIds order ids
+     * @return true if cancelled (by order id)
+     */
+    Map<String, Boolean> cancelOrders(Set<String> orderIds);
+
     /**
      * Get open orders.
      *
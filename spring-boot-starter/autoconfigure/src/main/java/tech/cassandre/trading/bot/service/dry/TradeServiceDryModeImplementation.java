@@ -5,6 +5,7 @@ import tech.cassandre.trading.bot.batch.TradeFlux;
 import tech.cassandre.trading.bot.domain.Order;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationRequestDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
@@ -24,6 +25,7 @@ import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -107,12 +109,13 @@ public class TradeServiceDryModeImplementation extends BaseService implements Tr
     /**
      * Creates a fake market order.
      *
+     * @param strategy     strategy
      * @param orderTypeDTO order type
      * @param currencyPair currency pair
      * @param amount       amount
      * @return order creation result
      */
-    private OrderCreationResultDTO createMarketOrder(final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+    private OrderCreationResultDTO createMarketOrder(final StrategyDTO strategy, final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
         // We retrieve the last pricing from tickers.
         TickerDTO t = lastTickers.get(currencyPair);
 
@@ -175,6 +178,7 @@ public class TradeServiceDryModeImplementation extends BaseService implements Tr
                     .originalAmount(amount)
                     .fee(ZERO)
                     .timestamp(ZonedDateTime.now())
+                    .strategy(strategy)
                     .build();
 
             // We create and send the trade.
@@ -218,6 +222,7 @@ public class TradeServiceDryModeImplementation extends BaseService implements Tr
             }
 
             // We create the result.
+            notifyActivity();
             return new OrderCreationResultDTO(order);
         } else {
             return new OrderCreationResultDTO("Ticker not found", new Exception("Ticker not found"));
@@ -226,12 +231,12 @@ public class TradeServiceDryModeImplementation extends BaseService implements Tr
 
     @Override
     public final OrderCreationResultDTO createBuyMarketOrder(final StrategyDTO strategy, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
-        return createMarketOrder(BID, currencyPair, amount);
+        return createMarketOrder(strategy, BID, currencyPair, amount);
     }
 
     @Override
     public final OrderCreationResultDTO createSellMarketOrder(final StrategyDTO strategy, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
-        return createMarketOrder(OrderTypeDTO.ASK, currencyPair, amount);
+        return createMarketOrder(strategy, OrderTypeDTO.ASK, currencyPair, amount);
     }
 
     @Override
@@ -244,6 +249,27 @@ public class TradeServiceDryModeImplementation extends BaseService implements Tr
         return new OrderCreationResultDTO("Not implemented", new Exception("Not implemented"));
     }
 
+    @Override
+    public final List<OrderCreationResultDTO> createOrders(final List<OrderCreationRequestDTO> orders) {
+        // In dry mode, orders are created in memory, one after the other.
+        return orders.stream()
+                .map(this::createOrder)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an order from an order creation request.
+     *
+     * @param order order creation request
+     * @return order creation result
+     */
+    private OrderCreationResultDTO createOrder(final OrderCreationRequestDTO order) {
+        if (order.isLimitOrder()) {
+            return new OrderCreationResultDTO("Not implemented", new Exception("Not implemented"));
+        }
+        return createMarketOrder(order.getStrategy(), order.getType(), order.getCurrencyPair(), order.getAmount());
+    }
+
     @Override
     public final Set<OrderDTO> getOpenOrders() {
         final Map<String, OrderDTO> results = orderRepository.findByOrderByTimestampAsc()
@@ -276,6 +302,13 @@ public class TradeServiceDryModeImplementation extends BaseService implements Tr
         }
     }
 
+    @Override
+    public final Map<String, Boolean> cancelOrders(final Set<String> orderIds) {
+        final Map<String, Boolean> results = new LinkedHashMap<>();
+        orderIds.forEach(orderId -> results.put(orderId, cancelOrder(orderId)));
+        return results;
+    }
+
     @Override
     public final Set<TradeDTO> getTrades() {
         final Map<String, TradeDTO> results = tradeRepository.findByOrderByTimestampAsc()
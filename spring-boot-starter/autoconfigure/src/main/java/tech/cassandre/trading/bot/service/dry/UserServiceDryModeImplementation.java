@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * User service in dry mode.
@@ -42,8 +43,8 @@ public class UserServiceDryModeImplementation extends BaseService implements Use
     /** Simulated user information. */
     private UserDTO user;
 
-    /** strategy. */
-    private GenericCassandreStrategy strategy;
+    /** Strategies. */
+    private final List<GenericCassandreStrategy> strategies = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor.
@@ -101,12 +102,12 @@ public class UserServiceDryModeImplementation extends BaseService implements Use
     }
 
     /**
-     * Set dependencies.
+     * Set dependencies (called for each strategy).
      *
      * @param newStrategy strategy
      */
     public void setDependencies(final GenericCassandreStrategy newStrategy) {
-        this.strategy = newStrategy;
+        this.strategies.add(newStrategy);
     }
 
     @Override
@@ -172,9 +173,8 @@ public class UserServiceDryModeImplementation extends BaseService implements Use
                         .build();
                 accounts.put(account.getId(), account);
             });
-            // Change the user value and the account in the strategy.
-            strategy.getAccounts().clear();
-            strategy.getAccounts().putAll(accounts);
+            // Change the user value and the account in the strategies.
+            strategies.forEach(strategy -> strategy.replaceAccounts(accounts));
             this.user = UserDTO.builder().id(USER_ID).accounts(accounts).build();
         }
     }
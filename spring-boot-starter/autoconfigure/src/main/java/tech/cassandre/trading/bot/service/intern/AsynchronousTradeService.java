@@ -0,0 +1,219 @@
+package tech.cassandre.trading.bot.service.intern;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationRequestDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous trade service - orders are sent to the exchange by a bounded pool of threads so the caller (for
+ * example, a strategy receiving a ticker) doesn't wait for the exchange answer.
+ * When all the threads are busy and the queue is full, the order is sent by the calling thread (back pressure).
+ */
+public final class AsynchronousTradeService extends Base {
+
+    /** Default number of threads sending orders. */
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    /** Default number of orders waiting for a thread. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+
+    /** Thread name prefix. */
+    private static final String THREAD_NAME_PREFIX = "cassandre-order-submission-";
+
+    /** Maximum time to wait for the orders being sent on close (seconds). */
+    private static final int CLOSE_TIMEOUT = 30;
+
+    /** Trade service. */
+    private final TradeService tradeService;
+
+    /** Executor sending the orders. */
+    private final ThreadPoolTaskExecutor executor;
+
+    /** Number of requests sent and not yet answered. */
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+
+    /** Number of requests submitted. */
+    private final AtomicLong submittedCount = new AtomicLong();
+
+    /**
+     * Constructor with default pool size and queue capacity.
+     *
+     * @param newTradeService trade service
+     */
+    public AsynchronousTradeService(final TradeService newTradeService) {
+        this(newTradeService, DEFAULT_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newTradeService  trade service
+     * @param newPoolSize      number of threads sending orders
+     * @param newQueueCapacity number of orders waiting for a thread
+     */
+    public AsynchronousTradeService(final TradeService newTradeService,
+                                    final int newPoolSize,
+                                    final int newQueueCapacity) {
+        this.tradeService = newTradeService;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(Math.max(1, newPoolSize));
+        this.executor.setMaxPoolSize(Math.max(1, newPoolSize));
+        this.executor.setQueueCapacity(Math.max(1, newQueueCapacity));
+        this.executor.setAllowCoreThreadTimeOut(true);
+        this.executor.setDaemon(true);
+        this.executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds(CLOSE_TIMEOUT);
+        this.executor.initialize();
+    }
+
+    /**
+     * Creates a buy market order.
+     *
+     * @param strategy     strategy
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createBuyMarketOrder(final StrategyDTO strategy,
+                                                                          final CurrencyPairDTO currencyPair,
+                                                                          final BigDecimal amount) {
+        return submit(() -> tradeService.createBuyMarketOrder(strategy, currencyPair, amount));
+    }
+
+    /**
+     * Creates a sell market order.
+     *
+     * @param strategy     strategy
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createSellMarketOrder(final StrategyDTO strategy,
+                                                                           final CurrencyPairDTO currencyPair,
+                                                                           final BigDecimal amount) {
+        return submit(() -> tradeService.createSellMarketOrder(strategy, currencyPair, amount));
+    }
+
+    /**
+     * Creates a buy limit order.
+     *
+     * @param strategy     strategy
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   the highest acceptable price
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createBuyLimitOrder(final StrategyDTO strategy,
+                                                                         final CurrencyPairDTO currencyPair,
+                                                                         final BigDecimal amount,
+                                                                         final BigDecimal limitPrice) {
+        return submit(() -> tradeService.createBuyLimitOrder(strategy, currencyPair, amount, limitPrice));
+    }
+
+    /**
+     * Creates a sell limit order.
+     *
+     * @param strategy     strategy
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   the lowest acceptable price
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createSellLimitOrder(final StrategyDTO strategy,
+                                                                          final CurrencyPairDTO currencyPair,
+                                                                          final BigDecimal amount,
+                                                                          final BigDecimal limitPrice) {
+        return submit(() -> tradeService.createSellLimitOrder(strategy, currencyPair, amount, limitPrice));
+    }
+
+    /**
+     * Creates several orders at once.
+     *
+     * @param orders orders to create
+     * @return order results (one result per order, in the same order)
+     */
+    public CompletableFuture<List<OrderCreationResultDTO>> createOrders(final List<OrderCreationRequestDTO> orders) {
+        return submit(() -> tradeService.createOrders(orders));
+    }
+
+    /**
+     * Cancel order.
+     *
+     * @param orderId order id
+     * @return true if cancelled
+     */
+    public CompletableFuture<Boolean> cancelOrder(final String orderId) {
+        return submit(() -> tradeService.cancelOrder(orderId));
+    }
+
+    /**
+     * Cancel several orders at once.
+     *
+     * @param orderIds order ids
+     * @return true if cancelled (by order id)
+     */
+    public CompletableFuture<Map<String, Boolean>> cancelOrders(final Set<String> orderIds) {
+        return submit(() -> tradeService.cancelOrders(orderIds));
+    }
+
+    /**
+     * Submits a request to the executor.
+     *
+     * @param request request
+     * @param <T>     result type
+     * @return result
+     */
+    private <T> CompletableFuture<T> submit(final Supplier<T> request) {
+        submittedCount.incrementAndGet();
+        inFlightCount.incrementAndGet();
+        return CompletableFuture.supplyAsync(request, executor)
+                .whenComplete((result, throwable) -> {
+                    inFlightCount.decrementAndGet();
+                    if (throwable != null) {
+                        getLogger().error("AsynchronousTradeService - Request failure : {}", throwable.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Returns the number of requests sent and not yet answered.
+     *
+     * @return in flight count
+     */
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * Returns the number of requests submitted.
+     *
+     * @return submitted count
+     */
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    /**
+     * Waits for the orders being sent and stops the threads.
+     */
+    public void close() {
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,332 @@
+package tech.cassandre.trading.bot.service.intern;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyAmountDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyDTO;
+import tech.cassandre.trading.bot.dto.util.GainDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.math.RoundingMode.HALF_UP;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+
+/**
+ * Gains ledger - amounts bought, sold and fees by currency, updated once when a position is closed.
+ * Gains are then calculated without reading all positions and trades.
+ * The ledger is regularly checked against a full calculation from database and corrected if they differ.
+ */
+public final class GainsLedger extends Base {
+
+    /** Default delay between two checks of the ledger (ms). */
+    public static final long DEFAULT_VERIFICATION_PERIOD = 600_000;
+
+    /** Thread name prefix. */
+    private static final String THREAD_NAME_PREFIX = "cassandre-gains-verification-";
+
+    /** Percentage. */
+    private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+
+    /** Percentage scale. */
+    private static final int PERCENTAGE_SCALE = 2;
+
+    /** Scale of the gain / bought ratio (before being converted to a percentage). */
+    private static final int RATIO_SCALE = 8;
+
+    /** Loader of the closed positions (used to load and check the ledger). */
+    private final Supplier<List<PositionDTO>> closedPositionsLoader;
+
+    /** Totals by currency. */
+    private Map<CurrencyDTO, Totals> totals = new LinkedHashMap<>();
+
+    /** Ids of the positions in the ledger. */
+    private Set<Long> positions = new HashSet<>();
+
+    /** True when the ledger has been loaded. */
+    private boolean loaded = false;
+
+    /** Incremented each time the ledger is updated. */
+    private long version = 0;
+
+    /** Number of checks done. */
+    private final AtomicLong verificationCount = new AtomicLong();
+
+    /** Number of corrections made by checks. */
+    private final AtomicLong correctionCount = new AtomicLong();
+
+    /** Scheduler running the checks (null if not started). */
+    private ThreadPoolTaskScheduler scheduler;
+
+    /**
+     * Constructor.
+     *
+     * @param newClosedPositionsLoader loader of the closed positions
+     */
+    public GainsLedger(final Supplier<List<PositionDTO>> newClosedPositionsLoader) {
+        this.closedPositionsLoader = newClosedPositionsLoader;
+    }
+
+    /**
+     * Adds a closed position to the ledger (a position is only added once).
+     *
+     * @param position     closed position
+     * @param closingTrade trade that closed the position (as it may not be in the position trades yet) - can be null
+     */
+    public synchronized void positionClosed(final PositionDTO position, final TradeDTO closingTrade) {
+        load();
+        if (position.getStatus() == CLOSED && positions.add(position.getId())) {
+            final Set<TradeDTO> closingTrades = new LinkedHashSet<>(position.getClosingTrades());
+            if (closingTrade != null && closingTrades.stream().noneMatch(t -> Objects.equals(t.getId(), closingTrade.getId()))) {
+                closingTrades.add(closingTrade);
+            }
+            add(totals, position, closingTrades);
+            version++;
+        }
+    }
+
+    /**
+     * Returns the gains by currency.
+     *
+     * @return gains
+     */
+    public synchronized HashMap<CurrencyDTO, GainDTO> getGains() {
+        load();
+        HashMap<CurrencyDTO, GainDTO> gains = new LinkedHashMap<>();
+        totals.forEach((currency, t) -> {
+            BigDecimal gainAmount = t.getSold().subtract(t.getBought());
+            BigDecimal gainPercentage = (gainAmount.divide(t.getBought(), RATIO_SCALE, HALF_UP)).multiply(ONE_HUNDRED);
+            gains.put(currency, new GainDTO(gainPercentage.setScale(PERCENTAGE_SCALE, HALF_UP).doubleValue(),
+                    new CurrencyAmountDTO(gainAmount, currency),
+                    new CurrencyAmountDTO(t.getFees(), currency)));
+        });
+        return gains;
+    }
+
+    /**
+     * Checks the ledger against a full calculation from the closed positions and corrects it if they differ.
+     *
+     * @return true if the ledger was corrected
+     */
+    public boolean verify() {
+        final long versionBeforeCalculation;
+        synchronized (this) {
+            load();
+            versionBeforeCalculation = version;
+        }
+        final Map<CurrencyDTO, Totals> calculatedTotals = new LinkedHashMap<>();
+        final Set<Long> calculatedPositions = new HashSet<>();
+        closedPositionsLoader.get()
+                .stream()
+                .filter(p -> p.getStatus() == CLOSED)
+                .filter(p -> calculatedPositions.add(p.getId()))
+                .forEach(p -> add(calculatedTotals, p, p.getClosingTrades()));
+        verificationCount.incrementAndGet();
+
+        synchronized (this) {
+            if (version != versionBeforeCalculation) {
+                // A position was closed during the calculation, the ledger will be checked next time.
+                return false;
+            }
+            if (!isSame(totals, calculatedTotals) || !positions.equals(calculatedPositions)) {
+                getLogger().warn("GainsLedger - Ledger corrected after a full calculation ({} positions)", calculatedPositions.size());
+                totals = calculatedTotals;
+                positions = calculatedPositions;
+                version++;
+                correctionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Starts checking the ledger regularly in background.
+     *
+     * @param period delay between two checks (ms) - 0 to disable
+     */
+    public synchronized void startVerification(final long period) {
+        if (period > 0 && scheduler == null) {
+            scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(1);
+            scheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+            scheduler.setDaemon(true);
+            scheduler.setWaitForTasksToCompleteOnShutdown(false);
+            scheduler.initialize();
+            scheduler.scheduleWithFixedDelay(this::verify, period);
+        }
+    }
+
+    /**
+     * Stops the background checks.
+     */
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Returns the number of checks done.
+     *
+     * @return verification count
+     */
+    public long getVerificationCount() {
+        return verificationCount.get();
+    }
+
+    /**
+     * Returns the number of corrections made by checks.
+     *
+     * @return correction count
+     */
+    public long getCorrectionCount() {
+        return correctionCount.get();
+    }
+
+    /**
+     * Loads the ledger from the closed positions if it's not already loaded.
+     */
+    private void load() {
+        if (!loaded) {
+            closedPositionsLoader.get()
+                    .stream()
+                    .filter(p -> p.getStatus() == CLOSED)
+                    .filter(p -> positions.add(p.getId()))
+                    .forEach(p -> add(totals, p, p.getClosingTrades()));
+            loaded = true;
+            getLogger().debug("GainsLedger - {} closed positions loaded", positions.size());
+        }
+    }
+
+    /**
+     * Adds the amounts of a position to totals.
+     *
+     * @param target        totals
+     * @param position      position
+     * @param closingTrades closing trades
+     */
+    private static void add(final Map<CurrencyDTO, Totals> target, final PositionDTO position, final Collection<TradeDTO> closingTrades) {
+        final CurrencyDTO currency = position.getCurrencyPair().getQuoteCurrency();
+        final BigDecimal bought = position.getOpeningTrades()
+                .stream()
+                .map(t -> t.getOriginalAmount().multiply(t.getPrice()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        final BigDecimal sold = closingTrades
+                .stream()
+                .map(t -> t.getOriginalAmount().multiply(t.getPrice()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        final BigDecimal fees = Stream.concat(position.getOpeningTrades().stream(), closingTrades.stream())
+                .map(t -> t.getFee().getValue())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        target.merge(currency, new Totals(bought, sold, fees), Totals::add);
+    }
+
+    /**
+     * Returns true if two totals are the same.
+     *
+     * @param totals1 totals 1
+     * @param totals2 totals 2
+     * @return true if same
+     */
+    private static boolean isSame(final Map<CurrencyDTO, Totals> totals1, final Map<CurrencyDTO, Totals> totals2) {
+        return totals1.keySet().equals(totals2.keySet())
+                && totals1.entrySet()
+                .stream()
+                .allMatch(e -> e.getValue().isSame(totals2.get(e.getKey())));
+    }
+
+    /**
+     * Amounts bought, sold and fees of a currency.
+     */
+    private static final class Totals {
+
+        /** Amount bought. */
+        private final BigDecimal bought;
+
+        /** Amount sold. */
+        private final BigDecimal sold;
+
+        /** Fees. */
+        private final BigDecimal fees;
+
+        /**
+         * Constructor.
+         *
+         * @param newBought amount bought
+         * @param newSold   amount sold
+         * @param newFees   fees
+         */
+        Totals(final BigDecimal newBought, final BigDecimal newSold, final BigDecimal newFees) {
+            this.bought = newBought;
+            this.sold = newSold;
+            this.fees = newFees;
+        }
+
+        /**
+         * Returns the sum of two totals.
+         *
+         * @param other other totals
+         * @return sum
+         */
+        Totals add(final Totals other) {
+            return new Totals(bought.add(other.bought), sold.add(other.sold), fees.add(other.fees));
+        }
+
+        /**
+         * Returns true if the amounts are the same.
+         *
+         * @param other other totals
+         * @return true if same
+         */
+        boolean isSame(final Totals other) {
+            return other != null
+                    && bought.compareTo(other.bought) == 0
+                    && sold.compareTo(other.sold) == 0
+                    && fees.compareTo(other.fees) == 0;
+        }
+
+        /**
+         * Getter bought.
+         *
+         * @return bought
+         */
+        BigDecimal getBought() {
+            return bought;
+        }
+
+        /**
+         * Getter sold.
+         *
+         * @return sold
+         */
+        BigDecimal getSold() {
+            return sold;
+        }
+
+        /**
+         * Getter fees.
+         *
+         * @return fees
+         */
+        BigDecimal getFees() {
+            return fees;
+        }
+
+    }
+
+}
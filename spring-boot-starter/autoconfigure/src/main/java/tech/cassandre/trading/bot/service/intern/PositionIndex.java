@@ -0,0 +1,355 @@
+package tech.cassandre.trading.bot.service.intern;
+
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+
+/**
+ * Position index - keeps in memory the positions not closed, by currency pair, status and order id.
+ * It's loaded once from database and then updated with position updates, so the position service can find the
+ * positions concerned by a ticker, an order or a trade without requesting the database.
+ * Opened positions with stop gain or stop loss rules are also indexed by trigger price (sorted), so a ticker only
+ * checks the rules of the positions whose trigger price was crossed.
+ * The index keeps its own copies of the positions : prices are updated in place with tickers.
+ * A position status only goes forward (opening, opened, closing, closed) so an update received late (with a previous
+ * status) is ignored.
+ */
+public final class PositionIndex extends Base {
+
+    /** Maximum number of closed position ids kept to ignore late updates (a late update arrives shortly after). */
+    public static final int MAXIMUM_CLOSED_POSITIONS = 1_000;
+
+    /** True when the index has been loaded. */
+    private volatile boolean loaded = false;
+
+    /** Positions by id. */
+    private final Map<Long, PositionDTO> positions = new HashMap<>();
+
+    /** Position ids by currency pair and status. */
+    private final Map<CurrencyPairDTO, Map<PositionStatusDTO, Set<Long>>> positionsByCurrencyPair = new HashMap<>();
+
+    /** Position ids by opening and closing order ids. */
+    private final Map<String, Long> positionsByOrderId = new HashMap<>();
+
+    /** Opened position ids by currency pair and stop gain trigger price (closed if the price goes up to the trigger). */
+    private final Map<CurrencyPairDTO, NavigableMap<BigDecimal, Set<Long>>> stopGainTriggers = new HashMap<>();
+
+    /** Opened position ids by currency pair and stop loss trigger price (closed if the price goes down to the trigger). */
+    private final Map<CurrencyPairDTO, NavigableMap<BigDecimal, Set<Long>>> stopLossTriggers = new HashMap<>();
+
+    /** Stop gain trigger prices by position id. */
+    private final Map<Long, BigDecimal> stopGainTriggerPrices = new HashMap<>();
+
+    /** Stop loss trigger prices by position id. */
+    private final Map<Long, BigDecimal> stopLossTriggerPrices = new HashMap<>();
+
+    /** Ids of the last positions closed, oldest first (late updates of those positions are ignored). */
+    private final Set<Long> closedPositions = new LinkedHashSet<>();
+
+    /**
+     * Loads the index if it's not already loaded.
+     *
+     * @param loader loader of the positions not closed
+     */
+    public void load(final Supplier<List<PositionDTO>> loader) {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    final List<PositionDTO> positionsNotClosed = loader.get();
+                    positionsNotClosed.forEach(this::put);
+                    loaded = true;
+                    getLogger().debug("PositionIndex - {} positions loaded", positionsNotClosed.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the index has been loaded.
+     *
+     * @return true if loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Updates a position in the index - called with the positions updated by the position service.
+     *
+     * @param position position
+     */
+    public synchronized void update(final PositionDTO position) {
+        final PositionDTO indexedPosition = positions.get(position.getId());
+        if (closedPositions.contains(position.getId())
+                || indexedPosition != null && position.getStatus().compareTo(indexedPosition.getStatus()) < 0) {
+            return;
+        }
+        if (indexedPosition != null && isSameIndexEntry(indexedPosition, position)) {
+            // Only the position values changed (for example, prices with a ticker).
+            positions.put(position.getId(), position);
+        } else {
+            put(position);
+        }
+    }
+
+    /**
+     * Updates a position in the index - called with the positions received from the position flux.
+     * As the position service already updated the index with its own updates, only status changes are taken.
+     *
+     * @param position position
+     */
+    public synchronized void positionUpdate(final PositionDTO position) {
+        final PositionDTO indexedPosition = positions.get(position.getId());
+        if (closedPositions.contains(position.getId())
+                || indexedPosition != null && position.getStatus().compareTo(indexedPosition.getStatus()) <= 0) {
+            return;
+        }
+        put(position);
+    }
+
+    /**
+     * Returns a position.
+     *
+     * @param id position id
+     * @return position
+     */
+    public synchronized Optional<PositionDTO> getPosition(final long id) {
+        return Optional.ofNullable(positions.get(id));
+    }
+
+    /**
+     * Returns the positions of a currency pair with a status.
+     *
+     * @param currencyPair currency pair
+     * @param status       status
+     * @return positions
+     */
+    public synchronized List<PositionDTO> getPositions(final CurrencyPairDTO currencyPair, final PositionStatusDTO status) {
+        return positionsByCurrencyPair.getOrDefault(currencyPair, Collections.emptyMap())
+                .getOrDefault(status, Collections.emptySet())
+                .stream()
+                .map(positions::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Updates in place the prices of the opened positions of a currency pair whose rules are not checked.
+     * Returns the positions whose rules must be checked and the positions whose highest or lowest price changed, as
+     * only those have to be copied and emitted.
+     *
+     * @param currencyPair currency pair
+     * @param price        price
+     * @param rulesChecked true for the positions whose rules must be checked (their prices are not updated here)
+     * @return positions to check or to emit
+     */
+    public synchronized List<PositionDTO> updatePrices(final CurrencyPairDTO currencyPair,
+                                                       final BigDecimal price,
+                                                       final Predicate<PositionDTO> rulesChecked) {
+        return positionsByCurrencyPair.getOrDefault(currencyPair, Collections.emptyMap())
+                .getOrDefault(OPENED, Collections.emptySet())
+                .stream()
+                .map(positions::get)
+                .filter(position -> rulesChecked.test(position) || position.updatePrice(price))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the ids of the opened positions of a currency pair that may be closed by their rules at this price.
+     *
+     * @param currencyPair currency pair
+     * @param price        price
+     * @return position ids
+     */
+    public synchronized Set<Long> getTriggeredPositionIds(final CurrencyPairDTO currencyPair, final BigDecimal price) {
+        final Set<Long> ids = new HashSet<>();
+        final NavigableMap<BigDecimal, Set<Long>> stopGains = stopGainTriggers.get(currencyPair);
+        if (price != null && stopGains != null) {
+            stopGains.headMap(price, true).values().forEach(ids::addAll);
+        }
+        final NavigableMap<BigDecimal, Set<Long>> stopLosses = stopLossTriggers.get(currencyPair);
+        if (price != null && stopLosses != null) {
+            stopLosses.tailMap(price, true).values().forEach(ids::addAll);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the id of the position opened or closed by an order.
+     *
+     * @param orderId order id
+     * @return position id
+     */
+    public synchronized Optional<Long> getPositionIdByOrderId(final String orderId) {
+        return Optional.ofNullable(positionsByOrderId.get(orderId));
+    }
+
+    /**
+     * Returns the number of positions in the index.
+     *
+     * @return positions count
+     */
+    public synchronized int size() {
+        return positions.size();
+    }
+
+    /**
+     * Puts a position in the index (or removes it if it's closed).
+     *
+     * @param position position
+     */
+    private void put(final PositionDTO position) {
+        remove(position.getId());
+        if (position.getStatus() == CLOSED) {
+            closedPositions.add(position.getId());
+            if (closedPositions.size() > MAXIMUM_CLOSED_POSITIONS) {
+                // The oldest closed position is forgotten.
+                closedPositions.remove(closedPositions.iterator().next());
+            }
+            return;
+        }
+        positions.put(position.getId(), position);
+        if (position.getCurrencyPair() != null) {
+            positionsByCurrencyPair.computeIfAbsent(position.getCurrencyPair(), currencyPair -> new EnumMap<>(PositionStatusDTO.class))
+                    .computeIfAbsent(position.getStatus(), status -> new LinkedHashSet<>())
+                    .add(position.getId());
+        }
+        if (position.getOpeningOrder() != null && position.getOpeningOrder().getId() != null) {
+            positionsByOrderId.put(position.getOpeningOrder().getId(), position.getId());
+        }
+        if (position.getClosingOrder() != null && position.getClosingOrder().getId() != null) {
+            positionsByOrderId.put(position.getClosingOrder().getId(), position.getId());
+        }
+        if (position.getStatus() == OPENED && position.getCurrencyPair() != null) {
+            position.getStopGainTriggerPrice().ifPresent(price -> {
+                stopGainTriggerPrices.put(position.getId(), price);
+                addTrigger(stopGainTriggers, position.getCurrencyPair(), price, position.getId());
+            });
+            position.getStopLossTriggerPrice().ifPresent(price -> {
+                stopLossTriggerPrices.put(position.getId(), price);
+                addTrigger(stopLossTriggers, position.getCurrencyPair(), price, position.getId());
+            });
+        }
+    }
+
+    /**
+     * Returns true if the position has the same index entries than the indexed position (same status, currency pair,
+     * orders and triggers).
+     *
+     * @param indexedPosition indexed position
+     * @param position        position
+     * @return true if same index entries
+     */
+    private boolean isSameIndexEntry(final PositionDTO indexedPosition, final PositionDTO position) {
+        return indexedPosition.getStatus() == position.getStatus()
+                && Objects.equals(indexedPosition.getCurrencyPair(), position.getCurrencyPair())
+                && Objects.equals(getOrderId(indexedPosition.getOpeningOrder()), getOrderId(position.getOpeningOrder()))
+                && Objects.equals(getOrderId(indexedPosition.getClosingOrder()), getOrderId(position.getClosingOrder()))
+                && (position.getStatus() != OPENED
+                || Objects.equals(stopGainTriggerPrices.get(position.getId()), position.getStopGainTriggerPrice().orElse(null))
+                && Objects.equals(stopLossTriggerPrices.get(position.getId()), position.getStopLossTriggerPrice().orElse(null)));
+    }
+
+    /**
+     * Returns an order id.
+     *
+     * @param order order
+     * @return order id (null if no order)
+     */
+    private String getOrderId(final OrderDTO order) {
+        if (order != null) {
+            return order.getId();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Adds a trigger.
+     *
+     * @param triggers     triggers
+     * @param currencyPair currency pair
+     * @param price        trigger price
+     * @param id           position id
+     */
+    private void addTrigger(final Map<CurrencyPairDTO, NavigableMap<BigDecimal, Set<Long>>> triggers,
+                            final CurrencyPairDTO currencyPair,
+                            final BigDecimal price,
+                            final long id) {
+        triggers.computeIfAbsent(currencyPair, cp -> new TreeMap<>())
+                .computeIfAbsent(price, p -> new HashSet<>())
+                .add(id);
+    }
+
+    /**
+     * Removes a trigger.
+     *
+     * @param triggers     triggers
+     * @param currencyPair currency pair
+     * @param price        trigger price (null if no trigger)
+     * @param id           position id
+     */
+    private void removeTrigger(final Map<CurrencyPairDTO, NavigableMap<BigDecimal, Set<Long>>> triggers,
+                               final CurrencyPairDTO currencyPair,
+                               final BigDecimal price,
+                               final long id) {
+        final NavigableMap<BigDecimal, Set<Long>> currencyPairTriggers = triggers.get(currencyPair);
+        if (price != null && currencyPairTriggers != null) {
+            final Set<Long> ids = currencyPairTriggers.get(price);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    currencyPairTriggers.remove(price);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a position from the index.
+     *
+     * @param id position id
+     */
+    private void remove(final long id) {
+        final PositionDTO position = positions.remove(id);
+        if (position != null) {
+            final Map<PositionStatusDTO, Set<Long>> positionsByStatus = positionsByCurrencyPair.get(position.getCurrencyPair());
+            if (positionsByStatus != null) {
+                final Set<Long> ids = positionsByStatus.get(position.getStatus());
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+            if (position.getOpeningOrder() != null) {
+                positionsByOrderId.remove(position.getOpeningOrder().getId());
+            }
+            if (position.getClosingOrder() != null) {
+                positionsByOrderId.remove(position.getClosingOrder().getId());
+            }
+            removeTrigger(stopGainTriggers, position.getCurrencyPair(), stopGainTriggerPrices.remove(id), id);
+            removeTrigger(stopLossTriggers, position.getCurrencyPair(), stopLossTriggerPrices.remove(id), id);
+        }
+    }
+
+}
@@ -7,10 +7,10 @@ import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
 import tech.cassandre.trading.bot.dto.position.PositionDTO;
 import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
 import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationRequestDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
-import tech.cassandre.trading.bot.dto.util.CurrencyAmountDTO;
 import tech.cassandre.trading.bot.dto.util.CurrencyDTO;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 import tech.cassandre.trading.bot.dto.util.GainDTO;
@@ -20,18 +20,20 @@ import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.util.base.BaseService;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-import static java.math.RoundingMode.HALF_UP;
 import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
 import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
 import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
 
 /**
  * Position service implementation.
@@ -47,6 +49,21 @@ public class PositionServiceImplementation extends BaseService implements Positi
     /** Position flux. */
     private final PositionFlux positionFlux;
 
+    /** Asynchronous trade service (used to send closing orders). */
+    private final AsynchronousTradeService asynchronousTradeService;
+
+    /** Ids of the positions with a closing order being sent. */
+    private final Set<Long> closingPositions = ConcurrentHashMap.newKeySet();
+
+    /** Lock preventing a ticker update and a closing order result from updating a position at the same time. */
+    private final Object closingLock = new Object();
+
+    /** Index of the positions not closed. */
+    private final PositionIndex positionIndex = new PositionIndex();
+
+    /** Gains ledger. */
+    private final GainsLedger gainsLedger;
+
     /**
      * Constructor.
      *
@@ -57,9 +74,29 @@ public class PositionServiceImplementation extends BaseService implements Positi
     public PositionServiceImplementation(final TradeService newTradeService,
                                          final PositionRepository newPositionRepository,
                                          final PositionFlux newPositionFlux) {
+        this(newTradeService, newPositionRepository, newPositionFlux, new AsynchronousTradeService(newTradeService));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newTradeService             trade service
+     * @param newPositionRepository       position repository
+     * @param newPositionFlux             position flux
+     * @param newAsynchronousTradeService asynchronous trade service
+     */
+    public PositionServiceImplementation(final TradeService newTradeService,
+                                         final PositionRepository newPositionRepository,
+                                         final PositionFlux newPositionFlux,
+                                         final AsynchronousTradeService newAsynchronousTradeService) {
         this.tradeService = newTradeService;
         this.positionRepository = newPositionRepository;
         this.positionFlux = newPositionFlux;
+        this.asynchronousTradeService = newAsynchronousTradeService;
+        this.gainsLedger = new GainsLedger(() -> positionRepository.findByStatus(CLOSED)
+                .stream()
+                .map(this::mapToPositionDTO)
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -67,7 +104,7 @@ public class PositionServiceImplementation extends BaseService implements Positi
         getLogger().debug("PositionService - Retrieving all positions");
         return positionRepository.findByOrderById()
                 .stream()
-                .map(mapper::mapToPositionDTO)
+                .map(this::mapToPositionDTO)
                 .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
@@ -75,7 +112,7 @@ public class PositionServiceImplementation extends BaseService implements Positi
     public final Optional<PositionDTO> getPositionById(final long id) {
         getLogger().debug("PositionService - Retrieving position {}", id);
         final Optional<Position> position = positionRepository.findById(id);
-        return position.map(mapper::mapToPositionDTO);
+        return position.map(this::mapToPositionDTO);
     }
 
     @Override
@@ -110,7 +147,7 @@ public class PositionServiceImplementation extends BaseService implements Positi
 
             // =========================================================================================================
             // Creates the result.
-            positionFlux.emitValue(p);
+            emitPosition(p);
             return new PositionCreationResultDTO(p);
         } else {
             getLogger().error("PositionService - Position creation failure : {}", orderCreationResult.getErrorMessage());
@@ -121,101 +158,243 @@ public class PositionServiceImplementation extends BaseService implements Positi
 
     @Override
     public final void tickerUpdate(final TickerDTO ticker) {
-        // With the ticker received, we check for every position, if it should be closed.
-        positionRepository.findByStatus(OPENED)
-                .stream()
-                .map(mapper::mapToPositionDTO)
-                .filter(p -> p.getCurrencyPair() != null)
-                .filter(p -> p.getCurrencyPair().equals(ticker.getCurrencyPair()))
-                .forEach(p -> {
-                    if (p.shouldBeClosed(ticker)) {
-                        System.out.println("straumat " + p.getStrategy() + " : " + ticker.getCurrencyPair() + " : " + p.getAmount());
-                        final OrderCreationResultDTO orderCreationResult = tradeService.createSellMarketOrder(p.getStrategy(), ticker.getCurrencyPair(), p.getAmount());
-                        if (orderCreationResult.isSuccessful()) {
-                            p.setClosingOrderId(orderCreationResult.getOrderId());
-                            getLogger().debug("PositionService - Position {} closed with order {}", p.getId(), orderCreationResult.getOrderId());
+        // With the ticker received, we check for every opened position of this currency pair, if it should be closed.
+        // Rules are only checked for the positions whose trigger price was crossed, others only get the new price in
+        // the index and are emitted if their highest or lowest price changed.
+        synchronized (closingLock) {
+            final List<PositionDTO> positionsToClose = new ArrayList<>();
+            final Set<Long> triggeredPositions = getPositionIndex().getTriggeredPositionIds(ticker.getCurrencyPair(), ticker.getLast());
+            final Predicate<PositionDTO> rulesChecked = p -> triggeredPositions.contains(p.getId()) || !hasOpeningTrades(p);
+            getPositionIndex().updatePrices(ticker.getCurrencyPair(), ticker.getLast(), rulesChecked)
+                    .stream()
+                    .filter(p -> !closingPositions.contains(p.getId()))
+                    .forEach(indexedPosition -> {
+                        if (rulesChecked.test(indexedPosition)) {
+                            getPositionWithOpeningTrades(indexedPosition).ifPresent(p -> {
+                                if (p.shouldBeClosed(ticker)) {
+                                    closingPositions.add(p.getId());
+                                    positionsToClose.add(p);
+                                }
+                                emitPosition(p);
+                            });
+                        } else {
+                            // The indexed position is already updated, a copy is emitted.
+                            positionFlux.emitValue(copyPosition(indexedPosition));
                         }
-                    }
-                    positionFlux.emitValue(p);
-                });
+                    });
+            closePositions(positionsToClose);
+        }
+    }
+
+    /**
+     * Returns a copy of an indexed position with its opening trades (required to calculate gains).
+     * If the opening trades were not known when the position was indexed, the position is loaded from database once.
+     *
+     * @param position indexed position
+     * @return position with its opening trades (empty if opening trades are not available yet)
+     */
+    private Optional<PositionDTO> getPositionWithOpeningTrades(final PositionDTO position) {
+        if (hasOpeningTrades(position)) {
+            return Optional.of(copyPosition(position));
+        } else {
+            return positionRepository.findById(position.getId())
+                    .map(this::mapToPositionDTO)
+                    .filter(this::hasOpeningTrades);
+        }
+    }
+
+    /**
+     * Returns a copy of a position (the position index keeps its own instances).
+     *
+     * @param position position
+     * @return copy
+     */
+    private PositionDTO copyPosition(final PositionDTO position) {
+        return mapper.mapToPositionDTO(mapper.mapToPosition(position));
+    }
+
+    /**
+     * Returns true if the opening trades of the position are known.
+     *
+     * @param position position
+     * @return true if opening trades are known
+     */
+    private boolean hasOpeningTrades(final PositionDTO position) {
+        return position.getOpeningOrder() != null
+                && position.getOpeningOrder().getTrades() != null
+                && !position.getOpeningOrder().getTrades().isEmpty();
+    }
+
+    /**
+     * Sends the closing orders of positions without blocking the ticker processing.
+     *
+     * @param positions positions to close
+     */
+    private void closePositions(final List<PositionDTO> positions) {
+        if (positions.size() == 1) {
+            final PositionDTO p = positions.get(0);
+            asynchronousTradeService.createSellMarketOrder(p.getStrategy(), p.getCurrencyPair(), p.getAmount())
+                    .whenComplete((orderCreationResult, throwable) -> closingOrderSent(p.getId(), orderCreationResult));
+        } else if (positions.size() > 1) {
+            // Several positions hit their rules with the same ticker, closing orders are sent together.
+            final List<OrderCreationRequestDTO> orders = positions.stream()
+                    .map(p -> OrderCreationRequestDTO.builder()
+                            .strategy(p.getStrategy())
+                            .type(ASK)
+                            .currencyPair(p.getCurrencyPair())
+                            .amount(p.getAmount())
+                            .build())
+                    .collect(Collectors.toList());
+            asynchronousTradeService.createOrders(orders)
+                    .whenComplete((orderCreationResults, throwable) -> {
+                        for (int i = 0; i < positions.size(); i++) {
+                            OrderCreationResultDTO orderCreationResult = null;
+                            if (orderCreationResults != null && i < orderCreationResults.size()) {
+                                orderCreationResult = orderCreationResults.get(i);
+                            }
+                            closingOrderSent(positions.get(i).getId(), orderCreationResult);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Called once the closing order of a position has been sent.
+     *
+     * @param positionId          position id
+     * @param orderCreationResult order creation result (null if the request failed)
+     */
+    private void closingOrderSent(final long positionId, final OrderCreationResultDTO orderCreationResult) {
+        synchronized (closingLock) {
+            try {
+                if (orderCreationResult != null && orderCreationResult.isSuccessful()) {
+                    positionRepository.findById(positionId)
+                            .map(this::mapToPositionDTO)
+                            .filter(p -> p.getStatus() == OPENED)
+                            .ifPresent(p -> {
+                                p.setClosingOrderId(orderCreationResult.getOrderId());
+                                getLogger().debug("PositionService - Position {} closed with order {}", p.getId(), orderCreationResult.getOrderId());
+                                emitPosition(p);
+                                notifyActivity();
+                            });
+                } else {
+                    // The position stays opened, a new closing order will be sent with the next ticker.
+                    getLogger().error("PositionService - Position {} closing order failure", positionId);
+                }
+            } finally {
+                closingPositions.remove(positionId);
+            }
+        }
     }
 
     @Override
     public final void orderUpdate(final OrderDTO order) {
-        positionRepository.findByStatusNot(CLOSED)
-                .stream()
-                .map(mapper::mapToPositionDTO)
-                .forEach(p -> {
-                    if (p.updateOrder(order)) {
-                        positionFlux.emitValue(p);
-                    }
-                });
+        getPositionByOrderId(order.getId())
+                .filter(p -> p.updateOrder(order))
+                .ifPresent(this::emitPosition);
     }
 
     @Override
     public final void tradeUpdate(final TradeDTO trade) {
-        positionRepository.findByStatusNot(CLOSED)
-                .stream()
-                .map(mapper::mapToPositionDTO)
-                .forEach(p -> {
-                    if (p.tradeUpdate(trade)) {
-                        positionFlux.emitValue(p);
+        getPositionByOrderId(trade.getOrderId())
+                .filter(p -> p.tradeUpdate(trade))
+                .ifPresent(p -> {
+                    if (p.getStatus() == CLOSED) {
+                        gainsLedger.positionClosed(p, trade);
                     }
+                    emitPosition(p);
                 });
     }
 
+    /**
+     * Returns the position opened or closed by an order (the position that may be updated by this order or its trades).
+     * The position id is found with the position index, the position is loaded from database as orders and trades
+     * are saved there.
+     *
+     * @param orderId order id
+     * @return position
+     */
+    private Optional<PositionDTO> getPositionByOrderId(final String orderId) {
+        if (orderId == null) {
+            return Optional.empty();
+        }
+        final Optional<Long> positionId = getPositionIndex().getPositionIdByOrderId(orderId);
+        if (positionId.isPresent()) {
+            return positionRepository.findById(positionId.get())
+                    .map(this::mapToPositionDTO);
+        } else {
+            // Order not known by the index yet (for example, a closing order set outside the position service).
+            return positionRepository.findByOpeningOrderId(orderId)
+                    .or(() -> positionRepository.findByClosingOrderId(orderId))
+                    .filter(p -> p.getStatus() != CLOSED)
+                    .map(this::mapToPositionDTO);
+        }
+    }
+
+    /**
+     * Method called by streams on every position update - keeps the position index in sync.
+     *
+     * @param position position
+     */
+    public final void positionUpdate(final PositionDTO position) {
+        getPositionIndex().positionUpdate(copyPosition(position));
+    }
+
+    /**
+     * Loads the position index from database (if it's not already loaded).
+     */
+    public final void loadPositionIndex() {
+        positionIndex.load(() -> positionRepository.findByStatusNot(CLOSED)
+                .stream()
+                .map(this::mapToPositionDTO)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns the position index (loaded from database on first use).
+     *
+     * @return position index
+     */
+    public final PositionIndex getPositionIndex() {
+        loadPositionIndex();
+        return positionIndex;
+    }
+
+    /**
+     * Updates the position index and emits the position.
+     *
+     * @param position position
+     */
+    private void emitPosition(final PositionDTO position) {
+        getPositionIndex().update(copyPosition(position));
+        positionFlux.emitValue(position);
+    }
+
     @Override
     public final HashMap<CurrencyDTO, GainDTO> getGains() {
-        HashMap<CurrencyDTO, BigDecimal> totalBought = new LinkedHashMap<>();
-        HashMap<CurrencyDTO, BigDecimal> totalSold = new LinkedHashMap<>();
-        HashMap<CurrencyDTO, BigDecimal> totalFees = new LinkedHashMap<>();
-        HashMap<CurrencyDTO, GainDTO> gains = new LinkedHashMap<>();
+        return gainsLedger.getGains();
+    }
 
-        // We calculate, by currency, the amount bought & sold.
-        getPositions()      // TODO Replace with repository.
-                .stream()
-                .filter(p -> CLOSED.equals(p.getStatus()))
-                .forEach(p -> {
-                    // We retrieve the currency and initiate the maps if they are empty
-                    CurrencyDTO currency = p.getCurrencyPair().getQuoteCurrency();
-                    gains.putIfAbsent(currency, null);
-                    totalBought.putIfAbsent(currency, BigDecimal.ZERO);
-                    totalSold.putIfAbsent(currency, BigDecimal.ZERO);
-                    totalFees.putIfAbsent(currency, BigDecimal.ZERO);
-
-                    // We calculate the amounts bought and amount sold..
-                    final BigDecimal bought = p.getOpeningTrades()
-                            .stream()
-                            .map(t -> t.getOriginalAmount().multiply(t.getPrice()))
-                            .reduce(totalBought.get(currency), BigDecimal::add);
-                    totalBought.put(currency, bought);
-                    final BigDecimal sold = p.getClosingTrades()
-                            .stream()
-                            .map(t -> t.getOriginalAmount().multiply(t.getPrice()))
-                            .reduce(totalSold.get(currency), BigDecimal::add);
-                    totalSold.put(currency, sold);
-
-                    final BigDecimal fees = Stream.concat(p.getOpeningTrades().stream(), p.getClosingTrades().stream())
-                            .map(t -> t.getFee().getValue())
-                            .reduce(totalFees.get(currency), BigDecimal::add);
-                    totalFees.put(currency, fees);
-                });
+    /**
+     * Getter gainsLedger.
+     *
+     * @return gainsLedger
+     */
+    public final GainsLedger getGainsLedger() {
+        return gainsLedger;
+    }
 
-        gains.keySet()
-                .forEach(currency -> {
-                    // We make the calculation.
-                    BigDecimal bought = totalBought.get(currency);
-                    BigDecimal sold = totalSold.get(currency);
-                    BigDecimal fees = totalFees.get(currency);
-                    BigDecimal gainAmount = sold.subtract(bought);
-                    BigDecimal gainPercentage = ((sold.subtract(bought)).divide(bought, HALF_UP)).multiply(new BigDecimal("100"));
-
-                    GainDTO g = new GainDTO(gainPercentage.setScale(2, HALF_UP).doubleValue(),
-                            new CurrencyAmountDTO(gainAmount, currency),
-                            new CurrencyAmountDTO(fees, currency));
-                    gains.put(currency, g);
-                });
-        return gains;
+    /**
+     * Maps a position from database - if the position flux has a newer state not yet saved (write-behind backups),
+     * a copy of this state is returned.
+     *
+     * @param position position
+     * @return position dto
+     */
+    private PositionDTO mapToPositionDTO(final Position position) {
+        return positionFlux.getPendingBackup(position.getId())
+                .map(p -> mapper.mapToPositionDTO(mapper.mapToPosition(p)))
+                .orElseGet(() -> mapper.mapToPositionDTO(position));
     }
 
 }
@@ -2,13 +2,19 @@ package tech.cassandre.trading.bot.service.xchange;
 
 import org.knowm.xchange.currency.CurrencyPair;
 import org.knowm.xchange.service.marketdata.MarketDataService;
+import org.knowm.xchange.service.marketdata.params.CurrencyPairsParam;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 import tech.cassandre.trading.bot.service.MarketService;
 import tech.cassandre.trading.bot.util.base.BaseService;
+import tech.cassandre.trading.bot.util.scheduler.RequestPriority;
 
 import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Market service - XChange implementation.
@@ -18,6 +24,9 @@ public class MarketServiceXChangeImplementation extends BaseService implements M
     /** XChange service. */
     private final MarketDataService marketDataService;
 
+    /** False if the exchange doesn't support the retrieval of several tickers in one call. */
+    private volatile boolean bulkTickersSupported = true;
+
     /**
      * Constructor.
      *
@@ -35,6 +44,7 @@ public class MarketServiceXChangeImplementation extends BaseService implements M
             // Consume a token from the token bucket.
             // If a token is not available this method will block until the refill adds one to the bucket.
             getBucket().asScheduler().consume(1);
+            consumeRateBudget(getTickerPriority(currencyPair));
 
             getLogger().debug("MarketService - Getting ticker for {}", currencyPair);
             CurrencyPair cp = new CurrencyPair(currencyPair.getBaseCurrency().getCode(), currencyPair.getQuoteCurrency().getCode());
@@ -50,4 +60,69 @@ public class MarketServiceXChangeImplementation extends BaseService implements M
         }
     }
 
+    @Override
+    public final Set<TickerDTO> getTickers(final Set<CurrencyPairDTO> currencyPairs) {
+        if (currencyPairs.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        if (bulkTickersSupported) {
+            try {
+                // Consume a token from the token bucket - one call for all currency pairs.
+                getBucket().asScheduler().consume(1);
+                consumeRateBudget(getTickersPriority(currencyPairs));
+
+                getLogger().debug("MarketService - Getting tickers for {}", currencyPairs);
+                final Set<CurrencyPair> requestedCurrencyPairs = currencyPairs.stream()
+                        .map(this::getCurrencyPair)
+                        .collect(Collectors.toSet());
+                final CurrencyPairsParam params = () -> requestedCurrencyPairs;
+                // Some exchanges return all their tickers, so we only keep the requested ones.
+                final Set<TickerDTO> tickers = marketDataService.getTickers(params)
+                        .stream()
+                        .filter(t -> requestedCurrencyPairs.contains(t.getCurrencyPair()))
+                        .map(mapper::mapToTickerDTO)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+                getLogger().debug("MarketService - Retrieved values are : {}", tickers);
+                return tickers;
+            } catch (UnsupportedOperationException e) {
+                getLogger().info("MarketService - Exchange doesn't support retrieving several tickers at once, using one call per currency pair");
+                bulkTickersSupported = false;
+            } catch (IOException e) {
+                getLogger().error("MarketService - Error retrieving tickers about {} : {}", currencyPairs, e.getMessage());
+                return new LinkedHashSet<>();
+            } catch (InterruptedException e) {
+                getLogger().error("MarketService - InterruptedException {} : {}", currencyPairs, e.getMessage());
+                return new LinkedHashSet<>();
+            }
+        }
+
+        // Fallback - one call per currency pair.
+        Set<TickerDTO> tickers = new LinkedHashSet<>();
+        currencyPairs.forEach(cp -> getTicker(cp).ifPresent(tickers::add));
+        return tickers;
+    }
+
+    /**
+     * Returns the priority of a bulk ticker request - the highest priority of the requested currency pairs.
+     *
+     * @param currencyPairs currency pairs
+     * @return priority
+     */
+    private RequestPriority getTickersPriority(final Set<CurrencyPairDTO> currencyPairs) {
+        return currencyPairs.stream()
+                .map(this::getTickerPriority)
+                .min(Comparator.naturalOrder())
+                .orElse(RequestPriority.POLLING);
+    }
+
+    /**
+     * Returns true if the exchange supports the retrieval of several tickers in one call.
+     *
+     * @return true if supported
+     */
+    @Override
+    public final boolean isBulkTickersSupported() {
+        return bulkTickersSupported;
+    }
+
 }
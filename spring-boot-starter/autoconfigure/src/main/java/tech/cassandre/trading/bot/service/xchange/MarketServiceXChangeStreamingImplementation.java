@@ -0,0 +1,124 @@
+package tech.cassandre.trading.bot.service.xchange;
+
+import info.bitrich.xchangestream.core.ProductSubscription;
+import info.bitrich.xchangestream.core.StreamingExchange;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import org.knowm.xchange.service.marketdata.MarketDataService;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.service.StreamingMarketService;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Market service - XChange streaming implementation.
+ * Tickers are pushed by the exchange websocket, REST calls are still available for fallback.
+ */
+public class MarketServiceXChangeStreamingImplementation extends MarketServiceXChangeImplementation implements StreamingMarketService {
+
+    /** Delay before subscribing again after an error or the end of a stream (ms). */
+    private static final long RESUBSCRIPTION_DELAY = 1_000;
+
+    /** XChange streaming exchange. */
+    private final StreamingExchange streamingExchange;
+
+    /** Listeners by currency pair. */
+    private final Map<CurrencyPairDTO, Consumer<TickerDTO>> listeners = new ConcurrentHashMap<>();
+
+    /** Subscriptions by currency pair. */
+    private final Map<CurrencyPairDTO, Disposable> subscriptions = new ConcurrentHashMap<>();
+
+    /** Number of resubscriptions. */
+    private final AtomicLong resubscriptionCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param rate                 rate in ms (REST calls)
+     * @param newMarketDataService market data service (REST calls)
+     * @param newStreamingExchange streaming exchange
+     */
+    public MarketServiceXChangeStreamingImplementation(final long rate,
+                                                       final MarketDataService newMarketDataService,
+                                                       final StreamingExchange newStreamingExchange) {
+        super(rate, newMarketDataService);
+        this.streamingExchange = newStreamingExchange;
+    }
+
+    @Override
+    public final synchronized void subscribeTickers(final Set<CurrencyPairDTO> currencyPairs, final Consumer<TickerDTO> listener) {
+        if (!streamingExchange.isAlive()) {
+            // Some exchanges need to know the subscriptions when connecting.
+            ProductSubscription.ProductSubscriptionBuilder productSubscription = ProductSubscription.create();
+            currencyPairs.forEach(cp -> productSubscription.addTicker(getCurrencyPair(cp)));
+            streamingExchange.connect(productSubscription.build()).blockingAwait();
+            getLogger().info("MarketService - Connected to the streaming exchange");
+        }
+        currencyPairs.forEach(cp -> {
+            listeners.put(cp, listener);
+            subscribe(cp);
+        });
+    }
+
+    @Override
+    public final void resubscribeTicker(final CurrencyPairDTO currencyPair) {
+        if (listeners.containsKey(currencyPair)) {
+            getLogger().warn("MarketService - Resubscribing to {} tickers", currencyPair);
+            resubscriptionCount.incrementAndGet();
+            subscribe(currencyPair);
+        }
+    }
+
+    /**
+     * Subscribes to the tickers of a currency pair (replacing the previous subscription if any).
+     *
+     * @param currencyPair currency pair
+     */
+    private void subscribe(final CurrencyPairDTO currencyPair) {
+        final Consumer<TickerDTO> listener = listeners.get(currencyPair);
+        final Disposable subscription = Observable.defer(() -> streamingExchange.getStreamingMarketDataService().getTicker(getCurrencyPair(currencyPair)))
+                // In case of error or end of stream, we subscribe again after a delay.
+                .retryWhen(errors -> errors.flatMap(e -> {
+                    getLogger().error("MarketService - Error on {} ticker stream : {}", currencyPair, e.getMessage());
+                    resubscriptionCount.incrementAndGet();
+                    return Observable.timer(RESUBSCRIPTION_DELAY, MILLISECONDS);
+                }))
+                .repeatWhen(completions -> completions.delay(RESUBSCRIPTION_DELAY, MILLISECONDS))
+                .filter(t -> t.getCurrencyPair() != null)
+                .map(mapper::mapToTickerDTO)
+                .subscribe(listener::accept,
+                        e -> getLogger().error("MarketService - {} ticker stream stopped : {}", currencyPair, e.getMessage()));
+        final Disposable previousSubscription = subscriptions.put(currencyPair, subscription);
+        if (previousSubscription != null) {
+            previousSubscription.dispose();
+        }
+    }
+
+    @Override
+    public final synchronized void close() {
+        subscriptions.values().forEach(Disposable::dispose);
+        subscriptions.clear();
+        listeners.clear();
+        if (streamingExchange.isAlive()) {
+            streamingExchange.disconnect().blockingAwait();
+            getLogger().info("MarketService - Disconnected from the streaming exchange");
+        }
+    }
+
+    /**
+     * Returns the number of resubscriptions (after errors, end of streams or gaps).
+     *
+     * @return resubscription count
+     */
+    public final long getResubscriptionCount() {
+        return resubscriptionCount.get();
+    }
+
+}
@@ -0,0 +1,174 @@
+package tech.cassandre.trading.bot.service.xchange;
+
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order tracker - keeps the ids of the orders created by Cassandre until they reach a final status, so their status
+ * can be requested by id (even when they are not in the open orders anymore).
+ * Young orders are requested at every poll, older orders less and less often.
+ */
+public final class OrderTracker extends Base {
+
+    /** Default maximum number of order ids requested at once. */
+    public static final int DEFAULT_BATCH_SIZE = 20;
+
+    /** Default maximum delay between two requests of the same order (ms). */
+    public static final long DEFAULT_MAXIMUM_INTERVAL = 60_000;
+
+    /** Default number of requests in a row without the order before it stops being tracked. */
+    public static final int DEFAULT_MAXIMUM_MISSES = 5;
+
+    /** The delay between two requests of an order is its age divided by this value. */
+    private static final int AGE_DIVIDER = 4;
+
+    /** Maximum number of order ids requested at once. */
+    private final int batchSize;
+
+    /** Maximum delay between two requests of the same order (ms). */
+    private final long maximumInterval;
+
+    /** Number of requests in a row without the order before it stops being tracked. */
+    private final int maximumMisses;
+
+    /** Creation time of tracked orders (ms) by order id. */
+    private final Map<String, Long> creationTimes = new LinkedHashMap<>();
+
+    /** Time (ms) at which tracked orders must be requested again by order id. */
+    private final Map<String, Long> nextRequestTimes = new LinkedHashMap<>();
+
+    /** Number of requests in a row without the order, by order id. */
+    private final Map<String, Integer> missCounts = new HashMap<>();
+
+    /**
+     * Constructor with default values.
+     */
+    public OrderTracker() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_MAXIMUM_INTERVAL);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newBatchSize       maximum number of order ids requested at once
+     * @param newMaximumInterval maximum delay between two requests of the same order (ms)
+     */
+    public OrderTracker(final int newBatchSize, final long newMaximumInterval) {
+        this(newBatchSize, newMaximumInterval, DEFAULT_MAXIMUM_MISSES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newBatchSize       maximum number of order ids requested at once
+     * @param newMaximumInterval maximum delay between two requests of the same order (ms)
+     * @param newMaximumMisses   number of requests in a row without the order before it stops being tracked
+     */
+    public OrderTracker(final int newBatchSize, final long newMaximumInterval, final int newMaximumMisses) {
+        this.batchSize = Math.max(1, newBatchSize);
+        this.maximumInterval = Math.max(0, newMaximumInterval);
+        this.maximumMisses = Math.max(1, newMaximumMisses);
+    }
+
+    /**
+     * Starts tracking an order.
+     *
+     * @param orderId order id
+     * @param now     current time (ms)
+     */
+    public synchronized void track(final String orderId, final long now) {
+        if (orderId != null) {
+            creationTimes.putIfAbsent(orderId, now);
+            nextRequestTimes.putIfAbsent(orderId, now);
+        }
+    }
+
+    /**
+     * Returns the ids of the orders to request, by batches.
+     *
+     * @param now current time (ms)
+     * @return batches of order ids
+     */
+    public synchronized List<List<String>> getOrderIdsToRequest(final long now) {
+        final List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : nextRequestTimes.entrySet()) {
+            if (entry.getValue() <= now) {
+                if (batch.size() == batchSize) {
+                    batches.add(batch);
+                    batch = new ArrayList<>();
+                }
+                batch.add(entry.getKey());
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Called when an order was requested - the order stops being tracked if its status is final or if the exchange
+     * didn't return it too many times in a row.
+     *
+     * @param orderId order id
+     * @param order   order received (null if the exchange didn't return it)
+     * @param now     current time (ms)
+     */
+    public synchronized void requested(final String orderId, final OrderDTO order, final long now) {
+        final Long creationTime = creationTimes.get(orderId);
+        if (creationTime == null) {
+            return;
+        }
+        if (order != null && order.getStatus() != null && order.getStatus().isFinal()) {
+            untrack(orderId);
+            getLogger().debug("OrderTracker - Order {} is not tracked anymore ({})", orderId, order.getStatus());
+        } else if (order == null && missCounts.merge(orderId, 1, Integer::sum) >= maximumMisses) {
+            untrack(orderId);
+            getLogger().warn("OrderTracker - Order {} is not tracked anymore (not returned by the exchange)", orderId);
+        } else {
+            if (order != null) {
+                missCounts.remove(orderId);
+            }
+            final long interval = Math.min(maximumInterval, (now - creationTime) / AGE_DIVIDER);
+            nextRequestTimes.put(orderId, now + interval);
+        }
+    }
+
+    /**
+     * Stops tracking an order.
+     *
+     * @param orderId order id
+     */
+    private void untrack(final String orderId) {
+        creationTimes.remove(orderId);
+        nextRequestTimes.remove(orderId);
+        missCounts.remove(orderId);
+    }
+
+    /**
+     * Returns true if the order is tracked.
+     *
+     * @param orderId order id
+     * @return true if tracked
+     */
+    public synchronized boolean isTracked(final String orderId) {
+        return creationTimes.containsKey(orderId);
+    }
+
+    /**
+     * Returns the number of orders tracked.
+     *
+     * @return tracked orders count
+     */
+    public synchronized int getTrackedOrdersCount() {
+        return creationTimes.size();
+    }
+
+}
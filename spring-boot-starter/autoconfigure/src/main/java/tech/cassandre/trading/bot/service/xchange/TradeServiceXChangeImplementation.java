@@ -1,10 +1,14 @@
 package tech.cassandre.trading.bot.service.xchange;
 
 import org.apache.commons.lang3.time.DateUtils;
+import org.knowm.xchange.dto.Order;
 import org.knowm.xchange.dto.trade.LimitOrder;
 import org.knowm.xchange.dto.trade.MarketOrder;
+import org.knowm.xchange.dto.trade.UserTrade;
 import org.knowm.xchange.service.trade.params.TradeHistoryParamsAll;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationRequestDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
@@ -12,15 +16,25 @@ import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.util.base.BaseService;
+import tech.cassandre.trading.bot.util.scheduler.RequestPriority;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.PENDING_NEW;
@@ -30,11 +44,53 @@ import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.PENDING_NEW;
  */
 public class TradeServiceXChangeImplementation extends BaseService implements TradeService {
 
+    /** Default delay between two requests of the complete trade history (incremental mode - ms). */
+    public static final long DEFAULT_FULL_SWEEP_INTERVAL = 3_600_000;
+
+    /** Overlap between two incremental requests, covers clock differences with the exchange (ms). */
+    private static final long CURSOR_OVERLAP = 60_000;
+
+    /** Maximum number of orders sent at the same time by createOrders() and cancelOrders(). */
+    private static final int BATCH_POOL_SIZE = 4;
+
     /** XChange service. */
     private final org.knowm.xchange.service.trade.TradeService tradeService;
 
-    /** Hashmap used to store orders created locally. */
-    private final HashMap<String, OrderDTO> localOrders = new HashMap<>();
+    /** Map used to store orders created locally (orders can be created by several threads). */
+    private final Map<String, OrderDTO> localOrders = new ConcurrentHashMap<>();
+
+    /** Orders created by Cassandre, requested by id until they reach a final status. */
+    private final OrderTracker orderTracker = new OrderTracker();
+
+    /** False if the exchange doesn't allow requesting orders by id. */
+    private volatile boolean orderTrackingAvailable = true;
+
+    /** Executor sending the orders of createOrders() and cancelOrders() concurrently. */
+    private final ThreadPoolTaskExecutor batchExecutor;
+
+    /** True if only trades after the cursor are requested. */
+    private final boolean incremental;
+
+    /** Delay between two requests of the complete trade history (ms). */
+    private final long fullSweepInterval;
+
+    /** Timestamp of the newest trade received. */
+    private Date lastTradeTimestamp;
+
+    /** Time of the last request of all open orders. */
+    private volatile long lastOpenOrdersRequestTime;
+
+    /** Time of the last successful trade history request. */
+    private long lastRequestTime;
+
+    /** Time of the last successful request of the complete trade history. */
+    private long lastFullSweepTime;
+
+    /** Number of complete trade history requests. */
+    private final AtomicLong fullSweepCount = new AtomicLong();
+
+    /** Number of incremental trade history requests. */
+    private final AtomicLong incrementalRequestCount = new AtomicLong();
 
     /**
      * Constructor.
@@ -44,25 +100,54 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
      */
     public TradeServiceXChangeImplementation(final long rate,
                                              final org.knowm.xchange.service.trade.TradeService newTradeService) {
+        this(rate, newTradeService, false, DEFAULT_FULL_SWEEP_INTERVAL);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rate                 rate in ms
+     * @param newTradeService      market data service
+     * @param newIncremental       true to only request trades after the last trade received
+     * @param newFullSweepInterval delay between two requests of the complete trade history (ms)
+     */
+    public TradeServiceXChangeImplementation(final long rate,
+                                             final org.knowm.xchange.service.trade.TradeService newTradeService,
+                                             final boolean newIncremental,
+                                             final long newFullSweepInterval) {
         super(rate);
         this.tradeService = newTradeService;
+        this.incremental = newIncremental;
+        this.fullSweepInterval = newFullSweepInterval;
+        // When all threads are busy, the calling thread sends the order itself.
+        this.batchExecutor = new ThreadPoolTaskExecutor();
+        this.batchExecutor.setCorePoolSize(BATCH_POOL_SIZE);
+        this.batchExecutor.setMaxPoolSize(BATCH_POOL_SIZE);
+        this.batchExecutor.setQueueCapacity(0);
+        this.batchExecutor.setAllowCoreThreadTimeOut(true);
+        this.batchExecutor.setDaemon(true);
+        this.batchExecutor.setThreadNamePrefix("cassandre-trade-batch-");
+        this.batchExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.batchExecutor.initialize();
     }
 
     /**
      * Creates market order.
      *
+     * @param strategy     strategy
      * @param orderTypeDTO order type
      * @param currencyPair currency pair
      * @param amount       amount
      * @return order creation result
      */
-    private OrderCreationResultDTO createMarketOrder(final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+    private OrderCreationResultDTO createMarketOrder(final StrategyDTO strategy, final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
         try {
             // Making the order.
             MarketOrder m = new MarketOrder(mapper.mapToOrderType(orderTypeDTO), amount, getCurrencyPair(currencyPair));
             getLogger().debug("TradeService - Sending market order : {} - {} - {}", orderTypeDTO, currencyPair, amount);
 
-            // Sending the order.
+            // Sending the order (orders have the highest priority in the exchange rate budget).
+            consumeRateBudget(RequestPriority.ORDER);
             final String orderId = tradeService.placeMarketOrder(m);
             OrderDTO openingOrder = OrderDTO.builder()
                     .id(orderId)
@@ -71,8 +156,11 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
                     .originalAmount(amount)
                     .currencyPair(currencyPair)
                     .status(PENDING_NEW)
+                    .strategy(strategy)
                     .build();
             localOrders.put(orderId, openingOrder);
+            orderTracker.track(orderId, System.currentTimeMillis());
+            notifyActivity();
             final OrderCreationResultDTO result = new OrderCreationResultDTO(openingOrder);
             getLogger().debug("TradeService - Order created : {}", result);
             return result;
@@ -85,19 +173,21 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
     /**
      * Creates limit order.
      *
+     * @param strategy     strategy
      * @param orderTypeDTO order type
      * @param currencyPair currency pair
      * @param amount       amount
      * @param limitPrice   In a BID this is the highest acceptable price, in an ASK this is the lowest acceptable price
      * @return order creation result
      */
-    private OrderCreationResultDTO createLimitOrder(final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+    private OrderCreationResultDTO createLimitOrder(final StrategyDTO strategy, final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
         try {
             // Making the order.
             LimitOrder l = new LimitOrder(mapper.mapToOrderType(orderTypeDTO), amount, getCurrencyPair(currencyPair), null, null, limitPrice);
             getLogger().debug("TradeService - Sending market order : {} - {} - {}", orderTypeDTO, currencyPair, amount);
 
-            // Sending & creating the order.
+            // Sending & creating the order (orders have the highest priority in the exchange rate budget).
+            consumeRateBudget(RequestPriority.ORDER);
             final String orderId = tradeService.placeLimitOrder(l);
             OrderDTO openingOrder = OrderDTO.builder()
                     .id(orderId)
@@ -107,8 +197,11 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
                     .currencyPair(currencyPair)
                     .status(PENDING_NEW)
                     .limitPrice(limitPrice)
+                    .strategy(strategy)
                     .build();
             localOrders.put(orderId, openingOrder);
+            orderTracker.track(orderId, System.currentTimeMillis());
+            notifyActivity();
             final OrderCreationResultDTO result = new OrderCreationResultDTO(openingOrder);
             getLogger().debug("TradeService - Order creation result : {}", result);
             return result;
@@ -120,22 +213,58 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
 
     @Override
     public final OrderCreationResultDTO createBuyMarketOrder(final StrategyDTO strategy, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
-        return createMarketOrder(OrderTypeDTO.BID, currencyPair, amount);
+        return createMarketOrder(strategy, OrderTypeDTO.BID, currencyPair, amount);
     }
 
     @Override
     public final OrderCreationResultDTO createSellMarketOrder(final StrategyDTO strategy, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
-        return createMarketOrder(OrderTypeDTO.ASK, currencyPair, amount);
+        return createMarketOrder(strategy, OrderTypeDTO.ASK, currencyPair, amount);
     }
 
     @Override
     public final OrderCreationResultDTO createBuyLimitOrder(final StrategyDTO strategy, final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
-        return createLimitOrder(OrderTypeDTO.BID, currencyPair, amount, limitPrice);
+        return createLimitOrder(strategy, OrderTypeDTO.BID, currencyPair, amount, limitPrice);
     }
 
     @Override
     public final OrderCreationResultDTO createSellLimitOrder(final StrategyDTO strategy, final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
-        return createLimitOrder(OrderTypeDTO.ASK, currencyPair, amount, limitPrice);
+        return createLimitOrder(strategy, OrderTypeDTO.ASK, currencyPair, amount, limitPrice);
+    }
+
+    @Override
+    public final List<OrderCreationResultDTO> createOrders(final List<OrderCreationRequestDTO> orders) {
+        // XChange has no generic batch order endpoint, orders are sent concurrently.
+        getLogger().debug("TradeService - Sending {} orders", orders.size());
+        final List<CompletableFuture<OrderCreationResultDTO>> results = orders.stream()
+                .map(order -> CompletableFuture.supplyAsync(() -> createOrder(order), batchExecutor))
+                .collect(Collectors.toList());
+        return results.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an order from an order creation request.
+     *
+     * @param order order creation request
+     * @return order creation result
+     */
+    private OrderCreationResultDTO createOrder(final OrderCreationRequestDTO order) {
+        if (order.isLimitOrder()) {
+            return createLimitOrder(order.getStrategy(), order.getType(), order.getCurrencyPair(), order.getAmount(), order.getLimitPrice());
+        }
+        return createMarketOrder(order.getStrategy(), order.getType(), order.getCurrencyPair(), order.getAmount());
+    }
+
+    @Override
+    public final Map<String, Boolean> cancelOrders(final Set<String> orderIds) {
+        // XChange has no generic batch cancel endpoint, cancel requests are sent concurrently.
+        getLogger().debug("TradeService - Canceling {} orders", orderIds.size());
+        final Map<String, CompletableFuture<Boolean>> requests = new LinkedHashMap<>();
+        orderIds.forEach(orderId -> requests.put(orderId, CompletableFuture.supplyAsync(() -> cancelOrder(orderId), batchExecutor)));
+        final Map<String, Boolean> results = new LinkedHashMap<>();
+        requests.forEach((orderId, request) -> results.put(orderId, request.join()));
+        return results;
     }
 
     @Override
@@ -143,6 +272,7 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
         getLogger().debug("TradeService - Canceling order {}", orderId);
         if (orderId != null) {
             try {
+                consumeRateBudget(RequestPriority.ORDER);
                 getLogger().debug("TradeService - Successfully canceled order {}", orderId);
                 return tradeService.cancelOrder(orderId);
             } catch (Exception e) {
@@ -164,19 +294,30 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
     public final Set<OrderDTO> getOrders() {
         getLogger().debug("TradeService - Getting open orders from exchange");
         try {
-            // Consume a token from the token bucket.
-            // If a token is not available this method will block until the refill adds one to the bucket.
-            getBucket().asScheduler().consume(1);
-
             // We add the local orders to orders received.
             Set<OrderDTO> results = new LinkedHashSet<>(localOrders.values());
-            tradeService.getOpenOrders()
-                    .getOpenOrders()
-                    .forEach(order -> {
-                        results.add(mapper.mapToOrderDTO(order));
-                        // If we received the order from server, we remove local order.
-                        localOrders.remove(order.getId());
-                    });
+            final long now = System.currentTimeMillis();
+            if (isOpenOrdersRequestRequired(now)) {
+                // Consume a token from the token bucket.
+                // If a token is not available this method will block until the refill adds one to the bucket.
+                getBucket().asScheduler().consume(1);
+                consumeRateBudget(RequestPriority.POLLING);
+                tradeService.getOpenOrders()
+                        .getOpenOrders()
+                        .forEach(order -> {
+                            results.add(mapper.mapToOrderDTO(order));
+                            // If we received the order from server, we remove local order.
+                            localOrders.remove(order.getId());
+                        });
+                lastOpenOrdersRequestTime = now;
+            }
+
+            // Orders created by Cassandre are requested by id (so we also see them once filled or canceled).
+            getTrackedOrders().forEach(order -> {
+                results.removeIf(o -> o.getId().equals(order.getId()));
+                results.add(order);
+                localOrders.remove(order.getId());
+            });
             getLogger().debug("TradeService - {} order(s) found", results.size());
             return results;
         } catch (IOException e) {
@@ -188,6 +329,89 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
         }
     }
 
+    /**
+     * Returns true if all open orders must be requested : when orders can't be requested by id, when no order is
+     * tracked, and every full sweep interval to see the orders that were not created by Cassandre.
+     *
+     * @param now current time
+     * @return true if open orders must be requested
+     */
+    private boolean isOpenOrdersRequestRequired(final long now) {
+        return !orderTrackingAvailable
+                || orderTracker.getTrackedOrdersCount() == 0
+                || now - lastOpenOrdersRequestTime >= fullSweepInterval;
+    }
+
+    /**
+     * Tracks orders again (orders that were not in a final status when the bot stopped).
+     *
+     * @param orderIds order ids
+     */
+    public final void trackOrders(final Collection<String> orderIds) {
+        final long now = System.currentTimeMillis();
+        orderIds.forEach(orderId -> orderTracker.track(orderId, now));
+        getLogger().info("TradeService - {} order(s) tracked again", orderIds.size());
+    }
+
+    /**
+     * Requests, by batches, the tracked orders that must be updated.
+     *
+     * @return orders received
+     * @throws IOException          exchange error
+     * @throws InterruptedException if interrupted while waiting for the rate limit
+     */
+    private List<OrderDTO> getTrackedOrders() throws IOException, InterruptedException {
+        final List<OrderDTO> results = new ArrayList<>();
+        if (!orderTrackingAvailable) {
+            return results;
+        }
+        for (List<String> orderIds : orderTracker.getOrderIdsToRequest(System.currentTimeMillis())) {
+            getBucket().asScheduler().consume(1);
+            consumeRateBudget(RequestPriority.POLLING);
+            final Map<String, OrderDTO> ordersReceived = new LinkedHashMap<>();
+            try {
+                final Collection<Order> orders = tradeService.getOrder(orderIds.toArray(new String[0]));
+                if (orders != null) {
+                    orders.stream()
+                            .filter(Objects::nonNull)
+                            .map(this::mapToOrderDTO)
+                            .forEach(order -> ordersReceived.put(order.getId(), order));
+                }
+            } catch (UnsupportedOperationException e) {
+                // Also thrown by XChange as NotAvailableFromExchangeException or NotYetImplementedForExchangeException.
+                getLogger().info("TradeService - The exchange doesn't allow requesting orders by id, only open orders are requested");
+                orderTrackingAvailable = false;
+                return results;
+            }
+            final long now = System.currentTimeMillis();
+            orderIds.forEach(orderId -> orderTracker.requested(orderId, ordersReceived.get(orderId), now));
+            results.addAll(ordersReceived.values());
+        }
+        return results;
+    }
+
+    /**
+     * Maps a XChange order.
+     *
+     * @param order XChange order
+     * @return order
+     */
+    private OrderDTO mapToOrderDTO(final Order order) {
+        if (order instanceof LimitOrder) {
+            return mapper.mapToOrderDTO((LimitOrder) order);
+        }
+        return mapper.mapToOrderDTO(order);
+    }
+
+    /**
+     * Getter orderTracker.
+     *
+     * @return orderTracker
+     */
+    public final OrderTracker getOrderTracker() {
+        return orderTracker;
+    }
+
     @Override
     public final Set<TradeDTO> getTrades() {
         getLogger().debug("TradeService - Getting trades from exchange");
@@ -195,18 +419,25 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
             // Consume a token from the token bucket.
             // If a token is not available this method will block until the refill adds one to the bucket.
             getBucket().asScheduler().consume(1);
+            consumeRateBudget(RequestPriority.POLLING);
 
-            // Query 1 week of trades.
+            // Query 1 week of trades or, in incremental mode, only trades after the cursor.
             TradeHistoryParamsAll params = new TradeHistoryParamsAll();
-            Date startDate = DateUtils.addWeeks(new Date(), -1);
             Date endDate = new Date();
-            params.setStartTime(startDate);
+            final boolean fullSweep = isFullSweepRequired(endDate.getTime());
+            if (fullSweep) {
+                params.setStartTime(DateUtils.addWeeks(endDate, -1));
+            } else {
+                params.setStartTime(getCursor());
+            }
             params.setEndTime(endDate);
-            final Set<TradeDTO> results = tradeService.getTradeHistory(params)
-                    .getUserTrades()
-                    .stream()
+            final List<UserTrade> trades = tradeService.getTradeHistory(params).getUserTrades();
+            final Set<TradeDTO> results = trades.stream()
                     .map(mapper::mapToTradeDTO)
                     .collect(Collectors.toSet());
+
+            // The cursor moves only once the request succeeded.
+            updateCursor(trades, endDate.getTime(), fullSweep);
             getLogger().debug("TradeService - {} trade(s) found", results.size());
             return results;
         } catch (IOException e) {
@@ -218,4 +449,69 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
         }
     }
 
+    /**
+     * Returns true if the complete trade history must be requested.
+     *
+     * @param now current time
+     * @return true if a full sweep is required
+     */
+    private boolean isFullSweepRequired(final long now) {
+        return !incremental || lastRequestTime == 0 || now - lastFullSweepTime >= fullSweepInterval;
+    }
+
+    /**
+     * Returns the start time of the next incremental request : the newest trade received or, if no recent trade was
+     * received, the time of the last request - minus an overlap in both cases, trades being timestamped by the exchange.
+     *
+     * @return start time
+     */
+    private Date getCursor() {
+        long cursor = lastRequestTime;
+        if (lastTradeTimestamp != null && lastTradeTimestamp.getTime() > cursor) {
+            cursor = lastTradeTimestamp.getTime();
+        }
+        return new Date(cursor - CURSOR_OVERLAP);
+    }
+
+    /**
+     * Updates the cursor after a successful request.
+     *
+     * @param trades      trades received
+     * @param requestTime request time
+     * @param fullSweep   true if it was a full sweep
+     */
+    private void updateCursor(final List<UserTrade> trades, final long requestTime, final boolean fullSweep) {
+        trades.stream()
+                .map(UserTrade::getTimestamp)
+                .filter(Objects::nonNull)
+                .max(Date::compareTo)
+                .filter(newest -> lastTradeTimestamp == null || newest.after(lastTradeTimestamp))
+                .ifPresent(newest -> lastTradeTimestamp = newest);
+        lastRequestTime = requestTime;
+        if (fullSweep) {
+            lastFullSweepTime = requestTime;
+            fullSweepCount.incrementAndGet();
+        } else {
+            incrementalRequestCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of complete trade history requests.
+     *
+     * @return full sweep count
+     */
+    public final long getFullSweepCount() {
+        return fullSweepCount.get();
+    }
+
+    /**
+     * Returns the number of incremental trade history requests.
+     *
+     * @return incremental request count
+     */
+    public final long getIncrementalRequestCount() {
+        return incrementalRequestCount.get();
+    }
+
 }
@@ -3,6 +3,7 @@ package tech.cassandre.trading.bot.service.xchange;
 import tech.cassandre.trading.bot.dto.user.UserDTO;
 import tech.cassandre.trading.bot.service.UserService;
 import tech.cassandre.trading.bot.util.base.BaseService;
+import tech.cassandre.trading.bot.util.scheduler.RequestPriority;
 
 import java.io.IOException;
 import java.util.Optional;
@@ -32,6 +33,7 @@ public class UserServiceXChangeImplementation extends BaseService implements Use
             // Consume a token from the token bucket.
             // If a token is not available this method will block until the refill adds one to the bucket.
             getBucket().asScheduler().consume(1);
+            consumeRateBudget(RequestPriority.POLLING);
 
             getLogger().debug("UserService - Retrieving account information");
             final UserDTO user = mapper.mapToUserDTO(xChangeAccountService.getAccountInfo());
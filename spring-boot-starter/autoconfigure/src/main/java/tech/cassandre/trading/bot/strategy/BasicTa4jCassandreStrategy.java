@@ -1,6 +1,5 @@
 package tech.cassandre.trading.bot.strategy;
 
-import com.google.common.base.MoreObjects;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseBarSeriesBuilder;
 import org.ta4j.core.Strategy;
@@ -8,11 +7,13 @@ import org.ta4j.core.num.DoubleNum;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.user.AccountDTO;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ta4j.BarAggregator;
 
 import java.math.BigDecimal;
 import java.time.Duration;
-import java.time.ZonedDateTime;
-import java.util.LinkedHashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -22,12 +23,15 @@ import java.util.Set;
 @SuppressWarnings("unused")
 public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrategy {
 
-    /** Timestamp of the last added bar. */
-    private ZonedDateTime lastAddedBarTimestamp;
-
     /** Series. */
     private final BarSeries series;
 
+    /** Aggregator building the bars of the series from tickers. */
+    private final BarAggregator aggregator;
+
+    /** Aggregators building the bars of the additional timeframes. */
+    private final Map<Duration, BarAggregator> additionalAggregators = new LinkedHashMap<>();
+
     /** Strategy. */
     private final Strategy strategy;
 
@@ -36,11 +40,12 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
      */
     public BasicTa4jCassandreStrategy() {
         // Build the series.
-        series = new BaseBarSeriesBuilder()
-                .withNumTypeOf(DoubleNum.class)
-                .withName(getRequestedCurrencyPair().toString())
-                .build();
-        series.setMaximumBarCount(getMaximumBarCount());
+        series = buildSeries(getRequestedCurrencyPair().toString());
+        aggregator = new BarAggregator(series, getDelayBetweenTwoBars());
+        getAdditionalTimeframes().stream()
+                .filter(timeframe -> !timeframe.equals(getDelayBetweenTwoBars()))
+                .forEach(timeframe -> additionalAggregators.put(timeframe,
+                        new BarAggregator(buildSeries(getRequestedCurrencyPair() + " " + timeframe), timeframe)));
 
         // Build the strategy.
         strategy = getStrategy();
@@ -62,12 +67,23 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
     public abstract int getMaximumBarCount();
 
     /**
-     * Implements this method to set the time between two bars are added.
+     * Implements this method to set the timeframe of the bars (duration of a bar).
+     * Every ticker received is added to the bar of its time bucket, and the strategy is asked what to do each time a
+     * bar is over.
      *
      * @return temporal amount
      */
     public abstract Duration getDelayBetweenTwoBars();
 
+    /**
+     * Override this method to build series with other timeframes from the same tickers (retrieved with getSeries()).
+     *
+     * @return timeframes
+     */
+    public Set<Duration> getAdditionalTimeframes() {
+        return Collections.emptySet();
+    }
+
     /**
      * Implements this method to tell the bot which strategy to apply.
      *
@@ -84,28 +100,20 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
     @Override
     public final void tickerUpdate(final TickerDTO ticker) {
         getLastTickers().put(ticker.getCurrencyPair(), ticker);
-        // If there is no bar or if the duration between the last bar and the ticker is enough.
-        if (lastAddedBarTimestamp == null
-                || ticker.getTimestamp().isEqual(lastAddedBarTimestamp.plus(getDelayBetweenTwoBars()))
-                || ticker.getTimestamp().isAfter(lastAddedBarTimestamp.plus(getDelayBetweenTwoBars()))) {
-
-            // Add the ticker to the series.
-            Number openPrice = MoreObjects.firstNonNull(ticker.getOpen(), 0);
-            Number highPrice = MoreObjects.firstNonNull(ticker.getHigh(), 0);
-            Number lowPrice = MoreObjects.firstNonNull(ticker.getLow(), 0);
-            Number closePrice = MoreObjects.firstNonNull(ticker.getLast(), 0);
-            Number volume = MoreObjects.firstNonNull(ticker.getVolume(), 0);
-            series.addBar(ticker.getTimestamp(), openPrice, highPrice, lowPrice, closePrice, volume);
-            lastAddedBarTimestamp = ticker.getTimestamp();
-
-            // Ask what to do to the strategy.
-            int endIndex = series.getEndIndex();
-            if (strategy.shouldEnter(endIndex)) {
-                // Our strategy should enter.
-                shouldEnter();
-            } else if (strategy.shouldExit(endIndex)) {
-                // Our strategy should exit.
-                shouldExit();
+        if (ticker.getTimestamp() != null && ticker.getLast() != null) {
+            // Additional timeframes are updated first so the strategy sees them up to date.
+            additionalAggregators.values().forEach(a -> a.update(ticker.getTimestamp(), ticker.getLast(), ticker.getVolume()));
+
+            // If the ticker ends a bar, we ask what to do to the strategy.
+            if (aggregator.update(ticker.getTimestamp(), ticker.getLast(), ticker.getVolume())) {
+                int endIndex = series.getEndIndex();
+                if (strategy.shouldEnter(endIndex)) {
+                    // Our strategy should enter.
+                    shouldEnter();
+                } else if (strategy.shouldExit(endIndex)) {
+                    // Our strategy should exit.
+                    shouldExit();
+                }
             }
         }
         onTickerUpdate(ticker);
@@ -118,8 +126,7 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
      * @return true if we there is enough money to buy
      */
     public final boolean canBuy(final BigDecimal amount) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(getAccounts().values()));
-        return tradeAccount.filter(accountDTO -> canBuy(accountDTO, getRequestedCurrencyPair(), amount)).isPresent();
+        return canBuy(getRequestedCurrencyPair(), amount);
     }
 
     /**
@@ -131,8 +138,7 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
      */
     public final boolean canBuy(final BigDecimal amount,
                                 final BigDecimal minimumBalanceAfter) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(getAccounts().values()));
-        return tradeAccount.filter(accountDTO -> canBuy(accountDTO, getRequestedCurrencyPair(), amount, minimumBalanceAfter)).isPresent();
+        return canBuy(getRequestedCurrencyPair(), amount, minimumBalanceAfter);
     }
 
     /**
@@ -170,8 +176,7 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
      */
     public final boolean canSell(final BigDecimal amount,
                                  final BigDecimal minimumBalanceAfter) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(getAccounts().values()));
-        return tradeAccount.filter(accountDTO -> canSell(accountDTO, getRequestedCurrencyPair().getBaseCurrency(), amount, minimumBalanceAfter)).isPresent();
+        return canSell(getRequestedCurrencyPair().getBaseCurrency(), amount, minimumBalanceAfter);
     }
 
     /**
@@ -181,8 +186,7 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
      * @return true if we there is enough money to buy
      */
     public final boolean canSell(final BigDecimal amount) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(getAccounts().values()));
-        return tradeAccount.filter(accountDTO -> canSell(accountDTO, getRequestedCurrencyPair().getBaseCurrency(), amount)).isPresent();
+        return canSell(getRequestedCurrencyPair().getBaseCurrency(), amount);
     }
 
     /**
@@ -230,4 +234,32 @@ public abstract class BasicTa4jCassandreStrategy extends GenericCassandreStrateg
         return series;
     }
 
+    /**
+     * Returns the series of a timeframe.
+     *
+     * @param timeframe timeframe
+     * @return series
+     */
+    public final Optional<BarSeries> getSeries(final Duration timeframe) {
+        if (aggregator.getTimeframe().equals(timeframe)) {
+            return Optional.of(series);
+        }
+        return Optional.ofNullable(additionalAggregators.get(timeframe)).map(BarAggregator::getSeries);
+    }
+
+    /**
+     * Builds an empty series.
+     *
+     * @param name series name
+     * @return series
+     */
+    private BarSeries buildSeries(final String name) {
+        final BarSeries newSeries = new BaseBarSeriesBuilder()
+                .withNumTypeOf(DoubleNum.class)
+                .withName(name)
+                .build();
+        newSeries.setMaximumBarCount(getMaximumBarCount());
+        return newSeries;
+    }
+
 }
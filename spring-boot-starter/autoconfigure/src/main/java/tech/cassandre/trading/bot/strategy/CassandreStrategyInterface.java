@@ -1,5 +1,8 @@
 package tech.cassandre.trading.bot.strategy;
 
+import tech.cassandre.trading.bot.batch.OrderFlux;
+import tech.cassandre.trading.bot.batch.PositionFlux;
+import tech.cassandre.trading.bot.batch.TradeFlux;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.position.PositionDTO;
 import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
@@ -12,6 +15,7 @@ import tech.cassandre.trading.bot.repository.PositionRepository;
 import tech.cassandre.trading.bot.repository.TradeRepository;
 import tech.cassandre.trading.bot.service.PositionService;
 import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.service.intern.AsynchronousTradeService;
 
 import java.util.Optional;
 import java.util.Set;
@@ -51,6 +55,27 @@ public interface CassandreStrategyInterface {
      */
     void setPositionRepository(PositionRepository newPositionRepository);
 
+    /**
+     * Setter orderFlux (used to read orders saved asynchronously).
+     *
+     * @param newOrderFlux order flux
+     */
+    void setOrderFlux(OrderFlux newOrderFlux);
+
+    /**
+     * Setter tradeFlux (used to read trades saved asynchronously).
+     *
+     * @param newTradeFlux trade flux
+     */
+    void setTradeFlux(TradeFlux newTradeFlux);
+
+    /**
+     * Setter positionFlux (used to read positions saved asynchronously).
+     *
+     * @param newPositionFlux position flux
+     */
+    void setPositionFlux(PositionFlux newPositionFlux);
+
     /**
      * Setter for tradeService.
      *
@@ -58,6 +83,13 @@ public interface CassandreStrategyInterface {
      */
     void setTradeService(TradeService newTradeService);
 
+    /**
+     * Setter for asynchronousTradeService.
+     *
+     * @param newAsynchronousTradeService the asynchronousTradeService to set
+     */
+    void setAsynchronousTradeService(AsynchronousTradeService newAsynchronousTradeService);
+
     /**
      * Setter for positionService.
      *
@@ -65,6 +97,14 @@ public interface CassandreStrategyInterface {
      */
     void setPositionService(PositionService newPositionService);
 
+    /**
+     * Setter partitioned - when several strategies run together, each strategy only sees its own orders, trades and
+     * positions.
+     *
+     * @param newPartitioned true if the strategy only sees its own orders, trades and positions
+     */
+    void setPartitioned(boolean newPartitioned);
+
     /**
      * Method called by streams at every account update.
      *
@@ -1,6 +1,11 @@
 package tech.cassandre.trading.bot.strategy;
 
 import org.mapstruct.factory.Mappers;
+import tech.cassandre.trading.bot.batch.OrderFlux;
+import tech.cassandre.trading.bot.batch.PositionFlux;
+import tech.cassandre.trading.bot.batch.TradeFlux;
+import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.domain.Position;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
 import tech.cassandre.trading.bot.dto.position.PositionDTO;
@@ -22,14 +27,20 @@ import tech.cassandre.trading.bot.repository.StrategyRepository;
 import tech.cassandre.trading.bot.repository.TradeRepository;
 import tech.cassandre.trading.bot.service.PositionService;
 import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.service.intern.AsynchronousTradeService;
+import tech.cassandre.trading.bot.util.base.ReadThroughCache;
 import tech.cassandre.trading.bot.util.mapper.CassandreMapper;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static java.math.BigDecimal.ZERO;
@@ -58,12 +69,39 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
     /** Position repository. */
     private PositionRepository positionRepository;
 
+    /** Order flux. */
+    private OrderFlux orderFlux;
+
+    /** Trade flux. */
+    private TradeFlux tradeFlux;
+
+    /** Position flux. */
+    private PositionFlux positionFlux;
+
     /** Trade service. */
     private TradeService tradeService;
 
+    /** Asynchronous trade service. */
+    private AsynchronousTradeService asynchronousTradeService;
+
     /** Position service. */
     private PositionService positionService;
 
+    /** True if the strategy only sees its own orders, trades and positions (several strategies running). */
+    private boolean partitioned = false;
+
+    /** Orders read from database (created on first use). */
+    private volatile ReadThroughCache<String, OrderDTO> ordersCache;
+
+    /** Trades read from database (created on first use). */
+    private volatile ReadThroughCache<String, TradeDTO> tradesCache;
+
+    /** Positions read from database (created on first use). */
+    private volatile ReadThroughCache<Long, PositionDTO> positionsCache;
+
+    /** Trade account and its available balances (replaced at each account update). */
+    private volatile TradeAccountSnapshot tradeAccountSnapshot = TradeAccountSnapshot.EMPTY;
+
     /** The accounts owned by the user. */
     private final Map<String, AccountDTO> accounts = new LinkedHashMap<>();
 
@@ -106,22 +144,48 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
         this.tradeRepository = newTradeRepository;
     }
 
+    @Override
+    public final void setOrderFlux(final OrderFlux newOrderFlux) {
+        this.orderFlux = newOrderFlux;
+    }
+
+    @Override
+    public final void setTradeFlux(final TradeFlux newTradeFlux) {
+        this.tradeFlux = newTradeFlux;
+    }
+
+    @Override
+    public final void setPositionFlux(final PositionFlux newPositionFlux) {
+        this.positionFlux = newPositionFlux;
+    }
+
     @Override
     public final void setTradeService(final TradeService newTradeService) {
         this.tradeService = newTradeService;
     }
 
+    @Override
+    public final void setAsynchronousTradeService(final AsynchronousTradeService newAsynchronousTradeService) {
+        this.asynchronousTradeService = newAsynchronousTradeService;
+    }
+
     @Override
     public final void setPositionService(final PositionService newPositionService) {
         this.positionService = newPositionService;
     }
 
+    @Override
+    public final void setPartitioned(final boolean newPartitioned) {
+        this.partitioned = newPartitioned;
+    }
+
     // =================================================================================================================
     // Internal methods for event management.
 
     @Override
     public void accountUpdate(final AccountDTO account) {
         accounts.put(account.getId(), account);
+        updateTradeAccountSnapshot();
         onAccountUpdate(account);
     }
 
@@ -133,16 +197,22 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
 
     @Override
     public void orderUpdate(final OrderDTO order) {
+        invalidate(ordersCache, order.getId());
         onOrderUpdate(order);
     }
 
     @Override
     public void tradeUpdate(final TradeDTO trade) {
+        invalidate(tradesCache, trade.getId());
+        // The trades of the order changed.
+        invalidate(ordersCache, trade.getOrderId());
         onTradeUpdate(trade);
     }
 
     @Override
     public void positionUpdate(final PositionDTO position) {
+        invalidate(positionsCache, position.getId());
+
         // For every position update.
         onPositionUpdate(position);
 
@@ -168,7 +238,39 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
 
     @Override
     public final Optional<AccountDTO> getTradeAccount() {
-        return getTradeAccount(new LinkedHashSet<>(getAccounts().values()));
+        return Optional.ofNullable(tradeAccountSnapshot.getAccount());
+    }
+
+    /**
+     * Replaces all the accounts (without calling onAccountUpdate) - used to simulate balances in dry mode.
+     *
+     * @param newAccounts accounts
+     */
+    public final void replaceAccounts(final Map<String, AccountDTO> newAccounts) {
+        accounts.clear();
+        accounts.putAll(newAccounts);
+        updateTradeAccountSnapshot();
+    }
+
+    /**
+     * Resolves the trade account and saves its available balances in a new immutable snapshot (replacing the
+     * previous one at once) - called each time accounts change.
+     */
+    private void updateTradeAccountSnapshot() {
+        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(accounts.values()));
+        if (tradeAccount.isPresent()) {
+            final Map<CurrencyDTO, BigDecimal> availableBalances = new HashMap<>();
+            if (tradeAccount.get().getBalances() != null) {
+                tradeAccount.get().getBalances()
+                        .entrySet()
+                        .stream()
+                        .filter(balance -> balance.getValue() != null && balance.getValue().getAvailable() != null)
+                        .forEach(balance -> availableBalances.put(balance.getKey(), balance.getValue().getAvailable()));
+            }
+            tradeAccountSnapshot = new TradeAccountSnapshot(tradeAccount.get(), Collections.unmodifiableMap(availableBalances));
+        } else {
+            tradeAccountSnapshot = TradeAccountSnapshot.EMPTY;
+        }
     }
 
     // =================================================================================================================
@@ -198,15 +300,16 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
     // Related to orders.
 
     /**
-     * Returns list of orders.
+     * Returns list of orders (immutable snapshot, read from database only when orders changed).
      *
      * @return orders
      */
     public final Map<String, OrderDTO> getOrders() {
-        return orderRepository.findByOrderByTimestampAsc()
-                .stream()
-                .map(mapper::mapToOrderDTO)
-                .collect(Collectors.toMap(OrderDTO::getId, orderDTO -> orderDTO));
+        final ReadThroughCache<String, OrderDTO> cache = getOrdersCache();
+        if (cache.isReadRequired()) {
+            flushBackups();
+        }
+        return cache.getValues();
     }
 
     /**
@@ -216,6 +319,7 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
      * @return order
      */
     public final Optional<OrderDTO> getOrderById(final String id) {
+        flushBackups();
         return orderRepository.findById(id).map(mapper::mapToOrderDTO);
     }
 
@@ -223,15 +327,16 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
     // Related to trades.
 
     /**
-     * Returns list of trades.
+     * Returns list of trades (immutable snapshot, read from database only when trades changed).
      *
      * @return trades
      */
     public final Map<String, TradeDTO> getTrades() {
-        return tradeRepository.findByOrderByTimestampAsc()
-                .stream()
-                .map(mapper::mapToTradeDTO)
-                .collect(Collectors.toMap(TradeDTO::getId, tradeDTO -> tradeDTO));
+        final ReadThroughCache<String, TradeDTO> cache = getTradesCache();
+        if (cache.isReadRequired()) {
+            flushBackups();
+        }
+        return cache.getValues();
     }
 
     /**
@@ -241,6 +346,7 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
      * @return trade
      */
     public final Optional<TradeDTO> getTradeById(final String id) {
+        flushBackups();
         return tradeRepository.findById(id).map(mapper::mapToTradeDTO);
     }
 
@@ -248,15 +354,16 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
     // Related to positions.
 
     /**
-     * Returns list of positions.
+     * Returns list of positions (immutable snapshot, read from database only when positions changed).
      *
      * @return positions
      */
     public final Map<Long, PositionDTO> getPositions() {
-        return positionRepository.findByOrderById()
-                .stream()
-                .map(mapper::mapToPositionDTO)
-                .collect(Collectors.toMap(PositionDTO::getId, positionDTO -> positionDTO));
+        final ReadThroughCache<Long, PositionDTO> cache = getPositionsCache();
+        if (cache.isReadRequired()) {
+            flushBackups();
+        }
+        return cache.getValues();
     }
 
     /**
@@ -266,6 +373,7 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
      * @return position
      */
     public final Optional<PositionDTO> getPositionById(final long id) {
+        flushBackups();
         return positionRepository.findById(id).map(mapper::mapToPositionDTO);
     }
 
@@ -278,6 +386,160 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
         return positionService.getGains();
     }
 
+    /**
+     * Returns the maximum number of orders, trades and positions kept in memory by the strategy (0 for no limit).
+     * When reached, the oldest closed ones are not returned anymore by getOrders(), getTrades() and getPositions() -
+     * they can still be retrieved by id.
+     *
+     * @return maximum size
+     */
+    public int getCacheMaximumSize() {
+        return 0;
+    }
+
+    /**
+     * Returns the orders cache (created on first use).
+     *
+     * @return orders cache
+     */
+    private synchronized ReadThroughCache<String, OrderDTO> getOrdersCache() {
+        if (ordersCache == null) {
+            ordersCache = new ReadThroughCache<>(
+                    () -> getOrdersFromDatabase().stream().map(mapper::mapToOrderDTO).collect(Collectors.toList()),
+                    id -> orderRepository.findById(id).filter(this::isOwned).map(mapper::mapToOrderDTO),
+                    OrderDTO::getId,
+                    order -> order.getStatus() != null && order.getStatus().isFinal(),
+                    getCacheMaximumSize());
+        }
+        return ordersCache;
+    }
+
+    /**
+     * Returns the trades cache (created on first use).
+     *
+     * @return trades cache
+     */
+    private synchronized ReadThroughCache<String, TradeDTO> getTradesCache() {
+        if (tradesCache == null) {
+            tradesCache = new ReadThroughCache<>(
+                    this::getTradesFromDatabase,
+                    id -> tradeRepository.findById(id)
+                            .filter(trade -> !partitioned || trade.getOrderId() != null && orderRepository.findById(trade.getOrderId()).filter(this::isOwned).isPresent())
+                            .map(mapper::mapToTradeDTO),
+                    TradeDTO::getId,
+                    trade -> true,
+                    getCacheMaximumSize());
+        }
+        return tradesCache;
+    }
+
+    /**
+     * Returns the positions cache (created on first use).
+     *
+     * @return positions cache
+     */
+    private synchronized ReadThroughCache<Long, PositionDTO> getPositionsCache() {
+        if (positionsCache == null) {
+            positionsCache = new ReadThroughCache<>(
+                    () -> getPositionsFromDatabase().stream().map(mapper::mapToPositionDTO).collect(Collectors.toList()),
+                    id -> positionRepository.findById(id)
+                            .filter(position -> !partitioned || position.getStrategy() != null && strategyDTO.getId().equals(position.getStrategy().getId()))
+                            .map(mapper::mapToPositionDTO),
+                    PositionDTO::getId,
+                    position -> position.getStatus() == PositionStatusDTO.CLOSED,
+                    getCacheMaximumSize());
+        }
+        return positionsCache;
+    }
+
+    /**
+     * Waits until the orders, trades and positions received are saved - with asynchronous backups (write-behind), the
+     * database may not have the last state of an entity yet, and the event values don't have all the data (trades of
+     * an order, strategy) the database has.
+     */
+    private void flushBackups() {
+        if (orderFlux != null) {
+            orderFlux.flushBackups();
+        }
+        if (tradeFlux != null) {
+            tradeFlux.flushBackups();
+        }
+        if (positionFlux != null) {
+            positionFlux.flushBackups();
+        }
+    }
+
+    /**
+     * Invalidates a value in a cache (if the cache exists).
+     *
+     * @param cache cache
+     * @param key   key
+     * @param <K>   key type
+     */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    private <K> void invalidate(final ReadThroughCache<K, ?> cache, final K key) {
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Returns the orders of the strategy from database.
+     *
+     * @return orders
+     */
+    private List<Order> getOrdersFromDatabase() {
+        if (partitioned) {
+            return orderRepository.findByStrategyIdOrderByTimestampAsc(strategyDTO.getId());
+        } else {
+            return orderRepository.findByOrderByTimestampAsc();
+        }
+    }
+
+    /**
+     * Returns the trades of the strategy from database.
+     *
+     * @return trades
+     */
+    private List<TradeDTO> getTradesFromDatabase() {
+        if (partitioned) {
+            // Trades of the orders created by this strategy.
+            final Set<String> orderIds = getOrdersFromDatabase().stream().map(Order::getId).collect(Collectors.toSet());
+            return tradeRepository.findByOrderByTimestampAsc()
+                    .stream()
+                    .filter(trade -> orderIds.contains(trade.getOrderId()))
+                    .map(mapper::mapToTradeDTO)
+                    .collect(Collectors.toList());
+        }
+        return tradeRepository.findByOrderByTimestampAsc()
+                .stream()
+                .map(mapper::mapToTradeDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the positions of the strategy from database.
+     *
+     * @return positions
+     */
+    private List<Position> getPositionsFromDatabase() {
+        if (partitioned) {
+            return positionRepository.findByStrategyIdOrderById(strategyDTO.getId());
+        } else {
+            return positionRepository.findByOrderById();
+        }
+    }
+
+    /**
+     * Returns true if an order belongs to this strategy (always true if the strategy is not partitioned).
+     *
+     * @param order order
+     * @return true if owned
+     */
+    private boolean isOwned(final Order order) {
+        return !partitioned || order.getStrategy() != null && strategyDTO.getId().equals(order.getStrategy().getId());
+    }
+
     // =================================================================================================================
     // Methods related to creating of orders & positions.
 
@@ -333,6 +595,58 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
         return tradeService.createSellLimitOrder(strategyDTO, currencyPair, amount, limitPrice);
     }
 
+    /**
+     * Creates a buy market order without waiting for the exchange answer.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createBuyMarketOrderAsync(final CurrencyPairDTO currencyPair,
+                                                                               final BigDecimal amount) {
+        return asynchronousTradeService.createBuyMarketOrder(strategyDTO, currencyPair, amount);
+    }
+
+    /**
+     * Creates a sell market order without waiting for the exchange answer.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createSellMarketOrderAsync(final CurrencyPairDTO currencyPair,
+                                                                                final BigDecimal amount) {
+        return asynchronousTradeService.createSellMarketOrder(strategyDTO, currencyPair, amount);
+    }
+
+    /**
+     * Creates a buy limit order without waiting for the exchange answer.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   the highest acceptable price
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createBuyLimitOrderAsync(final CurrencyPairDTO currencyPair,
+                                                                              final BigDecimal amount,
+                                                                              final BigDecimal limitPrice) {
+        return asynchronousTradeService.createBuyLimitOrder(strategyDTO, currencyPair, amount, limitPrice);
+    }
+
+    /**
+     * Creates a sell limit order without waiting for the exchange answer.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   the lowest acceptable price
+     * @return order result (order id or error)
+     */
+    public CompletableFuture<OrderCreationResultDTO> createSellLimitOrderAsync(final CurrencyPairDTO currencyPair,
+                                                                               final BigDecimal amount,
+                                                                               final BigDecimal limitPrice) {
+        return asynchronousTradeService.createSellLimitOrder(strategyDTO, currencyPair, amount, limitPrice);
+    }
+
     /**
      * Creates a position with its associated rules.
      *
@@ -427,8 +741,7 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
      */
     public final boolean canBuy(final CurrencyPairDTO currencyPair,
                                 final BigDecimal amount) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(accounts.values()));
-        return tradeAccount.filter(account -> canBuy(account, currencyPair, amount)).isPresent();
+        return canBuy(currencyPair, amount, ZERO);
     }
 
     /**
@@ -442,8 +755,13 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
     public final boolean canBuy(final CurrencyPairDTO currencyPair,
                                 final BigDecimal amount,
                                 final BigDecimal minimumBalanceAfter) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(accounts.values()));
-        return tradeAccount.filter(account -> canBuy(account, currencyPair, amount, minimumBalanceAfter)).isPresent();
+        // Balance of the trade account and last price, without resolving the trade account again.
+        final BigDecimal available = tradeAccountSnapshot.getAvailable(currencyPair.getQuoteCurrency());
+        final TickerDTO ticker = lastTickers.get(currencyPair);
+        if (available == null || ticker == null) {
+            return false;
+        }
+        return isEnough(available, ticker.getLast().multiply(amount), minimumBalanceAfter);
     }
 
     /**
@@ -505,8 +823,7 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
      */
     public final boolean canSell(final CurrencyDTO currency,
                                  final BigDecimal amount) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(accounts.values()));
-        return tradeAccount.filter(account -> canSell(account, currency, amount)).isPresent();
+        return canSell(currency, amount, ZERO);
     }
 
     /**
@@ -520,8 +837,12 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
     public final boolean canSell(final CurrencyDTO currency,
                                  final BigDecimal amount,
                                  final BigDecimal minimumBalanceAfter) {
-        final Optional<AccountDTO> tradeAccount = getTradeAccount(new LinkedHashSet<>(accounts.values()));
-        return tradeAccount.filter(account -> canSell(account, currency, amount, minimumBalanceAfter)).isPresent();
+        // Balance of the trade account, without resolving the trade account again.
+        final BigDecimal available = tradeAccountSnapshot.getAvailable(currency);
+        if (available == null) {
+            return false;
+        }
+        return isEnough(available, amount, minimumBalanceAfter);
     }
 
     /**
@@ -560,4 +881,65 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
                 || balanceDTO.getAvailable().subtract(amount).subtract(minimumBalanceAfter).compareTo(ZERO) == 0).isPresent();
     }
 
+    /**
+     * Returns true if an available balance covers an amount and leaves at least minimumBalanceAfter.
+     *
+     * @param available           available balance
+     * @param amount              amount
+     * @param minimumBalanceAfter minimum balance that should be left after
+     * @return true if enough
+     */
+    private static boolean isEnough(final BigDecimal available, final BigDecimal amount, final BigDecimal minimumBalanceAfter) {
+        if (minimumBalanceAfter.signum() == 0) {
+            return available.compareTo(amount) >= 0;
+        }
+        return available.compareTo(amount.add(minimumBalanceAfter)) >= 0;
+    }
+
+    /**
+     * Immutable snapshot of the trade account and of its available balances.
+     */
+    private static final class TradeAccountSnapshot {
+
+        /** Snapshot without trade account. */
+        static final TradeAccountSnapshot EMPTY = new TradeAccountSnapshot(null, Collections.emptyMap());
+
+        /** Trade account (null if not found). */
+        private final AccountDTO account;
+
+        /** Available balances by currency. */
+        private final Map<CurrencyDTO, BigDecimal> availableBalances;
+
+        /**
+         * Constructor.
+         *
+         * @param newAccount           trade account
+         * @param newAvailableBalances available balances by currency
+         */
+        TradeAccountSnapshot(final AccountDTO newAccount, final Map<CurrencyDTO, BigDecimal> newAvailableBalances) {
+            this.account = newAccount;
+            this.availableBalances = newAvailableBalances;
+        }
+
+        /**
+         * Getter account.
+         *
+         * @return trade account (null if not found)
+         */
+        AccountDTO getAccount() {
+            return account;
+        }
+
+        /**
+         * Returns the available balance of a currency.
+         *
+         * @param currency currency
+         * @return available balance (null if no balance)
+         */
+        BigDecimal getAvailable(final CurrencyDTO currency) {
+            return availableBalances.get(currency);
+        }
+
+    }
+
 }
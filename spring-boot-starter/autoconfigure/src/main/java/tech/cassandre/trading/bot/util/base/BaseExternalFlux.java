@@ -4,7 +4,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static reactor.core.publisher.FluxSink.OverflowStrategy.LATEST;
 
@@ -21,14 +25,48 @@ public abstract class BaseExternalFlux<T> extends Base {
     /** Flux sink. */
     private FluxSink<T> fluxSink;
 
+    /** Conflating sink (only if the flux is conflated). */
+    private final KeyedConflatingSink<T> conflatingSink;
+
+    /** Write-behind writer (only if backups are asynchronous). */
+    private volatile WriteBehindWriter<T> writeBehindWriter;
+
+    /** Bounded buffer sink (only if the flux is lossless). */
+    private final BoundedBufferSink<T> bufferSink;
+
+    /** Number of values emitted since the flux creation. */
+    private final AtomicLong emittedValuesCount = new AtomicLong();
+
+    /** Number of values emitted directly by getNewValues() during the current update. */
+    private final AtomicInteger emittedDuringUpdateCount = new AtomicInteger();
+
     /**
      * Constructor.
      */
     public BaseExternalFlux() {
-        Flux<T> fluxTemp = Flux.create(newFluxSink -> this.fluxSink = newFluxSink, getOverflowStrategy());
+        bufferSink = null;
+        final Flux<T> fluxTemp;
+        if (isConflated()) {
+            conflatingSink = new KeyedConflatingSink<>(this::getConflationKey);
+            fluxTemp = conflatingSink.getFlux();
+        } else {
+            conflatingSink = null;
+            fluxTemp = Flux.create(newFluxSink -> this.fluxSink = newFluxSink, getOverflowStrategy());
+        }
         flux = fluxTemp.publishOn(Schedulers.elastic());
     }
 
+    /**
+     * Constructor for a lossless flux : values are never dropped, they wait in a bounded buffer.
+     *
+     * @param newBufferSink bounded buffer sink
+     */
+    public BaseExternalFlux(final BoundedBufferSink<T> newBufferSink) {
+        conflatingSink = null;
+        bufferSink = newBufferSink;
+        flux = newBufferSink.getFlux().publishOn(Schedulers.elastic());
+    }
+
     /**
      * Set the default overflow strategy - override to change it.
      *
@@ -39,6 +77,39 @@ public abstract class BaseExternalFlux<T> extends Base {
         return LATEST;
     }
 
+    /**
+     * Override to return true if, under backpressure, only the newest value of each key must be kept (instead of
+     * using the overflow strategy).
+     *
+     * @return true if conflated
+     */
+    @SuppressWarnings("SameReturnValue")
+    protected boolean isConflated() {
+        return false;
+    }
+
+    /**
+     * Returns the conflation key of a value (used only if the flux is conflated).
+     *
+     * @param value value
+     * @return key
+     */
+    protected Object getConflationKey(final T value) {
+        return value;
+    }
+
+    /**
+     * Returns the number of values replaced by a newer value with the same key before reaching subscribers.
+     *
+     * @return conflated updates count
+     */
+    public final long getConflatedUpdatesCount() {
+        if (conflatingSink == null) {
+            return 0;
+        }
+        return conflatingSink.getConflatedCount();
+    }
+
     /**
      * Implements this method to return all the new values. Those values will be sent to the strategy.
      *
@@ -48,10 +119,38 @@ public abstract class BaseExternalFlux<T> extends Base {
 
     /**
      * Method executed when values must be updated (usually called by the Scheduler).
+     *
+     * @return number of new values emitted (including values emitted directly by getNewValues())
      */
-    public final void update() {
+    public final int update() {
+        emittedDuringUpdateCount.set(0);
         final Set<T> newValues = getNewValues();
         newValues.forEach(this::emitValue);
+        return newValues.size() + emittedDuringUpdateCount.get();
+    }
+
+    /**
+     * Returns the highest number of values that were waiting in the buffer (lossless flux only).
+     *
+     * @return high-water mark
+     */
+    public final long getBufferHighWaterMark() {
+        if (bufferSink == null) {
+            return 0;
+        }
+        return bufferSink.getHighWaterMark();
+    }
+
+    /**
+     * Returns the number of values that arrived when the buffer was full (lossless flux only).
+     *
+     * @return overflow count
+     */
+    public final long getBufferOverflowCount() {
+        if (bufferSink == null) {
+            return 0;
+        }
+        return bufferSink.getOverflowCount();
     }
 
     /**
@@ -61,8 +160,47 @@ public abstract class BaseExternalFlux<T> extends Base {
      */
     public void emitValue(final T newValue) {
         getLogger().debug("{} flux emits a new value : {}", this.getClass().getName(), newValue);
-        backupValue(newValue);
-        fluxSink.next(newValue);
+        backup(newValue);
+        sendValue(newValue);
+        emittedValuesCount.incrementAndGet();
+    }
+
+    /**
+     * Emit a new value from getNewValues() without waiting for the end of the update.
+     *
+     * @param newValue new value
+     */
+    protected final void emitValueDuringUpdate(final T newValue) {
+        emitValue(newValue);
+        emittedDuringUpdateCount.incrementAndGet();
+    }
+
+    /**
+     * Sends a value to subscribers.
+     *
+     * @param newValue new value
+     */
+    private void sendValue(final T newValue) {
+        if (conflatingSink != null) {
+            conflatingSink.next(newValue);
+        } else if (bufferSink != null) {
+            bufferSink.next(newValue);
+        } else {
+            fluxSink.next(newValue);
+        }
+    }
+
+    /**
+     * Saves a value, immediately or, if backups are asynchronous, with the write-behind writer.
+     *
+     * @param newValue new value
+     */
+    private void backup(final T newValue) {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.write(newValue);
+        } else {
+            backupValue(newValue);
+        }
     }
 
     /**
@@ -74,6 +212,91 @@ public abstract class BaseExternalFlux<T> extends Base {
 
     }
 
+    /**
+     * Override this method to backup several updates at once (used by the write-behind writer).
+     *
+     * @param newValues new values
+     */
+    protected void backupValues(final List<T> newValues) {
+        newValues.forEach(this::backupValue);
+    }
+
+    /**
+     * Returns the backup key of a value (entity id) - override it to enable write-behind coalescing.
+     *
+     * @param value value
+     * @return key
+     */
+    protected Object getBackupKey(final T value) {
+        return value;
+    }
+
+    /**
+     * Makes backups asynchronous : values are sent to subscribers without waiting for the database and a dedicated
+     * thread saves, by batches, the last state of each entity.
+     *
+     * @param newBatchSize     maximum number of values saved at once
+     * @param newFlushInterval maximum delay before a value is saved (ms)
+     */
+    public final synchronized void enableWriteBehind(final int newBatchSize, final long newFlushInterval) {
+        if (writeBehindWriter == null) {
+            writeBehindWriter = new WriteBehindWriter<>(getClass().getSimpleName(),
+                    this::getBackupKey,
+                    this::backupValues,
+                    newBatchSize,
+                    newFlushInterval);
+        }
+    }
+
+    /**
+     * Returns the last state of an entity not yet saved by the write-behind writer.
+     *
+     * @param key backup key
+     * @return value waiting to be saved
+     */
+    public final Optional<T> getPendingBackup(final Object key) {
+        if (writeBehindWriter == null) {
+            return Optional.empty();
+        }
+        return writeBehindWriter.getPendingValue(key);
+    }
+
+    /**
+     * Waits until all the values waiting in the write-behind writer are saved.
+     */
+    public final void flushBackups() {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.flush();
+        }
+    }
+
+    /**
+     * Returns the write-behind writer (null if backups are synchronous).
+     *
+     * @return write-behind writer
+     */
+    public final WriteBehindWriter<T> getWriteBehindWriter() {
+        return writeBehindWriter;
+    }
+
+    /**
+     * Saves the values waiting in the write-behind writer and stops it (called on shutdown).
+     */
+    public final void close() {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.close();
+        }
+    }
+
+    /**
+     * Returns the number of values emitted since the flux creation.
+     *
+     * @return emitted values count
+     */
+    public final long getEmittedValuesCount() {
+        return emittedValuesCount.get();
+    }
+
     /**
      * Getter for flux.
      *
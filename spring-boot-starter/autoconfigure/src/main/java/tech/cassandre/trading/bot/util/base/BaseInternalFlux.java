@@ -4,6 +4,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.List;
+import java.util.Optional;
+
 import static reactor.core.publisher.FluxSink.OverflowStrategy.LATEST;
 
 /**
@@ -19,11 +22,24 @@ public abstract class BaseInternalFlux<T> extends Base {
     /** Flux sink. */
     private FluxSink<T> fluxSink;
 
+    /** Conflating sink (only if the flux is conflated). */
+    private final KeyedConflatingSink<T> conflatingSink;
+
+    /** Write-behind writer (only if backups are asynchronous). */
+    private volatile WriteBehindWriter<T> writeBehindWriter;
+
     /**
      * Constructor.
      */
     public BaseInternalFlux() {
-        Flux<T> fluxTemp = Flux.create(newFluxSink -> this.fluxSink = newFluxSink, getOverflowStrategy());
+        final Flux<T> fluxTemp;
+        if (isConflated()) {
+            conflatingSink = new KeyedConflatingSink<>(this::getConflationKey);
+            fluxTemp = conflatingSink.getFlux();
+        } else {
+            conflatingSink = null;
+            fluxTemp = Flux.create(newFluxSink -> this.fluxSink = newFluxSink, getOverflowStrategy());
+        }
         flux = fluxTemp.publishOn(Schedulers.elastic());
     }
 
@@ -37,6 +53,39 @@ public abstract class BaseInternalFlux<T> extends Base {
         return LATEST;
     }
 
+    /**
+     * Override to return true if, under backpressure, only the newest value of each key must be kept (instead of
+     * using the overflow strategy).
+     *
+     * @return true if conflated
+     */
+    @SuppressWarnings("SameReturnValue")
+    protected boolean isConflated() {
+        return false;
+    }
+
+    /**
+     * Returns the conflation key of a value (used only if the flux is conflated).
+     *
+     * @param value value
+     * @return key
+     */
+    protected Object getConflationKey(final T value) {
+        return value;
+    }
+
+    /**
+     * Returns the number of values replaced by a newer value with the same key before reaching subscribers.
+     *
+     * @return conflated updates count
+     */
+    public final long getConflatedUpdatesCount() {
+        if (conflatingSink == null) {
+            return 0;
+        }
+        return conflatingSink.getConflatedCount();
+    }
+
     /**
      * Emit a new value.
      *
@@ -45,11 +94,37 @@ public abstract class BaseInternalFlux<T> extends Base {
     public void emitValue(final T newValue) {
         getLogger().debug("{} flux emits a new value : {}", this.getClass().getName(), newValue);
         if (newValue != null) {
-            backupValue(newValue);
+            backup(newValue);
+            sendValue(newValue);
+        }
+    }
+
+    /**
+     * Sends a value to subscribers.
+     *
+     * @param newValue new value
+     */
+    private void sendValue(final T newValue) {
+        if (conflatingSink != null) {
+            conflatingSink.next(newValue);
+        } else {
             fluxSink.next(newValue);
         }
     }
 
+    /**
+     * Saves a value, immediately or, if backups are asynchronous, with the write-behind writer.
+     *
+     * @param newValue new value
+     */
+    private void backup(final T newValue) {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.write(newValue);
+        } else {
+            backupValue(newValue);
+        }
+    }
+
     /**
      * Implements this method to backup each update.
      *
@@ -59,6 +134,82 @@ public abstract class BaseInternalFlux<T> extends Base {
 
     }
 
+    /**
+     * Override this method to backup several updates at once (used by the write-behind writer).
+     *
+     * @param newValues new values
+     */
+    protected void backupValues(final List<T> newValues) {
+        newValues.forEach(this::backupValue);
+    }
+
+    /**
+     * Returns the backup key of a value (entity id) - override it to enable write-behind coalescing.
+     *
+     * @param value value
+     * @return key
+     */
+    protected Object getBackupKey(final T value) {
+        return value;
+    }
+
+    /**
+     * Makes backups asynchronous : values are sent to subscribers without waiting for the database and a dedicated
+     * thread saves, by batches, the last state of each entity.
+     *
+     * @param newBatchSize     maximum number of values saved at once
+     * @param newFlushInterval maximum delay before a value is saved (ms)
+     */
+    public final synchronized void enableWriteBehind(final int newBatchSize, final long newFlushInterval) {
+        if (writeBehindWriter == null) {
+            writeBehindWriter = new WriteBehindWriter<>(getClass().getSimpleName(),
+                    this::getBackupKey,
+                    this::backupValues,
+                    newBatchSize,
+                    newFlushInterval);
+        }
+    }
+
+    /**
+     * Returns the last state of an entity not yet saved by the write-behind writer.
+     *
+     * @param key backup key
+     * @return value waiting to be saved
+     */
+    public final Optional<T> getPendingBackup(final Object key) {
+        if (writeBehindWriter == null) {
+            return Optional.empty();
+        }
+        return writeBehindWriter.getPendingValue(key);
+    }
+
+    /**
+     * Waits until all the values waiting in the write-behind writer are saved.
+     */
+    public final void flushBackups() {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.flush();
+        }
+    }
+
+    /**
+     * Returns the write-behind writer (null if backups are synchronous).
+     *
+     * @return write-behind writer
+     */
+    public final WriteBehindWriter<T> getWriteBehindWriter() {
+        return writeBehindWriter;
+    }
+
+    /**
+     * Saves the values waiting in the write-behind writer and stops it (called on shutdown).
+     */
+    public final void close() {
+        if (writeBehindWriter != null) {
+            writeBehindWriter.close();
+        }
+    }
+
     /**
      * Getter for flux.
      *
@@ -5,6 +5,9 @@ import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Bucket4j;
 import org.knowm.xchange.currency.CurrencyPair;
 import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.scheduler.ActivityMonitor;
+import tech.cassandre.trading.bot.util.scheduler.ExchangeRateBudget;
+import tech.cassandre.trading.bot.util.scheduler.RequestPriority;
 
 import java.time.Duration;
 
@@ -16,6 +19,12 @@ public abstract class BaseService extends Base {
     /** Bucket. */
     private final Bucket bucket;
 
+    /** Exchange rate budget shared by all services (null if not set). */
+    private volatile ExchangeRateBudget rateBudget;
+
+    /** Activity monitor notified when orders are created (null if not set). */
+    private volatile ActivityMonitor activityMonitor;
+
     /**
      * Construct a base service without rate limit.
      */
@@ -43,6 +52,61 @@ public abstract class BaseService extends Base {
         return bucket;
     }
 
+    /**
+     * Setter rateBudget.
+     *
+     * @param newRateBudget the rateBudget to set
+     */
+    public final void setRateBudget(final ExchangeRateBudget newRateBudget) {
+        rateBudget = newRateBudget;
+    }
+
+    /**
+     * Setter activityMonitor.
+     *
+     * @param newActivityMonitor the activityMonitor to set
+     */
+    public final void setActivityMonitor(final ActivityMonitor newActivityMonitor) {
+        activityMonitor = newActivityMonitor;
+    }
+
+    /**
+     * Notifies the activity monitor (if set) that something is now pending (order created, position closing).
+     */
+    protected final void notifyActivity() {
+        final ActivityMonitor monitor = activityMonitor;
+        if (monitor != null) {
+            monitor.wakeUp();
+        }
+    }
+
+    /**
+     * Waits for a token of the exchange rate budget (if set).
+     *
+     * @param priority request priority
+     * @throws InterruptedException if interrupted while waiting
+     */
+    protected final void consumeRateBudget(final RequestPriority priority) throws InterruptedException {
+        final ExchangeRateBudget budget = rateBudget;
+        if (budget != null) {
+            budget.acquire(priority);
+        }
+    }
+
+    /**
+     * Returns the priority of a ticker request (tickers of currency pairs with positions come first).
+     *
+     * @param currencyPair currency pair
+     * @return priority
+     */
+    protected final RequestPriority getTickerPriority(final CurrencyPairDTO currencyPair) {
+        final ExchangeRateBudget budget = rateBudget;
+        if (budget == null) {
+            return RequestPriority.POLLING;
+        }
+        return budget.getTickerPriority(currencyPair);
+    }
+
     /**
      * Returns a XChange currency pair from a currency pair DTO.
      *
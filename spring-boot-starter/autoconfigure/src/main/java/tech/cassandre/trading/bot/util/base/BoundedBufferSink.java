@@ -0,0 +1,309 @@
+package tech.cassandre.trading.bot.util.base;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded buffer sink - no value is ever lost.
+ * Values are sent downstream as long as there is demand. When the subscribers are slower than the producer, values
+ * are kept in a bounded buffer. When the buffer is full, depending on the policy, the producer waits or values are
+ * written to a spill file and read back, in order, when space is available. A value sent by a subscriber, from the
+ * thread that receives or requests values, never waits (it would wait for itself) - it is spilled, even with the block
+ * policy.
+ *
+ * @param <T> value type
+ */
+public final class BoundedBufferSink<T> extends Base {
+
+    /** Default buffer capacity. */
+    public static final int DEFAULT_CAPACITY = 1_000;
+
+    /** Spill file suffix. */
+    private static final String SPILL_FILE_SUFFIX = ".spill";
+
+    /** Buffer name (used in logs and spill file name). */
+    private final String name;
+
+    /** Buffer capacity. */
+    private final int capacity;
+
+    /** Overflow policy. */
+    private final BufferOverflowPolicy overflowPolicy;
+
+    /** Directory where spill files are created. */
+    private final Path spillDirectory;
+
+    /** Buffer. */
+    private final Deque<T> buffer = new ArrayDeque<>();
+
+    /** Spill file (created on first overflow). */
+    private RandomAccessFile spillFile;
+
+    /** Position of the next value to read in the spill file. */
+    private long spillReadPosition;
+
+    /** Position of the next value to write in the spill file. */
+    private long spillWritePosition;
+
+    /** Number of values in the spill file. */
+    private int spilledCount;
+
+    /** Highest number of values waiting (buffer + spill file). */
+    private final AtomicLong highWaterMark = new AtomicLong();
+
+    /** Number of values that arrived when the buffer was full. */
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    /** Flux. */
+    private final Flux<T> flux;
+
+    /** Flux sink. */
+    private FluxSink<T> fluxSink;
+
+    /** Thread currently sending a value downstream (subscribers may send values back from it). */
+    private Thread emittingThread;
+
+    /** Last thread that requested values (the subscriber thread, waiting on it would never end). */
+    private Thread consumerThread;
+
+    /**
+     * Constructor.
+     *
+     * @param newName           buffer name
+     * @param newCapacity       buffer capacity
+     * @param newOverflowPolicy overflow policy
+     * @param newSpillDirectory directory where spill files are created (spill policy)
+     */
+    public BoundedBufferSink(final String newName,
+                             final int newCapacity,
+                             final BufferOverflowPolicy newOverflowPolicy,
+                             final Path newSpillDirectory) {
+        this.name = newName;
+        this.capacity = Math.max(1, newCapacity);
+        this.overflowPolicy = newOverflowPolicy;
+        this.spillDirectory = newSpillDirectory;
+        this.flux = Flux.create(newFluxSink -> {
+            synchronized (this) {
+                this.fluxSink = newFluxSink;
+            }
+            newFluxSink.onRequest(n -> requested());
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    /**
+     * Sends a value (or keeps it until there is demand).
+     *
+     * @param value value
+     */
+    public synchronized void next(final T value) {
+        // Nothing waiting and some demand, we send the value directly.
+        if (spilledCount == 0 && buffer.isEmpty() && fluxSink != null && fluxSink.requestedFromDownstream() > 0) {
+            emit(value);
+            return;
+        }
+
+        // Room in the buffer.
+        if (spilledCount == 0 && buffer.size() < capacity) {
+            buffer.add(value);
+            updateHighWaterMark();
+            drain();
+            return;
+        }
+
+        // Buffer is full.
+        overflowCount.incrementAndGet();
+        final boolean fromConsumerThread = Thread.currentThread() == emittingThread || Thread.currentThread() == consumerThread;
+        if ((overflowPolicy == BufferOverflowPolicy.SPILL || fromConsumerThread) && spill(value)) {
+            updateHighWaterMark();
+            drain();
+            return;
+        }
+        if (fromConsumerThread) {
+            // The thread that drains the buffer can't wait for itself, the buffer goes over its capacity.
+            getLogger().warn("BoundedBufferSink - {} buffer is full and value can't be spilled, capacity exceeded", name);
+            buffer.add(value);
+            updateHighWaterMark();
+            return;
+        }
+        getLogger().debug("BoundedBufferSink - {} buffer is full, waiting for subscribers", name);
+        while (buffer.size() >= capacity || spilledCount > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                getLogger().error("BoundedBufferSink - {} interrupted while waiting, buffer capacity exceeded", name);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        buffer.add(value);
+        updateHighWaterMark();
+        drain();
+    }
+
+    /**
+     * Called when subscribers request values - remembers the subscriber thread and sends waiting values.
+     */
+    private synchronized void requested() {
+        consumerThread = Thread.currentThread();
+        drain();
+    }
+
+    /**
+     * Sends waiting values as long as there is demand.
+     */
+    private synchronized void drain() {
+        if (fluxSink == null) {
+            return;
+        }
+        while (!buffer.isEmpty() && fluxSink.requestedFromDownstream() > 0) {
+            emit(buffer.poll());
+            // Values in the spill file go back to the buffer as soon as there is room.
+            while (spilledCount > 0 && buffer.size() < capacity) {
+                buffer.add(unspill());
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Sends a value downstream, remembering the thread doing it as subscribers may call next() from it.
+     *
+     * @param value value
+     */
+    private void emit(final T value) {
+        final Thread previousEmittingThread = emittingThread;
+        emittingThread = Thread.currentThread();
+        try {
+            fluxSink.next(value);
+        } finally {
+            emittingThread = previousEmittingThread;
+        }
+    }
+
+    /**
+     * Writes a value at the end of the spill file.
+     *
+     * @param value value
+     * @return true if the value was written
+     */
+    private boolean spill(final T value) {
+        try {
+            if (spillFile == null) {
+                final Path path = createSpillFile();
+                path.toFile().deleteOnExit();
+                spillFile = new RandomAccessFile(path.toFile(), "rw");
+                getLogger().info("BoundedBufferSink - {} buffer is full, spilling values to {}", name, path);
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+                output.writeObject(value);
+            }
+            spillFile.seek(spillWritePosition);
+            spillFile.writeInt(bytes.size());
+            spillFile.write(bytes.toByteArray());
+            spillWritePosition = spillFile.getFilePointer();
+            spilledCount++;
+            return true;
+        } catch (IOException e) {
+            getLogger().error("BoundedBufferSink - {} impossible to spill value : {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the spill file (in the temporary directory if no spill directory is set).
+     *
+     * @return spill file path
+     * @throws IOException if the file can't be created
+     */
+    private Path createSpillFile() throws IOException {
+        final String prefix = "cassandre-" + name + "-";
+        if (spillDirectory == null) {
+            return Files.createTempFile(prefix, SPILL_FILE_SUFFIX);
+        }
+        return Files.createTempFile(spillDirectory, prefix, SPILL_FILE_SUFFIX);
+    }
+
+    /**
+     * Reads the first value of the spill file.
+     *
+     * @return value
+     */
+    @SuppressWarnings("unchecked")
+    private T unspill() {
+        try {
+            spillFile.seek(spillReadPosition);
+            final byte[] bytes = new byte[spillFile.readInt()];
+            spillFile.readFully(bytes);
+            spillReadPosition = spillFile.getFilePointer();
+            spilledCount--;
+            if (spilledCount == 0) {
+                // Everything was read, we start again at the beginning of the file.
+                spillFile.setLength(0);
+                spillReadPosition = 0;
+                spillWritePosition = 0;
+            }
+            try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return (T) input.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Impossible to read " + name + " spill file", e);
+        }
+    }
+
+    /**
+     * Updates the high-water mark.
+     */
+    private void updateHighWaterMark() {
+        highWaterMark.accumulateAndGet(buffer.size() + spilledCount, Math::max);
+    }
+
+    /**
+     * Getter flux.
+     *
+     * @return flux
+     */
+    public Flux<T> getFlux() {
+        return flux;
+    }
+
+    /**
+     * Returns the number of values waiting for demand (buffer + spill file).
+     *
+     * @return waiting values count
+     */
+    public synchronized int getPendingCount() {
+        return buffer.size() + spilledCount;
+    }
+
+    /**
+     * Returns the highest number of values that were waiting at the same time.
+     *
+     * @return high-water mark
+     */
+    public long getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    /**
+     * Returns the number of values that arrived when the buffer was full.
+     *
+     * @return overflow count
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+}
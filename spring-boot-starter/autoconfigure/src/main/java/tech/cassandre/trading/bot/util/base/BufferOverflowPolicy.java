@@ -0,0 +1,14 @@
+package tech.cassandre.trading.bot.util.base;
+
+/**
+ * What a {@link BoundedBufferSink} does when its buffer is full.
+ */
+public enum BufferOverflowPolicy {
+
+    /** The producer waits until the subscribers free some space. */
+    BLOCK,
+
+    /** Values are written to a file on disk and read back when the subscribers free some space. */
+    SPILL
+
+}
@@ -0,0 +1,107 @@
+package tech.cassandre.trading.bot.util.base;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Keyed conflating sink.
+ * Values are sent downstream as long as there is demand. When the subscribers are slower than the producer, only the
+ * newest value of each key is kept and keys are drained in the order they first became pending, so a burst on one key
+ * can't make another key lose its update.
+ *
+ * @param <T> value type
+ */
+public final class KeyedConflatingSink<T> {
+
+    /** Function returning the key of a value (currency pair, position id...). */
+    private final Function<T, Object> keyFunction;
+
+    /** Pending values by key (in the order keys became pending). */
+    private final Map<Object, T> pendingValues = new LinkedHashMap<>();
+
+    /** Number of values replaced by a newer value of the same key before being sent. */
+    private final AtomicLong conflatedCount = new AtomicLong();
+
+    /** Flux. */
+    private final Flux<T> flux;
+
+    /** Flux sink. */
+    private FluxSink<T> fluxSink;
+
+    /**
+     * Constructor.
+     *
+     * @param newKeyFunction function returning the key of a value
+     */
+    public KeyedConflatingSink(final Function<T, Object> newKeyFunction) {
+        this.keyFunction = newKeyFunction;
+        this.flux = Flux.create(newFluxSink -> {
+            synchronized (this) {
+                this.fluxSink = newFluxSink;
+            }
+            newFluxSink.onRequest(n -> drain());
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    /**
+     * Sends a value (or keeps it until there is demand).
+     *
+     * @param value value
+     */
+    public synchronized void next(final T value) {
+        if (pendingValues.put(keyFunction.apply(value), value) != null) {
+            conflatedCount.incrementAndGet();
+        }
+        drain();
+    }
+
+    /**
+     * Sends pending values as long as there is demand.
+     */
+    private synchronized void drain() {
+        if (fluxSink == null) {
+            return;
+        }
+        while (!pendingValues.isEmpty() && fluxSink.requestedFromDownstream() > 0) {
+            // The oldest pending key is sent first.
+            final Iterator<T> iterator = pendingValues.values().iterator();
+            final T value = iterator.next();
+            iterator.remove();
+            fluxSink.next(value);
+        }
+    }
+
+    /**
+     * Getter flux.
+     *
+     * @return flux
+     */
+    public Flux<T> getFlux() {
+        return flux;
+    }
+
+    /**
+     * Returns the number of values waiting for demand.
+     *
+     * @return pending values count
+     */
+    public synchronized int getPendingCount() {
+        return pendingValues.size();
+    }
+
+    /**
+     * Returns the number of values replaced by a newer value of the same key before being sent.
+     *
+     * @return conflated values count
+     */
+    public long getConflatedCount() {
+        return conflatedCount.get();
+    }
+
+}
@@ -0,0 +1,165 @@
+package tech.cassandre.trading.bot.util.base;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache.
+ * Values are loaded once from database, then a value is only read again when an event says it changed (it's
+ * invalidated). The values are returned as an immutable snapshot that is only rebuilt after a change.
+ * With a maximum size, the oldest values that won't change anymore (closed history) are evicted.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class ReadThroughCache<K, V> {
+
+    /** Loader of all the values (in the order they should be returned). */
+    private final Supplier<List<V>> loader;
+
+    /** Loader of one value (empty if the value doesn't exist or doesn't belong to this cache). */
+    private final Function<K, Optional<V>> valueLoader;
+
+    /** Function returning the key of a value. */
+    private final Function<V, K> keyFunction;
+
+    /** Returns true if a value won't change anymore and can be evicted. */
+    private final Predicate<V> evictable;
+
+    /** Maximum number of values (0 for no limit). */
+    private final int maximumSize;
+
+    /** Values by key. */
+    private final Map<K, V> values = new LinkedHashMap<>();
+
+    /** Keys of the values to read again. */
+    private final Set<K> invalidatedKeys = new LinkedHashSet<>();
+
+    /** Immutable snapshot of the values (null if it must be rebuilt). */
+    private Map<K, V> snapshot;
+
+    /** True when the cache has been loaded. */
+    private boolean loaded = false;
+
+    /** Number of values read again after an invalidation. */
+    private final AtomicLong readCount = new AtomicLong();
+
+    /** Number of values evicted. */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param newLoader      loader of all the values
+     * @param newValueLoader loader of one value
+     * @param newKeyFunction function returning the key of a value
+     * @param newEvictable   returns true if a value won't change anymore and can be evicted
+     * @param newMaximumSize maximum number of values (0 for no limit)
+     */
+    public ReadThroughCache(final Supplier<List<V>> newLoader,
+                            final Function<K, Optional<V>> newValueLoader,
+                            final Function<V, K> newKeyFunction,
+                            final Predicate<V> newEvictable,
+                            final int newMaximumSize) {
+        this.loader = newLoader;
+        this.valueLoader = newValueLoader;
+        this.keyFunction = newKeyFunction;
+        this.evictable = newEvictable;
+        this.maximumSize = Math.max(0, newMaximumSize);
+    }
+
+    /**
+     * Says a value changed (or was created) - it will be read again the next time values are requested.
+     *
+     * @param key key
+     */
+    public synchronized void invalidate(final K key) {
+        if (loaded && key != null) {
+            invalidatedKeys.add(key);
+        }
+    }
+
+    /**
+     * Returns true if the next call to getValues() reads the database (first call or values invalidated).
+     *
+     * @return true if a read is required
+     */
+    public synchronized boolean isReadRequired() {
+        return !loaded || !invalidatedKeys.isEmpty();
+    }
+
+    /**
+     * Returns all the values.
+     *
+     * @return immutable snapshot of the values
+     */
+    public synchronized Map<K, V> getValues() {
+        if (!loaded) {
+            loader.get().forEach(value -> values.put(keyFunction.apply(value), value));
+            loaded = true;
+            evict();
+        }
+        if (!invalidatedKeys.isEmpty()) {
+            invalidatedKeys.forEach(key -> {
+                final Optional<V> value = valueLoader.apply(key);
+                if (value.isPresent()) {
+                    values.put(key, value.get());
+                } else {
+                    values.remove(key);
+                }
+                readCount.incrementAndGet();
+            });
+            invalidatedKeys.clear();
+            evict();
+        }
+        if (snapshot == null) {
+            snapshot = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of values read again after an invalidation.
+     *
+     * @return read count
+     */
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * Returns the number of values evicted.
+     *
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Evicts the oldest values that won't change anymore if there are too many values - the snapshot is rebuilt.
+     */
+    private void evict() {
+        snapshot = null;
+        if (maximumSize > 0 && values.size() > maximumSize) {
+            final Iterator<V> iterator = values.values().iterator();
+            while (values.size() > maximumSize && iterator.hasNext()) {
+                if (evictable.test(iterator.next())) {
+                    iterator.remove();
+                    evictionCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+}
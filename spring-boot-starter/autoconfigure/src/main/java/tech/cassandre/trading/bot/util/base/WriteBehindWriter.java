@@ -0,0 +1,294 @@
+package tech.cassandre.trading.bot.util.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Write-behind writer.
+ * Values are saved asynchronously by a dedicated thread. While a value waits to be saved, a newer value with the same
+ * key replaces it (only the last state of an entity is written) and values are written by batches.
+ *
+ * @param <T> value type
+ */
+public final class WriteBehindWriter<T> extends Base {
+
+    /** Default maximum number of values written at once. */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    /** Default maximum delay before a value is written (ms). */
+    public static final long DEFAULT_FLUSH_INTERVAL = 100;
+
+    /** Maximum time to wait for the last values to be written on close (ms). */
+    private static final long CLOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    /** Writer name (used in logs and thread name). */
+    private final String name;
+
+    /** Function returning the key of a value (entity id). */
+    private final Function<T, Object> keyFunction;
+
+    /** Batch writer. */
+    private final Consumer<List<T>> batchWriter;
+
+    /** Maximum number of values written at once. */
+    private final int batchSize;
+
+    /** Maximum delay before a value is written (ms). */
+    private final long flushInterval;
+
+    /** Values waiting to be written by key (in the order keys became pending). */
+    private final Map<Object, T> pendingValues = new LinkedHashMap<>();
+
+    /** Values being written by key. */
+    private final Map<Object, T> writingValues = new LinkedHashMap<>();
+
+    /** Writer thread. */
+    private final Thread writerThread;
+
+    /** False once the writer is closed. */
+    private boolean running = true;
+
+    /** Number of threads waiting in flush() (values are then written without waiting for the flush interval). */
+    private int flushRequests = 0;
+
+    /** Number of values replaced by a newer value before being written. */
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /** Number of values written. */
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    /** Number of batches written. */
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /** Number of batch writes that failed. */
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param newName          writer name
+     * @param newKeyFunction   function returning the key of a value
+     * @param newBatchWriter   batch writer
+     * @param newBatchSize     maximum number of values written at once
+     * @param newFlushInterval maximum delay before a value is written (ms)
+     */
+    public WriteBehindWriter(final String newName,
+                             final Function<T, Object> newKeyFunction,
+                             final Consumer<List<T>> newBatchWriter,
+                             final int newBatchSize,
+                             final long newFlushInterval) {
+        this.name = newName;
+        this.keyFunction = newKeyFunction;
+        this.batchWriter = newBatchWriter;
+        this.batchSize = Math.max(1, newBatchSize);
+        this.flushInterval = Math.max(1, newFlushInterval);
+        this.writerThread = new Thread(this::writeValues, "cassandre-" + newName + "-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Adds a value to write.
+     *
+     * @param value value
+     */
+    public synchronized void write(final T value) {
+        if (!running) {
+            // Writer closed, the value is written immediately.
+            batchWriter.accept(Collections.singletonList(value));
+            return;
+        }
+        if (pendingValues.put(keyFunction.apply(value), value) != null) {
+            // A newer value replaced a pending one, the writer has nothing new to do.
+            coalescedCount.incrementAndGet();
+            return;
+        }
+        // Wakes up the writer on the first value (to start the flush interval) or when a batch is full.
+        if (pendingValues.size() == 1 || pendingValues.size() >= batchSize) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns the last value not yet written for a key.
+     *
+     * @param key key
+     * @return value
+     */
+    public synchronized Optional<T> getPendingValue(final Object key) {
+        final T pendingValue = pendingValues.get(key);
+        if (pendingValue != null) {
+            return Optional.of(pendingValue);
+        }
+        return Optional.ofNullable(writingValues.get(key));
+    }
+
+    /**
+     * Waits until all the values received are written.
+     */
+    public synchronized void flush() {
+        flushRequests++;
+        notifyAll();
+        try {
+            while ((!pendingValues.isEmpty() || !writingValues.isEmpty()) && writerThread.isAlive()) {
+                wait(flushInterval);
+            }
+        } catch (InterruptedException e) {
+            getLogger().error("WriteBehindWriter - {} interrupted while flushing", name);
+            Thread.currentThread().interrupt();
+        } finally {
+            flushRequests--;
+        }
+    }
+
+    /**
+     * Writes the waiting values and stops the writer thread.
+     */
+    public void close() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        try {
+            writerThread.join(CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            getLogger().error("WriteBehindWriter - {} interrupted while closing", name);
+            Thread.currentThread().interrupt();
+        }
+        if (getPendingCount() > 0) {
+            getLogger().error("WriteBehindWriter - {} closed with {} value(s) not written", name, getPendingCount());
+        }
+    }
+
+    /**
+     * Writer thread loop.
+     */
+    private void writeValues() {
+        List<T> batch = takeBatch();
+        while (!batch.isEmpty()) {
+            try {
+                batchWriter.accept(batch);
+                writtenCount.addAndGet(batch.size());
+                batchCount.incrementAndGet();
+                batchWritten(true);
+            } catch (RuntimeException e) {
+                failureCount.incrementAndGet();
+                getLogger().error("WriteBehindWriter - {} impossible to write {} value(s) : {}", name, batch.size(), e.getMessage());
+                batchWritten(false);
+            }
+            batch = takeBatch();
+        }
+        getLogger().debug("WriteBehindWriter - {} stopped", name);
+    }
+
+    /**
+     * Waits for values to write and returns the next batch (empty when the writer is closed and nothing is waiting).
+     *
+     * @return batch
+     */
+    private synchronized List<T> takeBatch() {
+        try {
+            while (running && pendingValues.isEmpty()) {
+                wait();
+            }
+            // Values received during the flush interval are written together (wait() may return before the deadline).
+            final long deadline = System.currentTimeMillis() + flushInterval;
+            long remaining = flushInterval;
+            while (running && flushRequests == 0 && pendingValues.size() < batchSize && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            getLogger().error("WriteBehindWriter - {} interrupted, writing waiting values", name);
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        final List<T> batch = new ArrayList<>();
+        final Iterator<Map.Entry<Object, T>> iterator = pendingValues.entrySet().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            final Map.Entry<Object, T> entry = iterator.next();
+            writingValues.put(entry.getKey(), entry.getValue());
+            batch.add(entry.getValue());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    /**
+     * Called once a batch has been written (or failed).
+     *
+     * @param successful true if the batch was written
+     */
+    private synchronized void batchWritten(final boolean successful) {
+        if (!successful && running) {
+            // Values are written again with the next batch, unless a newer value arrived.
+            writingValues.forEach(pendingValues::putIfAbsent);
+        }
+        writingValues.clear();
+        notifyAll();
+        if (!successful && running) {
+            // We wait before trying again.
+            try {
+                wait(flushInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values waiting to be written.
+     *
+     * @return pending count
+     */
+    public synchronized int getPendingCount() {
+        return pendingValues.size() + writingValues.size();
+    }
+
+    /**
+     * Returns the number of values replaced by a newer value before being written.
+     *
+     * @return coalesced count
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of values written.
+     *
+     * @return written count
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * Returns the number of batches written.
+     *
+     * @return batch count
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Returns the number of batch writes that failed.
+     *
+     * @return failure count
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+}
@@ -125,6 +125,14 @@ public interface CassandreMapper {
      */
     OrderDTO mapToOrderDTO(LimitOrder source);
 
+    /**
+     * Map Order to OrderDTO (orders requested by id can be of any type).
+     *
+     * @param source Order
+     * @return OrderDTO
+     */
+    OrderDTO mapToOrderDTO(Order source);
+
     /**
      * Map UserTrade to TradeDTO.
      *
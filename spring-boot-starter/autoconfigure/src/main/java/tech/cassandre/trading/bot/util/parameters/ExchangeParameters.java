@@ -5,6 +5,7 @@ import org.springframework.validation.annotation.Validated;
 import tech.cassandre.trading.bot.util.validator.Rate;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
@@ -149,6 +150,12 @@ public class ExchangeParameters {
         /** Rate for order parameter. */
         public static final String PARAMETER_EXCHANGE_RATE_TRADE = "cassandre.trading.bot.exchange.rates.trade";
 
+        /** Shared rate parameter. */
+        public static final String PARAMETER_EXCHANGE_RATE_SHARED = "cassandre.trading.bot.exchange.rates.shared";
+
+        /** Burst parameter. */
+        public static final String PARAMETER_EXCHANGE_RATE_BURST = "cassandre.trading.bot.exchange.rates.burst";
+
         /** Delay between calls to account API. */
         @NotNull(message = "Delay between calls to account API is mandatory")
         @Rate(message = "Invalid account rate - Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)")
@@ -164,6 +171,13 @@ public class ExchangeParameters {
         @Rate(message = "Invalid trade rate - Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)")
         private String trade;
 
+        /** Delay between two calls to the exchange, all APIs included (optional - no shared limit if not set). */
+        private String shared;
+
+        /** Number of calls that can be made at once after a quiet period (shared rate). */
+        @Min(value = 1, message = "Burst must be at least 1")
+        private int burst = 1;
+
         /**
          * Getter for account.
          *
@@ -218,12 +232,50 @@ public class ExchangeParameters {
             trade = newOrder;
         }
 
+        /**
+         * Getter for shared.
+         *
+         * @return shared
+         */
+        public String getShared() {
+            return shared;
+        }
+
+        /**
+         * Setter for shared.
+         *
+         * @param newShared the shared to set
+         */
+        public void setShared(final String newShared) {
+            shared = newShared;
+        }
+
+        /**
+         * Getter for burst.
+         *
+         * @return burst
+         */
+        public int getBurst() {
+            return burst;
+        }
+
+        /**
+         * Setter for burst.
+         *
+         * @param newBurst the burst to set
+         */
+        public void setBurst(final int newBurst) {
+            burst = newBurst;
+        }
+
         @Override
         public final String toString() {
             return "Rate{"
                     + " account=" + getAccount()
                     + ", ticker=" + getTicker()
                     + ", order=" + getTrade()
+                    + ", shared=" + getShared()
+                    + ", burst=" + getBurst()
                     + '}';
         }
 
@@ -0,0 +1,580 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+import tech.cassandre.trading.bot.batch.TickerFetchMode;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.service.xchange.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.util.base.BoundedBufferSink;
+import tech.cassandre.trading.bot.util.base.BufferOverflowPolicy;
+import tech.cassandre.trading.bot.util.base.WriteBehindWriter;
+import tech.cassandre.trading.bot.util.scheduler.EventLane;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Flux parameters from application.properties.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.flux")
+public class FluxParameters {
+
+    /** Ticker flux configuration. */
+    @Valid
+    private Ticker ticker = new Ticker();
+
+    /** Order flux buffer configuration. */
+    @Valid
+    private Buffer order = new Buffer();
+
+    /** Trade flux buffer configuration. */
+    @Valid
+    private Buffer trade = new Buffer();
+
+    /** Trade history configuration. */
+    @Valid
+    private TradeHistory tradeHistory = new TradeHistory();
+
+    /** Backup configuration. */
+    @Valid
+    private Backup backup = new Backup();
+
+    /** Event lanes configuration. */
+    @Valid
+    private Lanes lanes = new Lanes();
+
+    /** Ticker flux configuration. */
+    @Validated
+    @ConfigurationProperties(prefix = "cassandre.trading.bot.flux.ticker")
+    public static class Ticker {
+
+        /** Fetch mode parameter. */
+        public static final String PARAMETER_FLUX_TICKER_FETCH_MODE = "cassandre.trading.bot.flux.ticker.fetch-mode";
+
+        /** Concurrency parameter. */
+        public static final String PARAMETER_FLUX_TICKER_CONCURRENCY = "cassandre.trading.bot.flux.ticker.concurrency";
+
+        /** Gap threshold parameter. */
+        public static final String PARAMETER_FLUX_TICKER_GAP_THRESHOLD = "cassandre.trading.bot.flux.ticker.gap-threshold";
+
+        /** Default concurrency. */
+        private static final int DEFAULT_CONCURRENCY = 4;
+
+        /** Fetch mode. */
+        @NotNull(message = "Ticker fetch mode must be set")
+        private TickerFetchMode fetchMode = TickerFetchMode.BULK;
+
+        /** Maximum number of tickers requested at the same time (concurrent mode). */
+        @Min(value = 1, message = "Ticker concurrency must be at least 1")
+        private int concurrency = DEFAULT_CONCURRENCY;
+
+        /** Maximum time without ticker for a currency pair before falling back to REST calls (streaming mode - ms). */
+        @Min(value = 1, message = "Ticker gap threshold must be at least 1 ms")
+        private long gapThreshold = TickerFlux.DEFAULT_GAP_THRESHOLD;
+
+        /**
+         * Getter fetchMode.
+         *
+         * @return fetchMode
+         */
+        public TickerFetchMode getFetchMode() {
+            return fetchMode;
+        }
+
+        /**
+         * Setter fetchMode.
+         *
+         * @param newFetchMode the fetchMode to set
+         */
+        public void setFetchMode(final TickerFetchMode newFetchMode) {
+            fetchMode = newFetchMode;
+        }
+
+        /**
+         * Getter concurrency.
+         *
+         * @return concurrency
+         */
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        /**
+         * Setter concurrency.
+         *
+         * @param newConcurrency the concurrency to set
+         */
+        public void setConcurrency(final int newConcurrency) {
+            concurrency = newConcurrency;
+        }
+
+        /**
+         * Getter gapThreshold.
+         *
+         * @return gapThreshold
+         */
+        public long getGapThreshold() {
+            return gapThreshold;
+        }
+
+        /**
+         * Setter gapThreshold.
+         *
+         * @param newGapThreshold the gapThreshold to set
+         */
+        public void setGapThreshold(final long newGapThreshold) {
+            gapThreshold = newGapThreshold;
+        }
+
+        @Override
+        public final String toString() {
+            return "Ticker{"
+                    + " fetchMode=" + fetchMode
+                    + ", concurrency=" + concurrency
+                    + ", gapThreshold=" + gapThreshold
+                    + '}';
+        }
+
+    }
+
+    /** Buffer configuration of a lossless flux (order and trade). */
+    @Validated
+    public static class Buffer {
+
+        /** Order buffer capacity parameter. */
+        public static final String PARAMETER_FLUX_ORDER_CAPACITY = "cassandre.trading.bot.flux.order.capacity";
+
+        /** Order overflow policy parameter. */
+        public static final String PARAMETER_FLUX_ORDER_OVERFLOW_POLICY = "cassandre.trading.bot.flux.order.overflow-policy";
+
+        /** Order spill directory parameter. */
+        public static final String PARAMETER_FLUX_ORDER_SPILL_DIRECTORY = "cassandre.trading.bot.flux.order.spill-directory";
+
+        /** Trade buffer capacity parameter. */
+        public static final String PARAMETER_FLUX_TRADE_CAPACITY = "cassandre.trading.bot.flux.trade.capacity";
+
+        /** Trade overflow policy parameter. */
+        public static final String PARAMETER_FLUX_TRADE_OVERFLOW_POLICY = "cassandre.trading.bot.flux.trade.overflow-policy";
+
+        /** Trade spill directory parameter. */
+        public static final String PARAMETER_FLUX_TRADE_SPILL_DIRECTORY = "cassandre.trading.bot.flux.trade.spill-directory";
+
+        /** Maximum number of values waiting in memory for subscribers. */
+        @Min(value = 1, message = "Buffer capacity must be at least 1")
+        private int capacity = BoundedBufferSink.DEFAULT_CAPACITY;
+
+        /** What to do when the buffer is full. */
+        @NotNull(message = "Buffer overflow policy must be set")
+        private BufferOverflowPolicy overflowPolicy = BufferOverflowPolicy.BLOCK;
+
+        /** Directory where values are spilled (spill policy). */
+        @NotNull(message = "Buffer spill directory must be set")
+        private String spillDirectory = System.getProperty("java.io.tmpdir");
+
+        /**
+         * Getter capacity.
+         *
+         * @return capacity
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Setter capacity.
+         *
+         * @param newCapacity the capacity to set
+         */
+        public void setCapacity(final int newCapacity) {
+            capacity = newCapacity;
+        }
+
+        /**
+         * Getter overflowPolicy.
+         *
+         * @return overflowPolicy
+         */
+        public BufferOverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        /**
+         * Setter overflowPolicy.
+         *
+         * @param newOverflowPolicy the overflowPolicy to set
+         */
+        public void setOverflowPolicy(final BufferOverflowPolicy newOverflowPolicy) {
+            overflowPolicy = newOverflowPolicy;
+        }
+
+        /**
+         * Getter spillDirectory.
+         *
+         * @return spillDirectory
+         */
+        public String getSpillDirectory() {
+            return spillDirectory;
+        }
+
+        /**
+         * Setter spillDirectory.
+         *
+         * @param newSpillDirectory the spillDirectory to set
+         */
+        public void setSpillDirectory(final String newSpillDirectory) {
+            spillDirectory = newSpillDirectory;
+        }
+
+        @Override
+        public final String toString() {
+            return "Buffer{"
+                    + " capacity=" + capacity
+                    + ", overflowPolicy=" + overflowPolicy
+                    + ", spillDirectory='" + spillDirectory + '\''
+                    + '}';
+        }
+
+    }
+
+    /** Trade history configuration. */
+    @Validated
+    @ConfigurationProperties(prefix = "cassandre.trading.bot.flux.trade-history")
+    public static class TradeHistory {
+
+        /** Incremental parameter. */
+        public static final String PARAMETER_FLUX_TRADE_HISTORY_INCREMENTAL = "cassandre.trading.bot.flux.trade-history.incremental";
+
+        /** Full sweep interval parameter. */
+        public static final String PARAMETER_FLUX_TRADE_HISTORY_FULL_SWEEP_INTERVAL = "cassandre.trading.bot.flux.trade-history.full-sweep-interval";
+
+        /** Set it to true to only request trades after the last trade received. */
+        private boolean incremental = false;
+
+        /** Delay between two requests of the complete trade history (incremental mode - ms). */
+        @Min(value = 1, message = "Trade history full sweep interval must be at least 1 ms")
+        private long fullSweepInterval = TradeServiceXChangeImplementation.DEFAULT_FULL_SWEEP_INTERVAL;
+
+        /**
+         * Getter incremental.
+         *
+         * @return incremental
+         */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        /**
+         * Setter incremental.
+         *
+         * @param newIncremental the incremental to set
+         */
+        public void setIncremental(final boolean newIncremental) {
+            incremental = newIncremental;
+        }
+
+        /**
+         * Getter fullSweepInterval.
+         *
+         * @return fullSweepInterval
+         */
+        public long getFullSweepInterval() {
+            return fullSweepInterval;
+        }
+
+        /**
+         * Setter fullSweepInterval.
+         *
+         * @param newFullSweepInterval the fullSweepInterval to set
+         */
+        public void setFullSweepInterval(final long newFullSweepInterval) {
+            fullSweepInterval = newFullSweepInterval;
+        }
+
+        @Override
+        public final String toString() {
+            return "TradeHistory{"
+                    + " incremental=" + incremental
+                    + ", fullSweepInterval=" + fullSweepInterval
+                    + '}';
+        }
+
+    }
+
+    /** Backup configuration (orders, trades and positions). */
+    @Validated
+    @ConfigurationProperties(prefix = "cassandre.trading.bot.flux.backup")
+    public static class Backup {
+
+        /** Write-behind parameter. */
+        public static final String PARAMETER_FLUX_BACKUP_WRITE_BEHIND = "cassandre.trading.bot.flux.backup.write-behind";
+
+        /** Batch size parameter. */
+        public static final String PARAMETER_FLUX_BACKUP_BATCH_SIZE = "cassandre.trading.bot.flux.backup.batch-size";
+
+        /** Flush interval parameter. */
+        public static final String PARAMETER_FLUX_BACKUP_FLUSH_INTERVAL = "cassandre.trading.bot.flux.backup.flush-interval";
+
+        /** Set it to true to save orders, trades and positions asynchronously. */
+        private boolean writeBehind = false;
+
+        /** Maximum number of values saved at once (write-behind mode). */
+        @Min(value = 1, message = "Backup batch size must be at least 1")
+        private int batchSize = WriteBehindWriter.DEFAULT_BATCH_SIZE;
+
+        /** Maximum delay before a value is saved (write-behind mode - ms). */
+        @Min(value = 1, message = "Backup flush interval must be at least 1 ms")
+        private long flushInterval = WriteBehindWriter.DEFAULT_FLUSH_INTERVAL;
+
+        /**
+         * Getter writeBehind.
+         *
+         * @return writeBehind
+         */
+        public boolean isWriteBehind() {
+            return writeBehind;
+        }
+
+        /**
+         * Setter writeBehind.
+         *
+         * @param newWriteBehind the writeBehind to set
+         */
+        public void setWriteBehind(final boolean newWriteBehind) {
+            writeBehind = newWriteBehind;
+        }
+
+        /**
+         * Getter batchSize.
+         *
+         * @return batchSize
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * Setter batchSize.
+         *
+         * @param newBatchSize the batchSize to set
+         */
+        public void setBatchSize(final int newBatchSize) {
+            batchSize = newBatchSize;
+        }
+
+        /**
+         * Getter flushInterval.
+         *
+         * @return flushInterval
+         */
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        /**
+         * Setter flushInterval.
+         *
+         * @param newFlushInterval the flushInterval to set
+         */
+        public void setFlushInterval(final long newFlushInterval) {
+            flushInterval = newFlushInterval;
+        }
+
+        @Override
+        public final String toString() {
+            return "Backup{"
+                    + " writeBehind=" + writeBehind
+                    + ", batchSize=" + batchSize
+                    + ", flushInterval=" + flushInterval
+                    + '}';
+        }
+
+    }
+
+    /** Event lanes configuration (events waiting to be sent to the strategies and to the position service). */
+    @Validated
+    @ConfigurationProperties(prefix = "cassandre.trading.bot.flux.lanes")
+    public static class Lanes {
+
+        /** Strategy lane capacity parameter. */
+        public static final String PARAMETER_FLUX_LANES_STRATEGY_CAPACITY = "cassandre.trading.bot.flux.lanes.strategy-capacity";
+
+        /** Position lane capacity parameter. */
+        public static final String PARAMETER_FLUX_LANES_POSITION_CAPACITY = "cassandre.trading.bot.flux.lanes.position-capacity";
+
+        /** Maximum number of events waiting in a strategy lane. */
+        @Min(value = 1, message = "Strategy lane capacity must be at least 1")
+        private int strategyCapacity = EventLane.DEFAULT_CAPACITY;
+
+        /** Maximum number of events waiting in the position service lane. */
+        @Min(value = 1, message = "Position lane capacity must be at least 1")
+        private int positionCapacity = EventLane.DEFAULT_CAPACITY;
+
+        /**
+         * Getter strategyCapacity.
+         *
+         * @return strategyCapacity
+         */
+        public int getStrategyCapacity() {
+            return strategyCapacity;
+        }
+
+        /**
+         * Setter strategyCapacity.
+         *
+         * @param newStrategyCapacity the strategyCapacity to set
+         */
+        public void setStrategyCapacity(final int newStrategyCapacity) {
+            strategyCapacity = newStrategyCapacity;
+        }
+
+        /**
+         * Getter positionCapacity.
+         *
+         * @return positionCapacity
+         */
+        public int getPositionCapacity() {
+            return positionCapacity;
+        }
+
+        /**
+         * Setter positionCapacity.
+         *
+         * @param newPositionCapacity the positionCapacity to set
+         */
+        public void setPositionCapacity(final int newPositionCapacity) {
+            positionCapacity = newPositionCapacity;
+        }
+
+        @Override
+        public final String toString() {
+            return "Lanes{"
+                    + " strategyCapacity=" + strategyCapacity
+                    + ", positionCapacity=" + positionCapacity
+                    + '}';
+        }
+
+    }
+
+    /**
+     * Getter ticker.
+     *
+     * @return ticker
+     */
+    public Ticker getTicker() {
+        return ticker;
+    }
+
+    /**
+     * Setter ticker.
+     *
+     * @param newTicker the ticker to set
+     */
+    public void setTicker(final Ticker newTicker) {
+        ticker = newTicker;
+    }
+
+    /**
+     * Getter order.
+     *
+     * @return order
+     */
+    public Buffer getOrder() {
+        return order;
+    }
+
+    /**
+     * Setter order.
+     *
+     * @param newOrder the order to set
+     */
+    public void setOrder(final Buffer newOrder) {
+        order = newOrder;
+    }
+
+    /**
+     * Getter trade.
+     *
+     * @return trade
+     */
+    public Buffer getTrade() {
+        return trade;
+    }
+
+    /**
+     * Setter trade.
+     *
+     * @param newTrade the trade to set
+     */
+    public void setTrade(final Buffer newTrade) {
+        trade = newTrade;
+    }
+
+    /**
+     * Getter tradeHistory.
+     *
+     * @return tradeHistory
+     */
+    public TradeHistory getTradeHistory() {
+        return tradeHistory;
+    }
+
+    /**
+     * Setter tradeHistory.
+     *
+     * @param newTradeHistory the tradeHistory to set
+     */
+    public void setTradeHistory(final TradeHistory newTradeHistory) {
+        tradeHistory = newTradeHistory;
+    }
+
+    /**
+     * Getter backup.
+     *
+     * @return backup
+     */
+    public Backup getBackup() {
+        return backup;
+    }
+
+    /**
+     * Setter backup.
+     *
+     * @param newBackup the backup to set
+     */
+    public void setBackup(final Backup newBackup) {
+        backup = newBackup;
+    }
+
+    /**
+     * Getter lanes.
+     *
+     * @return lanes
+     */
+    public Lanes getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Setter lanes.
+     *
+     * @param newLanes the lanes to set
+     */
+    public void setLanes(final Lanes newLanes) {
+        lanes = newLanes;
+    }
+
+    @Override
+    public final String toString() {
+        return "FluxParameters{"
+                + " ticker=" + ticker
+                + ", order=" + order
+                + ", trade=" + trade
+                + ", tradeHistory=" + tradeHistory
+                + ", backup=" + backup
+                + ", lanes=" + lanes
+                + '}';
+    }
+
+}
@@ -0,0 +1,135 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Schedule parameters from application.properties.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.schedule")
+public class ScheduleParameters {
+
+    /** Minimum delay parameter. */
+    public static final String PARAMETER_SCHEDULE_MINIMUM_DELAY = "cassandre.trading.bot.schedule.minimum-delay";
+
+    /** Maximum delay parameter. */
+    public static final String PARAMETER_SCHEDULE_MAXIMUM_DELAY = "cassandre.trading.bot.schedule.maximum-delay";
+
+    /** Idle delay parameter. */
+    public static final String PARAMETER_SCHEDULE_IDLE_DELAY = "cassandre.trading.bot.schedule.idle-delay";
+
+    /** Thread name prefix parameter. */
+    public static final String PARAMETER_SCHEDULE_THREAD_NAME_PREFIX = "cassandre.trading.bot.schedule.thread-name-prefix";
+
+    /** Default minimum delay (ms). */
+    private static final long DEFAULT_MINIMUM_DELAY = 1;
+
+    /** Default maximum delay (ms). */
+    private static final long DEFAULT_MAXIMUM_DELAY = 1_000;
+
+    /** Default thread name prefix. */
+    private static final String DEFAULT_THREAD_NAME_PREFIX = "cassandre-";
+
+    /** Minimum delay between two calls of a flux (ms) - used when the flux is busy. */
+    @Min(value = 1, message = "Minimum delay must be at least 1 ms")
+    private long minimumDelay = DEFAULT_MINIMUM_DELAY;
+
+    /** Maximum delay between two calls of a flux (ms) - reached when the flux has nothing new. */
+    @Min(value = 1, message = "Maximum delay must be at least 1 ms")
+    private long maximumDelay = DEFAULT_MAXIMUM_DELAY;
+
+    /** Delay between two calls of the order and trade fluxes when no order or position is pending (ms) - 0 to disable. */
+    @Min(value = 0, message = "Idle delay can't be negative")
+    private long idleDelay;
+
+    /** Prefix of the lane thread names (followed by the flux name). */
+    @NotNull(message = "Thread name prefix must be set")
+    private String threadNamePrefix = DEFAULT_THREAD_NAME_PREFIX;
+
+    /**
+     * Getter minimumDelay.
+     *
+     * @return minimumDelay
+     */
+    public long getMinimumDelay() {
+        return minimumDelay;
+    }
+
+    /**
+     * Setter minimumDelay.
+     *
+     * @param newMinimumDelay the minimumDelay to set
+     */
+    public void setMinimumDelay(final long newMinimumDelay) {
+        minimumDelay = newMinimumDelay;
+    }
+
+    /**
+     * Getter maximumDelay.
+     *
+     * @return maximumDelay
+     */
+    public long getMaximumDelay() {
+        return maximumDelay;
+    }
+
+    /**
+     * Setter maximumDelay.
+     *
+     * @param newMaximumDelay the maximumDelay to set
+     */
+    public void setMaximumDelay(final long newMaximumDelay) {
+        maximumDelay = newMaximumDelay;
+    }
+
+    /**
+     * Getter idleDelay.
+     *
+     * @return idleDelay
+     */
+    public long getIdleDelay() {
+        return idleDelay;
+    }
+
+    /**
+     * Setter idleDelay.
+     *
+     * @param newIdleDelay the idleDelay to set
+     */
+    public void setIdleDelay(final long newIdleDelay) {
+        idleDelay = newIdleDelay;
+    }
+
+    /**
+     * Getter threadNamePrefix.
+     *
+     * @return threadNamePrefix
+     */
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    /**
+     * Setter threadNamePrefix.
+     *
+     * @param newThreadNamePrefix the threadNamePrefix to set
+     */
+    public void setThreadNamePrefix(final String newThreadNamePrefix) {
+        threadNamePrefix = newThreadNamePrefix;
+    }
+
+    @Override
+    public final String toString() {
+        return "ScheduleParameters{"
+                + " minimumDelay=" + minimumDelay
+                + ", maximumDelay=" + maximumDelay
+                + ", idleDelay=" + idleDelay
+                + ", threadNamePrefix='" + threadNamePrefix + '\''
+                + '}';
+    }
+
+}
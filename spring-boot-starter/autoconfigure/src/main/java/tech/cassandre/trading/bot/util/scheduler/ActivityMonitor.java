@@ -0,0 +1,126 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
+
+/**
+ * Activity monitor - knows if something is pending (open orders, positions opening or closing).
+ * When nothing is pending, the order and trade fluxes can be called less often. Listeners are notified as soon as an
+ * order is created so they can call the fluxes immediately.
+ */
+public final class ActivityMonitor extends Base {
+
+    /** Default period after a wake-up during which the bot is considered active (ms). */
+    public static final long DEFAULT_QUIET_PERIOD = 10_000;
+
+    /** After a wake-up, the bot is considered active during this period even if nothing is pending yet (ms). */
+    private final long quietPeriod;
+
+    /** Ids of the open orders. */
+    private final Set<String> openOrders = ConcurrentHashMap.newKeySet();
+
+    /** Ids of the positions opening or closing. */
+    private final Set<Long> pendingPositions = ConcurrentHashMap.newKeySet();
+
+    /** Listeners notified on wake-up. */
+    private final List<Runnable> wakeUpListeners = new CopyOnWriteArrayList<>();
+
+    /** Time of the last wake-up (ms). */
+    private volatile long lastWakeUpTime;
+
+    /**
+     * Constructor.
+     *
+     * @param newQuietPeriod period after a wake-up during which the bot is considered active (ms)
+     */
+    public ActivityMonitor(final long newQuietPeriod) {
+        this.quietPeriod = Math.max(0, newQuietPeriod);
+        this.lastWakeUpTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Adds a listener notified on wake-up.
+     *
+     * @param listener listener
+     */
+    public void addWakeUpListener(final Runnable listener) {
+        wakeUpListeners.add(listener);
+    }
+
+    /**
+     * Called when an order is created (or a position is closing) - listeners are notified immediately.
+     */
+    public void wakeUp() {
+        final boolean wasIdle = isIdle();
+        lastWakeUpTime = System.currentTimeMillis();
+        if (wasIdle) {
+            getLogger().debug("ActivityMonitor - Waking up");
+        }
+        wakeUpListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Updates the open orders.
+     *
+     * @param order order
+     */
+    public void orderUpdate(final OrderDTO order) {
+        if (order.getStatus() != null && order.getStatus().isOpen()) {
+            openOrders.add(order.getId());
+        } else {
+            openOrders.remove(order.getId());
+        }
+    }
+
+    /**
+     * Updates the positions opening or closing.
+     *
+     * @param position position
+     */
+    public void positionUpdate(final PositionDTO position) {
+        if (position.getStatus() == OPENING || position.getStatus() == CLOSING) {
+            pendingPositions.add(position.getId());
+        } else {
+            pendingPositions.remove(position.getId());
+        }
+    }
+
+    /**
+     * Returns true if nothing is pending.
+     *
+     * @return true if idle
+     */
+    public boolean isIdle() {
+        return openOrders.isEmpty()
+                && pendingPositions.isEmpty()
+                && System.currentTimeMillis() - lastWakeUpTime > quietPeriod;
+    }
+
+    /**
+     * Returns the number of open orders.
+     *
+     * @return open orders count
+     */
+    public int getOpenOrdersCount() {
+        return openOrders.size();
+    }
+
+    /**
+     * Returns the number of positions opening or closing.
+     *
+     * @return pending positions count
+     */
+    public int getPendingPositionsCount() {
+        return pendingPositions.size();
+    }
+
+}
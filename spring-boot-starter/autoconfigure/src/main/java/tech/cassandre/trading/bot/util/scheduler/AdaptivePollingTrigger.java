@@ -0,0 +1,97 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.util.Date;
+
+/**
+ * Adaptive polling trigger.
+ * The delay between two executions goes back to the minimum delay as soon as new values are found and doubles
+ * (up to the maximum delay) each time a call returns nothing new.
+ */
+public final class AdaptivePollingTrigger implements Trigger {
+
+    /** Backoff factor applied when nothing new was found. */
+    private static final long BACKOFF_FACTOR = 2;
+
+    /** Minimum delay between two executions (ms). */
+    private final long minimumDelay;
+
+    /** Maximum delay between two executions (ms). */
+    private final long maximumDelay;
+
+    /** Current delay between two executions (ms). */
+    private volatile long currentDelay;
+
+    /**
+     * Constructor.
+     *
+     * @param newMinimumDelay minimum delay (ms)
+     * @param newMaximumDelay maximum delay (ms)
+     */
+    public AdaptivePollingTrigger(final long newMinimumDelay, final long newMaximumDelay) {
+        this.minimumDelay = Math.max(1, newMinimumDelay);
+        this.maximumDelay = Math.max(this.minimumDelay, newMaximumDelay);
+        this.currentDelay = this.minimumDelay;
+    }
+
+    /**
+     * Records the result of an execution to compute the next delay.
+     *
+     * @param newValuesCount number of new values found by the execution
+     */
+    public void recordResult(final int newValuesCount) {
+        if (newValuesCount > 0) {
+            // Something changed, we poll again as fast as allowed.
+            currentDelay = minimumDelay;
+        } else {
+            // Nothing changed, we back off.
+            currentDelay = Math.min(maximumDelay, currentDelay * BACKOFF_FACTOR);
+        }
+    }
+
+    /**
+     * Goes back to the minimum delay.
+     */
+    public void reset() {
+        currentDelay = minimumDelay;
+    }
+
+    @Override
+    public Date nextExecutionTime(final TriggerContext triggerContext) {
+        final Date lastCompletion = triggerContext.lastCompletionTime();
+        if (lastCompletion == null) {
+            return new Date(System.currentTimeMillis() + minimumDelay);
+        }
+        return new Date(lastCompletion.getTime() + currentDelay);
+    }
+
+    /**
+     * Getter minimumDelay.
+     *
+     * @return minimumDelay
+     */
+    public long getMinimumDelay() {
+        return minimumDelay;
+    }
+
+    /**
+     * Getter maximumDelay.
+     *
+     * @return maximumDelay
+     */
+    public long getMaximumDelay() {
+        return maximumDelay;
+    }
+
+    /**
+     * Getter currentDelay.
+     *
+     * @return currentDelay
+     */
+    public long getCurrentDelay() {
+        return currentDelay;
+    }
+
+}
@@ -0,0 +1,391 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event lane.
+ * A lane runs the events of one subscriber (a strategy, the position service...) one after the other, in the order
+ * they were received, on threads of its executor. Each subscriber having its own lane, a slow subscriber can't delay
+ * the others, and the events of a subscriber never run concurrently.
+ * A lane holds a limited number of events. When it's full, an event that can be dropped (a ticker for example) replaces
+ * the oldest pending event with the same key (or the oldest event that can be dropped), and an event that can't be
+ * dropped (an order, a trade...) waits for some space.
+ * The lag of the lane (time between the reception of an event and its run) is measured.
+ */
+public final class EventLane extends Base implements Executor {
+
+    /** Default maximum number of pending events. */
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    /** Maximum number of events run before giving the thread back to the other lanes. */
+    private static final int MAXIMUM_EVENTS_PER_RUN = 64;
+
+    /** Lane name. */
+    private final String name;
+
+    /** Executor running the lane. */
+    private final Executor executor;
+
+    /** Maximum number of pending events. */
+    private final int capacity;
+
+    /** Pending events. */
+    private final Deque<PendingEvent> events = new ArrayDeque<>();
+
+    /** Lock protecting the pending events. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signaled when some space is freed. */
+    private final Condition notFull = lock.newCondition();
+
+    /** True when the lane is scheduled or running on the executor (protected by lock). */
+    private boolean scheduled = false;
+
+    /** Thread running the lane events (null if not running). */
+    private volatile Thread runningThread;
+
+    /** Number of events run. */
+    private final AtomicLong executedCount = new AtomicLong();
+
+    /** Number of events that failed. */
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /** Number of events dropped because the lane was full. */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /** Lag of the last event run (ms). */
+    private volatile long lastLag;
+
+    /** Maximum lag observed (ms). */
+    private final AtomicLong maximumLag = new AtomicLong();
+
+    /** Sum of all lags (ms). */
+    private final AtomicLong totalLag = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param newName     lane name
+     * @param newExecutor executor running the lane
+     * @param newCapacity maximum number of pending events
+     */
+    public EventLane(final String newName, final Executor newExecutor, final int newCapacity) {
+        this.name = newName;
+        this.executor = newExecutor;
+        this.capacity = Math.max(1, newCapacity);
+    }
+
+    /**
+     * Adds an event that can't be dropped - waits for some space if the lane is full (except if the event is sent by
+     * the lane itself, as it would wait for itself).
+     *
+     * @param event event
+     */
+    @Override
+    public void execute(final Runnable event) {
+        lock.lock();
+        try {
+            while (events.size() >= capacity && Thread.currentThread() != runningThread) {
+                notFull.await();
+            }
+            events.add(new PendingEvent(event, null, false));
+            schedule();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            getLogger().error("EventLane - Interrupted while waiting for lane {}", name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an event that can be dropped - if the lane is full, it replaces the oldest pending event with the same key
+     * (or the oldest event that can be dropped). If no pending event can be dropped, this event is dropped.
+     *
+     * @param key   key of the event (currency pair of a ticker for example)
+     * @param event event
+     */
+    public void execute(final Object key, final Runnable event) {
+        lock.lock();
+        try {
+            if (events.size() >= capacity && !removeDroppableEvent(key)) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            events.add(new PendingEvent(event, key, true));
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the lane name.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of events waiting to be run.
+     *
+     * @return pending events count
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return events.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of events run.
+     *
+     * @return executed events count
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * Returns the number of events that failed.
+     *
+     * @return failure count
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Returns the number of events dropped because the lane was full.
+     *
+     * @return dropped events count
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Returns the lag of the last event run (time between its reception and its run).
+     *
+     * @return last lag (ms)
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    /**
+     * Returns the maximum lag observed.
+     *
+     * @return maximum lag (ms)
+     */
+    public long getMaximumLag() {
+        return maximumLag.get();
+    }
+
+    /**
+     * Returns the average lag.
+     *
+     * @return average lag (ms)
+     */
+    public long getAverageLag() {
+        final long count = executedCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        return totalLag.get() / count;
+    }
+
+    /**
+     * Removes the oldest pending event with the key (or the oldest event that can be dropped) - called with lock.
+     *
+     * @param key key
+     * @return true if an event was removed
+     */
+    private boolean removeDroppableEvent(final Object key) {
+        PendingEvent oldestDroppableEvent = null;
+        final Iterator<PendingEvent> iterator = events.iterator();
+        while (iterator.hasNext()) {
+            final PendingEvent pendingEvent = iterator.next();
+            if (pendingEvent.isDroppable() && Objects.equals(pendingEvent.getKey(), key)) {
+                iterator.remove();
+                droppedCount.incrementAndGet();
+                return true;
+            }
+            if (pendingEvent.isDroppable() && oldestDroppableEvent == null) {
+                oldestDroppableEvent = pendingEvent;
+            }
+        }
+        if (oldestDroppableEvent != null) {
+            events.remove(oldestDroppableEvent);
+            droppedCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Schedules the lane on the executor if events are waiting and if it's not already scheduled - called with lock.
+     */
+    private void schedule() {
+        if (!events.isEmpty() && !scheduled) {
+            scheduled = true;
+            try {
+                executor.execute(this::runEvents);
+            } catch (RejectedExecutionException e) {
+                // Executor stopped.
+                scheduled = false;
+                getLogger().debug("EventLane - Lane {} rejected : {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the waiting events then schedules the lane again if some are left.
+     */
+    private void runEvents() {
+        runningThread = Thread.currentThread();
+        int count = 0;
+        PendingEvent event = nextEvent();
+        while (event != null) {
+            run(event);
+            count++;
+            if (count < MAXIMUM_EVENTS_PER_RUN) {
+                event = nextEvent();
+            } else {
+                event = null;
+            }
+        }
+        runningThread = null;
+        lock.lock();
+        try {
+            scheduled = false;
+            // Events left or added while the lane was finishing.
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the next pending event.
+     *
+     * @return event (null if none)
+     */
+    private PendingEvent nextEvent() {
+        lock.lock();
+        try {
+            final PendingEvent event = events.poll();
+            if (event != null) {
+                notFull.signal();
+            }
+            return event;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an event - an error is logged and doesn't stop the lane.
+     *
+     * @param event event
+     */
+    private void run(final PendingEvent event) {
+        final long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - event.getReceptionTime());
+        lastLag = lag;
+        maximumLag.accumulateAndGet(lag, Math::max);
+        totalLag.addAndGet(lag);
+        try {
+            event.getEvent().run();
+        } catch (RuntimeException e) {
+            failureCount.incrementAndGet();
+            getLogger().error("EventLane - Error in lane {} : {}", name, e.getMessage(), e);
+        } finally {
+            executedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Event waiting in the lane.
+     */
+    private static final class PendingEvent {
+
+        /** Event. */
+        private final Runnable event;
+
+        /** Event key (null if the event can't be dropped). */
+        private final Object key;
+
+        /** True if the event can be dropped when the lane is full. */
+        private final boolean droppable;
+
+        /** Time the event was received (ns). */
+        private final long receptionTime = System.nanoTime();
+
+        /**
+         * Constructor.
+         *
+         * @param newEvent     event
+         * @param newKey       event key
+         * @param newDroppable true if the event can be dropped
+         */
+        PendingEvent(final Runnable newEvent, final Object newKey, final boolean newDroppable) {
+            this.event = newEvent;
+            this.key = newKey;
+            this.droppable = newDroppable;
+        }
+
+        /**
+         * Getter event.
+         *
+         * @return event
+         */
+        Runnable getEvent() {
+            return event;
+        }
+
+        /**
+         * Getter key.
+         *
+         * @return key
+         */
+        Object getKey() {
+            return key;
+        }
+
+        /**
+         * Getter droppable.
+         *
+         * @return droppable
+         */
+        boolean isDroppable() {
+            return droppable;
+        }
+
+        /**
+         * Getter receptionTime.
+         *
+         * @return reception time (ns)
+         */
+        long getReceptionTime() {
+            return receptionTime;
+        }
+
+    }
+
+}
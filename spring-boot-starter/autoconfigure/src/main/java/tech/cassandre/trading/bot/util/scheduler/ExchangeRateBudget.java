@@ -0,0 +1,236 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING_FAILURE;
+
+/**
+ * Exchange rate budget - one token bucket shared by all the services calling the exchange (exchanges enforce one
+ * limit per API key).
+ * When no token is available, requests wait and are served by priority : orders first, then tickers of currency
+ * pairs with positions, then polling.
+ */
+public final class ExchangeRateBudget extends Base {
+
+    /** Delay between two tokens (ms) - 0 means no limit. */
+    private final long interval;
+
+    /** Maximum number of tokens that can be accumulated (burst capacity). */
+    private final int burst;
+
+    /** Available tokens. */
+    private long availableTokens;
+
+    /** Time of the last refill (ns). */
+    private long lastRefillTime;
+
+    /** Number of requests waiting for a token, by priority. */
+    private final int[] waitingRequests = new int[RequestPriority.values().length];
+
+    /** Number of requests by priority. */
+    private final Map<RequestPriority, AtomicLong> requestCounts = new EnumMap<>(RequestPriority.class);
+
+    /** Total wait time by priority (ms). */
+    private final Map<RequestPriority, AtomicLong> totalWaitTimes = new EnumMap<>(RequestPriority.class);
+
+    /** Maximum wait time by priority (ms). */
+    private final Map<RequestPriority, AtomicLong> maximumWaitTimes = new EnumMap<>(RequestPriority.class);
+
+    /** Currency pairs of positions not closed (position id as key). */
+    private final Map<Long, CurrencyPairDTO> positionCurrencyPairs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param newInterval delay between two tokens (ms) - 0 means no limit
+     * @param newBurst    maximum number of tokens that can be accumulated
+     */
+    public ExchangeRateBudget(final long newInterval, final int newBurst) {
+        this.interval = Math.max(0, newInterval);
+        this.burst = Math.max(1, newBurst);
+        this.availableTokens = burst;
+        this.lastRefillTime = System.nanoTime();
+        for (RequestPriority priority : RequestPriority.values()) {
+            requestCounts.put(priority, new AtomicLong());
+            totalWaitTimes.put(priority, new AtomicLong());
+            maximumWaitTimes.put(priority, new AtomicLong());
+        }
+    }
+
+    /**
+     * Waits for a token - requests with a higher priority waiting for a token are served first.
+     *
+     * @param priority request priority
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(final RequestPriority priority) throws InterruptedException {
+        final long start = System.nanoTime();
+        if (interval > 0) {
+            synchronized (this) {
+                waitingRequests[priority.ordinal()]++;
+                try {
+                    while (!tryConsume(priority)) {
+                        wait(getTimeToNextToken());
+                    }
+                } finally {
+                    waitingRequests[priority.ordinal()]--;
+                    // Lower priorities may now be able to consume.
+                    notifyAll();
+                }
+            }
+        }
+        final long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        requestCounts.get(priority).incrementAndGet();
+        totalWaitTimes.get(priority).addAndGet(waitTime);
+        maximumWaitTimes.get(priority).accumulateAndGet(waitTime, Math::max);
+    }
+
+    /**
+     * Consumes a token if one is available and no request with a higher priority is waiting.
+     *
+     * @param priority request priority
+     * @return true if a token was consumed
+     */
+    private boolean tryConsume(final RequestPriority priority) {
+        refill();
+        if (availableTokens == 0) {
+            return false;
+        }
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (waitingRequests[i] > 0) {
+                return false;
+            }
+        }
+        availableTokens--;
+        return true;
+    }
+
+    /**
+     * Adds the tokens generated since the last refill.
+     */
+    private void refill() {
+        final long now = System.nanoTime();
+        final long intervalInNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        final long newTokens = (now - lastRefillTime) / intervalInNanos;
+        if (newTokens > 0) {
+            availableTokens = Math.min(burst, availableTokens + newTokens);
+            if (availableTokens == burst) {
+                lastRefillTime = now;
+            } else {
+                lastRefillTime += newTokens * intervalInNanos;
+            }
+        }
+    }
+
+    /**
+     * Returns the time before the next token (ms).
+     *
+     * @return time to next token
+     */
+    private long getTimeToNextToken() {
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRefillTime);
+        return Math.max(1, interval - elapsed);
+    }
+
+    /**
+     * Updates the currency pairs of positions not closed (their tickers have a higher priority).
+     *
+     * @param position position
+     */
+    public void positionUpdate(final PositionDTO position) {
+        if (position.getCurrencyPair() == null || position.getStatus() == CLOSED || position.getStatus() == OPENING_FAILURE) {
+            positionCurrencyPairs.remove(position.getId());
+        } else {
+            positionCurrencyPairs.put(position.getId(), position.getCurrencyPair());
+        }
+    }
+
+    /**
+     * Returns the priority of a ticker request.
+     *
+     * @param currencyPair currency pair
+     * @return priority
+     */
+    public RequestPriority getTickerPriority(final CurrencyPairDTO currencyPair) {
+        if (positionCurrencyPairs.containsValue(currencyPair)) {
+            return RequestPriority.POSITION_TICKER;
+        } else {
+            return RequestPriority.POLLING;
+        }
+    }
+
+    /**
+     * Returns the number of requests of a priority.
+     *
+     * @param priority priority
+     * @return request count
+     */
+    public long getRequestCount(final RequestPriority priority) {
+        return requestCounts.get(priority).get();
+    }
+
+    /**
+     * Returns the average wait time of the requests of a priority (ms).
+     *
+     * @param priority priority
+     * @return average wait time
+     */
+    public long getAverageWaitTime(final RequestPriority priority) {
+        final long count = requestCounts.get(priority).get();
+        if (count == 0) {
+            return 0;
+        }
+        return totalWaitTimes.get(priority).get() / count;
+    }
+
+    /**
+     * Returns the maximum wait time of the requests of a priority (ms).
+     *
+     * @param priority priority
+     * @return maximum wait time
+     */
+    public long getMaximumWaitTime(final RequestPriority priority) {
+        return maximumWaitTimes.get(priority).get();
+    }
+
+    /**
+     * Getter interval.
+     *
+     * @return interval
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Getter burst.
+     *
+     * @return burst
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder value = new StringBuilder("ExchangeRateBudget{ interval=" + interval + ", burst=" + burst);
+        for (RequestPriority priority : RequestPriority.values()) {
+            value.append(", ").append(priority)
+                    .append("=[requests=").append(getRequestCount(priority))
+                    .append(", averageWait=").append(getAverageWaitTime(priority))
+                    .append(", maximumWait=").append(getMaximumWaitTime(priority))
+                    .append(']');
+        }
+        return value.append('}').toString();
+    }
+
+}
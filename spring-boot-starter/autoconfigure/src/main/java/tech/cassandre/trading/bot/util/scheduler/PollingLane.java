@@ -0,0 +1,262 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.base.BaseExternalFlux;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polling lane.
+ * A lane calls one flux with its own scheduler so a slow exchange endpoint can't delay the other fluxes.
+ */
+public final class PollingLane extends Base implements Trigger {
+
+    /** Lane name. */
+    private final String name;
+
+    /** Flux called by this lane. */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    private final BaseExternalFlux<?> flux;
+
+    /** Adaptive trigger giving the delay between two calls. */
+    private final AdaptivePollingTrigger adaptiveTrigger;
+
+    /** Scheduler dedicated to this lane (one thread as the flux calls never overlap). */
+    private final ThreadPoolTaskScheduler scheduler;
+
+    /** Scheduled execution of the flux calls. */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    private ScheduledFuture<?> scheduledExecution;
+
+    /** True when the lane is started. */
+    private volatile boolean started;
+
+    /** Time (ms) at which the next call is expected to start. */
+    private volatile long scheduledTime;
+
+    /** Wait time (ms) of the last call (time between the expected start and the real start). */
+    private volatile long lastWaitTime;
+
+    /** Maximum wait time (ms) observed. */
+    private final AtomicLong maximumWaitTime = new AtomicLong();
+
+    /** Sum of all wait times (ms). */
+    private final AtomicLong totalWaitTime = new AtomicLong();
+
+    /** Number of calls. */
+    private final AtomicLong executionCount = new AtomicLong();
+
+    /** Lock preventing a wake-up call and a scheduled call from running at the same time. */
+    private final Object executionLock = new Object();
+
+    /** Activity monitor (null if the lane never goes idle). */
+    private volatile ActivityMonitor activityMonitor;
+
+    /** Delay between two calls when nothing is pending (ms). */
+    private volatile long idleDelay;
+
+    /** Number of calls made because of a wake-up. */
+    private final AtomicLong wakeUpCount = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param newName             lane name
+     * @param newFlux             flux called by the lane
+     * @param newAdaptiveTrigger  adaptive trigger
+     * @param newThreadNamePrefix thread name prefix
+     */
+    @SuppressWarnings("checkstyle:WhitespaceAround")
+    public PollingLane(final String newName,
+                       final BaseExternalFlux<?> newFlux,
+                       final AdaptivePollingTrigger newAdaptiveTrigger,
+                       final String newThreadNamePrefix) {
+        this.name = newName;
+        this.flux = newFlux;
+        this.adaptiveTrigger = newAdaptiveTrigger;
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setPoolSize(1);
+        this.scheduler.setThreadNamePrefix(newThreadNamePrefix + newName + "-");
+        this.scheduler.setDaemon(true);
+        this.scheduler.setWaitForTasksToCompleteOnShutdown(false);
+    }
+
+    /**
+     * Starts calling the flux.
+     */
+    public synchronized void start() {
+        scheduler.initialize();
+        started = true;
+        scheduledExecution = scheduler.schedule(this::execute, this);
+        getLogger().info("PollingLane - Lane {} started", name);
+    }
+
+    /**
+     * When nothing is pending, the flux is only called every idle delay (heartbeat) - it's called immediately when
+     * the activity monitor wakes up.
+     *
+     * @param newActivityMonitor activity monitor
+     * @param newIdleDelay       delay between two calls when nothing is pending (ms)
+     */
+    public void enableIdleHeartbeat(final ActivityMonitor newActivityMonitor, final long newIdleDelay) {
+        this.idleDelay = newIdleDelay;
+        this.activityMonitor = newActivityMonitor;
+        newActivityMonitor.addWakeUpListener(this::wakeUp);
+    }
+
+    /**
+     * Calls the flux immediately (something is now pending) - the calls are scheduled again from now.
+     */
+    private synchronized void wakeUp() {
+        if (started) {
+            adaptiveTrigger.reset();
+            wakeUpCount.incrementAndGet();
+            if (scheduledExecution != null) {
+                scheduledExecution.cancel(false);
+            }
+            scheduledExecution = scheduler.schedule(this::execute, this);
+        }
+    }
+
+    /**
+     * Stops calling the flux.
+     */
+    public void stop() {
+        started = false;
+        scheduler.shutdown();
+        getLogger().info("PollingLane - Lane {} stopped", name);
+    }
+
+    /**
+     * Calls the flux and records metrics.
+     */
+    private void execute() {
+        final long waitTime = Math.max(0, System.currentTimeMillis() - scheduledTime);
+        lastWaitTime = waitTime;
+        maximumWaitTime.accumulateAndGet(waitTime, Math::max);
+        totalWaitTime.addAndGet(waitTime);
+        executionCount.incrementAndGet();
+        if (waitTime > adaptiveTrigger.getMaximumDelay()) {
+            getLogger().warn("PollingLane - Lane {} started {} ms late ({} tasks queued)", name, waitTime, getQueueSize());
+        }
+
+        synchronized (executionLock) {
+            try {
+                adaptiveTrigger.recordResult(flux.update());
+            } catch (RuntimeException e) {
+                getLogger().error("PollingLane - Lane {} failed : {}", name, e.getMessage());
+                adaptiveTrigger.recordResult(0);
+            }
+        }
+    }
+
+    @Override
+    public Date nextExecutionTime(final TriggerContext triggerContext) {
+        Date next = adaptiveTrigger.nextExecutionTime(triggerContext);
+        final ActivityMonitor monitor = activityMonitor;
+        final Date lastCompletion = triggerContext.lastCompletionTime();
+        if (monitor != null && lastCompletion != null && monitor.isIdle()) {
+            // Nothing pending : heartbeat.
+            next = new Date(Math.max(next.getTime(), lastCompletion.getTime() + idleDelay));
+        }
+        scheduledTime = next.getTime();
+        return next;
+    }
+
+    /**
+     * Getter name.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of tasks waiting in the lane queue.
+     *
+     * @return queue size
+     */
+    public int getQueueSize() {
+        if (!started) {
+            return 0;
+        }
+        return scheduler.getScheduledThreadPoolExecutor().getQueue().size();
+    }
+
+    /**
+     * Getter lastWaitTime.
+     *
+     * @return lastWaitTime (ms)
+     */
+    public long getLastWaitTime() {
+        return lastWaitTime;
+    }
+
+    /**
+     * Getter maximumWaitTime.
+     *
+     * @return maximumWaitTime (ms)
+     */
+    public long getMaximumWaitTime() {
+        return maximumWaitTime.get();
+    }
+
+    /**
+     * Returns the average wait time.
+     *
+     * @return average wait time (ms)
+     */
+    public long getAverageWaitTime() {
+        final long count = executionCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        return totalWaitTime.get() / count;
+    }
+
+    /**
+     * Getter executionCount.
+     *
+     * @return executionCount
+     */
+    public long getExecutionCount() {
+        return executionCount.get();
+    }
+
+    /**
+     * Getter wakeUpCount.
+     *
+     * @return wakeUpCount
+     */
+    public long getWakeUpCount() {
+        return wakeUpCount.get();
+    }
+
+    /**
+     * Getter adaptiveTrigger.
+     *
+     * @return adaptiveTrigger
+     */
+    public AdaptivePollingTrigger getAdaptiveTrigger() {
+        return adaptiveTrigger;
+    }
+
+    @Override
+    public String toString() {
+        return "PollingLane{"
+                + " name='" + name + '\''
+                + ", queueSize=" + getQueueSize()
+                + ", lastWaitTime=" + lastWaitTime
+                + ", averageWaitTime=" + getAverageWaitTime()
+                + ", maximumWaitTime=" + getMaximumWaitTime()
+                + ", currentDelay=" + adaptiveTrigger.getCurrentDelay()
+                + '}';
+    }
+
+}
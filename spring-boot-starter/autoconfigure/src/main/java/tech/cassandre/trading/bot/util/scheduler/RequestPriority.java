@@ -0,0 +1,18 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+/**
+ * Priority of an exchange request - when the rate budget is exhausted, requests with a higher priority are served
+ * first (declaration order).
+ */
+public enum RequestPriority {
+
+    /** Order placement and cancellation. */
+    ORDER,
+
+    /** Tickers of currency pairs with positions (used to close positions). */
+    POSITION_TICKER,
+
+    /** Polling (accounts, tickers, orders and trades). */
+    POLLING
+
+}
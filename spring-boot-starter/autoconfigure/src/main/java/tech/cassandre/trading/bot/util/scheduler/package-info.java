@@ -0,0 +1,4 @@
+/**
+ * Scheduling utilities used to poll the exchange.
+ */
+package tech.cassandre.trading.bot.util.scheduler;
@@ -0,0 +1,149 @@
+package tech.cassandre.trading.bot.util.ta4j;
+
+import org.ta4j.core.BarSeries;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bar aggregator.
+ * Every tick (last price and volume of a ticker) is folded into the bar of the time bucket it belongs to. Buckets are
+ * aligned on the timeframe in the local time of the ticks (a one hour bar starts at the beginning of an hour, a one day
+ * bar at midnight). A bar is added to the series when its bucket is over, i.e. when the first tick of a later bucket
+ * arrives - no bar is created for buckets without ticks, and a late tick (older than the current bar) is ignored.
+ * Ticker volumes being cumulated (24h volume), the volume of a bar is the sum of the volume increases between ticks.
+ */
+public final class BarAggregator {
+
+    /** Series where the bars are added. */
+    private final BarSeries series;
+
+    /** Timeframe (duration of a bar). */
+    private final Duration timeframe;
+
+    /** Timeframe (ms). */
+    private final long timeframeMillis;
+
+    /** True when a bar is being built. */
+    private boolean started = false;
+
+    /** End of the current bucket (local time in ms since epoch). */
+    private long bucketEnd;
+
+    /** End time of the current bar. */
+    private ZonedDateTime barEndTime;
+
+    /** Open price of the current bar. */
+    private double open;
+
+    /** High price of the current bar. */
+    private double high;
+
+    /** Low price of the current bar. */
+    private double low;
+
+    /** Close price of the current bar. */
+    private double close;
+
+    /** Volume of the current bar. */
+    private double volume;
+
+    /** Cumulated volume of the last tick. */
+    private BigDecimal lastCumulatedVolume;
+
+    /**
+     * Constructor.
+     *
+     * @param newSeries    series where the bars are added
+     * @param newTimeframe timeframe (duration of a bar)
+     */
+    public BarAggregator(final BarSeries newSeries, final Duration newTimeframe) {
+        this.series = newSeries;
+        this.timeframe = newTimeframe;
+        this.timeframeMillis = Math.max(1, newTimeframe.toMillis());
+    }
+
+    /**
+     * Folds a tick into the current bar - if the tick belongs to a later bucket, the current bar is added to the series
+     * first and a new bar is started.
+     *
+     * @param timestamp       tick timestamp
+     * @param price           tick price
+     * @param cumulatedVolume tick cumulated volume (null if unknown)
+     * @return true if a bar was added to the series
+     */
+    public boolean update(final ZonedDateTime timestamp, final BigDecimal price, final BigDecimal cumulatedVolume) {
+        final long offset = TimeUnit.SECONDS.toMillis(timestamp.getOffset().getTotalSeconds());
+        final long localTime = timestamp.toInstant().toEpochMilli() + offset;
+        if (started && localTime < bucketEnd - timeframeMillis) {
+            // Late tick - its bar is already in the series.
+            return false;
+        }
+
+        // The tick belongs to a later bucket, the current bar is over.
+        boolean barAdded = false;
+        if (started && localTime >= bucketEnd) {
+            series.addBar(timeframe, barEndTime, open, high, low, close, volume);
+            started = false;
+            barAdded = true;
+        }
+
+        // Folding the tick into the current bar.
+        final double value = price.doubleValue();
+        final double tickVolume = getTickVolume(cumulatedVolume);
+        if (!started) {
+            bucketEnd = Math.floorDiv(localTime, timeframeMillis) * timeframeMillis + timeframeMillis;
+            barEndTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(bucketEnd - offset), timestamp.getZone());
+            open = value;
+            high = value;
+            low = value;
+            volume = 0;
+            started = true;
+        }
+        high = Math.max(high, value);
+        low = Math.min(low, value);
+        close = value;
+        volume += tickVolume;
+        return barAdded;
+    }
+
+    /**
+     * Getter series.
+     *
+     * @return series
+     */
+    public BarSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * Getter timeframe.
+     *
+     * @return timeframe
+     */
+    public Duration getTimeframe() {
+        return timeframe;
+    }
+
+    /**
+     * Returns the volume traded since the last tick (increase of the cumulated volume).
+     *
+     * @param cumulatedVolume cumulated volume (null if unknown)
+     * @return volume
+     */
+    private double getTickVolume(final BigDecimal cumulatedVolume) {
+        if (cumulatedVolume == null) {
+            return 0;
+        }
+        double tickVolume = 0;
+        if (lastCumulatedVolume != null && cumulatedVolume.compareTo(lastCumulatedVolume) > 0) {
+            tickVolume = cumulatedVolume.subtract(lastCumulatedVolume).doubleValue();
+        }
+        lastCumulatedVolume = cumulatedVolume;
+        return tickVolume;
+    }
+
+}
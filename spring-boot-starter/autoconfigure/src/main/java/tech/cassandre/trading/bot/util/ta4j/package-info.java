@@ -0,0 +1,4 @@
+/**
+ * Ta4j utilities.
+ */
+package tech.cassandre.trading.bot.util.ta4j;
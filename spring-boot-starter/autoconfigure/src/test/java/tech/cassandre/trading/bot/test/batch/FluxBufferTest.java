@@ -0,0 +1,154 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+import tech.cassandre.trading.bot.util.base.BoundedBufferSink;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+import static tech.cassandre.trading.bot.util.base.BufferOverflowPolicy.BLOCK;
+import static tech.cassandre.trading.bot.util.base.BufferOverflowPolicy.SPILL;
+
+@DisplayName("Batch - Flux buffer")
+public class FluxBufferTest extends BaseTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    @DisplayName("Check values are spilled to disk and received in order")
+    public void checkSpill() {
+        BoundedBufferSink<OrderDTO> sink = new BoundedBufferSink<>("test", 2, SPILL, spillDirectory);
+        List<OrderDTO> received = new CopyOnWriteArrayList<>();
+        SlowSubscriber subscriber = new SlowSubscriber(received);
+        sink.getFlux().subscribe(subscriber);
+
+        // No demand : two orders in the buffer, three in the spill file.
+        for (int i = 1; i <= 5; i++) {
+            sink.next(getPendingOrder("ORDER_" + i, ASK, new BigDecimal(i), cp1));
+        }
+        assertEquals(0, received.size());
+        assertEquals(5, sink.getPendingCount());
+        assertEquals(5, sink.getHighWaterMark());
+        assertEquals(3, sink.getOverflowCount());
+
+        // Demand : every order is received, in order.
+        subscriber.request(3);
+        assertEquals(3, received.size());
+        assertEquals(2, sink.getPendingCount());
+        sink.next(getPendingOrder("ORDER_6", ASK, new BigDecimal("6"), cp1));
+        subscriber.request(10);
+        assertEquals(6, received.size());
+        for (int i = 1; i <= 6; i++) {
+            assertEquals("ORDER_" + i, received.get(i - 1).getId());
+            assertEquals(0, new BigDecimal(i).compareTo(received.get(i - 1).getOriginalAmount()));
+            assertEquals(cp1, received.get(i - 1).getCurrencyPair());
+        }
+        assertEquals(0, sink.getPendingCount());
+        assertEquals(5, sink.getHighWaterMark());
+        assertEquals(4, sink.getOverflowCount());
+    }
+
+    @Test
+    @DisplayName("Check producer waits for demand when buffer is full")
+    public void checkBlock() throws InterruptedException {
+        BoundedBufferSink<OrderDTO> sink = new BoundedBufferSink<>("test", 2, BLOCK, spillDirectory);
+        List<OrderDTO> received = new CopyOnWriteArrayList<>();
+        SlowSubscriber subscriber = new SlowSubscriber(received);
+        sink.getFlux().subscribe(subscriber);
+
+        sink.next(getPendingOrder("ORDER_1", ASK, BigDecimal.ONE, cp1));
+        sink.next(getPendingOrder("ORDER_2", ASK, BigDecimal.ONE, cp1));
+
+        // Buffer is full, the third order waits.
+        Thread producer = new Thread(() -> sink.next(getPendingOrder("ORDER_3", ASK, BigDecimal.ONE, cp1)));
+        producer.start();
+        await().atMost(WAITING_TIME_IN_SECONDS, TimeUnit.SECONDS).until(() -> sink.getOverflowCount() == 1);
+        assertTrue(producer.isAlive());
+        assertEquals(2, sink.getPendingCount());
+
+        // Demand frees space and releases the producer.
+        subscriber.request(1);
+        producer.join(TimeUnit.SECONDS.toMillis(WAITING_TIME_IN_SECONDS));
+        assertFalse(producer.isAlive());
+        subscriber.request(10);
+        assertEquals(3, received.size());
+        assertEquals("ORDER_1", received.get(0).getId());
+        assertEquals("ORDER_2", received.get(1).getId());
+        assertEquals("ORDER_3", received.get(2).getId());
+        assertEquals(2, sink.getHighWaterMark());
+    }
+
+    @Test
+    @DisplayName("Check a value sent by a subscriber into a full buffer is spilled")
+    public void checkSendFromSubscriber() {
+        BoundedBufferSink<OrderDTO> sink = new BoundedBufferSink<>("test", 2, BLOCK, spillDirectory);
+        List<OrderDTO> received = new CopyOnWriteArrayList<>();
+        Scheduler consumer = Schedulers.newSingle("test-consumer");
+        // The subscriber requests one value at a time and sends four orders when receiving the second one.
+        sink.getFlux().publishOn(consumer, 1).subscribe(value -> {
+            received.add(value);
+            if ("ORDER_2".equals(value.getId())) {
+                for (int i = 3; i <= 6; i++) {
+                    sink.next(getPendingOrder("ORDER_" + i, ASK, BigDecimal.ONE, cp1));
+                }
+            }
+        });
+        sink.next(getPendingOrder("ORDER_1", ASK, BigDecimal.ONE, cp1));
+        sink.next(getPendingOrder("ORDER_2", ASK, BigDecimal.ONE, cp1));
+
+        // The subscriber never waits for itself, every order is received, in order.
+        await().atMost(WAITING_TIME_IN_SECONDS, TimeUnit.SECONDS).until(() -> received.size() == 6);
+        for (int i = 1; i <= 6; i++) {
+            assertEquals("ORDER_" + i, received.get(i - 1).getId());
+        }
+        assertEquals(0, sink.getPendingCount());
+        consumer.dispose();
+    }
+
+    /**
+     * Subscriber requesting values on demand.
+     */
+    private static final class SlowSubscriber extends BaseSubscriber<OrderDTO> {
+
+        /** Received values. */
+        private final List<OrderDTO> received;
+
+        /**
+         * Constructor.
+         *
+         * @param newReceived received values
+         */
+        SlowSubscriber(final List<OrderDTO> newReceived) {
+            this.received = newReceived;
+        }
+
+        @Override
+        protected void hookOnSubscribe(final Subscription subscription) {
+            // No request on subscription.
+        }
+
+        @Override
+        protected void hookOnNext(final OrderDTO value) {
+            received.add(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+import tech.cassandre.trading.bot.util.base.KeyedConflatingSink;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Batch - Flux conflation")
+public class FluxConflationTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check newest value per key is kept and keys are drained fairly")
+    public void checkConflation() {
+        KeyedConflatingSink<TickerDTO> sink = new KeyedConflatingSink<>(TickerDTO::getCurrencyPair);
+        List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        SlowSubscriber subscriber = new SlowSubscriber(received);
+        sink.getFlux().subscribe(subscriber);
+
+        // No demand : a burst on cp1 and one ticker on cp2.
+        sink.next(getFakeTicker(createDate(1), cp1, new BigDecimal("1")).orElseThrow());
+        sink.next(getFakeTicker(createDate(2), cp2, new BigDecimal("10")).orElseThrow());
+        sink.next(getFakeTicker(createDate(3), cp1, new BigDecimal("2")).orElseThrow());
+        sink.next(getFakeTicker(createDate(4), cp1, new BigDecimal("3")).orElseThrow());
+        assertEquals(0, received.size());
+        assertEquals(2, sink.getPendingCount());
+        assertEquals(2, sink.getConflatedCount());
+
+        // First request : the newest cp1 ticker.
+        subscriber.requestOne();
+        assertEquals(1, received.size());
+        assertEquals(cp1, received.get(0).getCurrencyPair());
+        assertEquals(0, new BigDecimal("3").compareTo(received.get(0).getLast()));
+
+        // Second request : cp2 ticker is not lost.
+        subscriber.requestOne();
+        assertEquals(2, received.size());
+        assertEquals(cp2, received.get(1).getCurrencyPair());
+        assertEquals(0, sink.getPendingCount());
+
+        // With demand, values are sent immediately.
+        subscriber.requestOne();
+        sink.next(getFakeTicker(createDate(5), cp1, new BigDecimal("4")).orElseThrow());
+        assertEquals(3, received.size());
+        assertEquals(2, sink.getConflatedCount());
+    }
+
+    /**
+     * Subscriber requesting values one by one.
+     */
+    private static final class SlowSubscriber extends BaseSubscriber<TickerDTO> {
+
+        /** Received values. */
+        private final List<TickerDTO> received;
+
+        /**
+         * Constructor.
+         *
+         * @param newReceived received values
+         */
+        SlowSubscriber(final List<TickerDTO> newReceived) {
+            this.received = newReceived;
+        }
+
+        @Override
+        protected void hookOnSubscribe(final Subscription subscription) {
+            // No request on subscription.
+        }
+
+        @Override
+        protected void hookOnNext(final TickerDTO value) {
+            received.add(value);
+        }
+
+        /**
+         * Requests one value.
+         */
+        void requestOne() {
+            request(1);
+        }
+
+    }
+
+}
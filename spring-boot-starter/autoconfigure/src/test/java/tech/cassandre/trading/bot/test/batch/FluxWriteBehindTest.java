@@ -0,0 +1,119 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.batch.OrderFlux;
+import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.repository.OrderRepository;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+import tech.cassandre.trading.bot.util.base.WriteBehindWriter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+
+@DisplayName("Batch - Flux write-behind backups")
+public class FluxWriteBehindTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check values are coalesced by key and written by batches")
+    public void checkWriteBehind() {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindWriter<String> writer = new WriteBehindWriter<>("test",
+                value -> value.substring(0, 1),
+                batch -> batches.add(new ArrayList<>(batch)),
+                10,
+                TimeUnit.MINUTES.toMillis(1));
+
+        // A1 is replaced by A2 before being written.
+        writer.write("A1");
+        writer.write("B1");
+        writer.write("A2");
+        assertEquals("A2", writer.getPendingValue("A").orElseThrow());
+        assertEquals(2, writer.getPendingCount());
+        assertEquals(1, writer.getCoalescedCount());
+
+        // Flush : one batch with the last state of each key.
+        writer.flush();
+        assertEquals(1, batches.size());
+        assertEquals(List.of("A2", "B1"), batches.get(0));
+        assertEquals(0, writer.getPendingCount());
+        assertFalse(writer.getPendingValue("A").isPresent());
+        assertEquals(2, writer.getWrittenCount());
+
+        // Values are written on close.
+        writer.write("C1");
+        writer.close();
+        assertEquals(2, batches.size());
+        assertEquals(List.of("C1"), batches.get(1));
+    }
+
+    @Test
+    @DisplayName("Check a failed batch is written again")
+    public void checkWriteBehindFailure() {
+        List<String> written = new CopyOnWriteArrayList<>();
+        AtomicBoolean failure = new AtomicBoolean(true);
+        WriteBehindWriter<String> writer = new WriteBehindWriter<>("test",
+                value -> value,
+                batch -> {
+                    if (failure.getAndSet(false)) {
+                        throw new IllegalStateException("Database unavailable");
+                    }
+                    written.addAll(batch);
+                },
+                10,
+                1);
+        writer.write("A1");
+        writer.flush();
+        assertEquals(List.of("A1"), written);
+        assertEquals(1, writer.getFailureCount());
+        writer.close();
+    }
+
+    @Test
+    @DisplayName("Check order flux saves asynchronously only the last state of an order")
+    @SuppressWarnings("unchecked")
+    public void checkOrderFluxWriteBehind() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        List<Integer> savedBatchSizes = new CopyOnWriteArrayList<>();
+        given(orderRepository.saveAll(any())).willAnswer(invocation -> {
+            savedBatchSizes.add(((Collection<Order>) invocation.getArgument(0)).size());
+            return invocation.getArgument(0);
+        });
+        OrderFlux orderFlux = new OrderFlux(mock(TradeService.class), orderRepository);
+        orderFlux.enableWriteBehind(10, TimeUnit.MINUTES.toMillis(1));
+
+        // Three states of the same order, none of them saved yet.
+        orderFlux.emitValue(getPendingOrder("ORDER_1", ASK, new BigDecimal("1"), cp1));
+        orderFlux.emitValue(getPendingOrder("ORDER_1", ASK, new BigDecimal("2"), cp1));
+        orderFlux.emitValue(getPendingOrder("ORDER_1", ASK, new BigDecimal("3"), cp1));
+        assertTrue(orderFlux.getPendingBackup("ORDER_1").isPresent());
+        OrderDTO pendingOrder = orderFlux.getPendingBackup("ORDER_1").get();
+        assertEquals(0, new BigDecimal("3").compareTo(pendingOrder.getOriginalAmount()));
+        assertTrue(savedBatchSizes.isEmpty());
+
+        // On shutdown, the last state is saved.
+        orderFlux.close();
+        assertEquals(List.of(1), savedBatchSizes);
+        assertEquals(2, orderFlux.getWriteBehindWriter().getCoalescedCount());
+        verify(orderRepository, never()).findById(anyString());
+    }
+
+}
@@ -0,0 +1,70 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import tech.cassandre.trading.bot.batch.OrderFlux;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.repository.OrderRepository;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+import tech.cassandre.trading.bot.util.mapper.CassandreMapper;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.BID;
+
+@DisplayName("Batch - Order flux index")
+public class OrderFluxIndexTest extends BaseTest {
+
+    /** Mapper. */
+    private final CassandreMapper mapper = Mappers.getMapper(CassandreMapper.class);
+
+    @Test
+    @DisplayName("Check changes are detected without reading orders from database")
+    public void checkOrderIndex() {
+        OrderDTO order1 = getPendingOrder("ORDER_1", ASK, new BigDecimal("1"), cp1);
+        OrderDTO order2 = getPendingOrder("ORDER_2", BID, new BigDecimal("2"), cp2);
+        OrderDTO order2Updated = getPendingOrder("ORDER_2", BID, new BigDecimal("3"), cp2);
+
+        // Order 1 is already in database.
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        given(orderRepository.findByOrderByTimestampAsc()).willReturn(Collections.singletonList(mapper.mapToOrder(order1)));
+        TradeService tradeService = mock(TradeService.class);
+        given(tradeService.getOrders()).willReturn(
+                new LinkedHashSet<>(Arrays.asList(order1, order2)),
+                new LinkedHashSet<>(Arrays.asList(order1, order2)),
+                new LinkedHashSet<>(Arrays.asList(order1, order2Updated)));
+        OrderFlux orderFlux = new OrderFlux(tradeService, orderRepository);
+
+        // First poll : order 1 is known, order 2 is new.
+        assertEquals(1, orderFlux.update());
+        assertEquals(2, orderFlux.getIndexedOrdersCount());
+
+        // Second poll : nothing changed.
+        assertEquals(0, orderFlux.update());
+
+        // Third poll : order 2 changed.
+        assertEquals(1, orderFlux.update());
+        assertEquals(2, orderFlux.getIndexedOrdersCount());
+
+        // The index was loaded once and orders were only read from database to be saved.
+        verify(orderRepository, times(1)).findByOrderByTimestampAsc();
+        verify(orderRepository, never()).findById(anyString());
+        verify(orderRepository, times(2)).findAllById(any());
+        verify(orderRepository, times(2)).saveAll(any());
+    }
+
+}
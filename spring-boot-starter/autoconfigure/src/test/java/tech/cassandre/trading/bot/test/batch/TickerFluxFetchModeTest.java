@@ -0,0 +1,147 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.batch.TickerFetchMode;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.service.MarketService;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Batch - Ticker flux - Fetch modes")
+public class TickerFluxFetchModeTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check concurrent mode")
+    public void checkConcurrentFetch() {
+        MarketService marketService = mock(MarketService.class);
+        given(marketService.getTicker(cp1)).willReturn(
+                getFakeTicker(createDate(1), cp1, new BigDecimal("1")),
+                getFakeTicker(createDate(1), cp1, new BigDecimal("1")),
+                getFakeTicker(createDate(2), cp1, new BigDecimal("2")));
+        given(marketService.getTicker(cp2)).willReturn(
+                getFakeTicker(createDate(1), cp2, new BigDecimal("10")),
+                Optional.empty(),
+                getFakeTicker(createDate(2), cp2, new BigDecimal("20")));
+        given(marketService.getTicker(cp3)).willReturn(
+                getFakeTicker(createDate(1), cp3, new BigDecimal("100")));
+
+        TickerFlux tickerFlux = new TickerFlux(marketService, TickerFetchMode.CONCURRENT, 2);
+        Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        currencyPairs.add(cp1);
+        currencyPairs.add(cp2);
+        currencyPairs.add(cp3);
+        tickerFlux.updateRequestedCurrencyPairs(currencyPairs);
+        List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+
+        // First update - one new ticker for each currency pair.
+        assertEquals(3, tickerFlux.update());
+        // Second update - cp1 didn't change, cp2 has no ticker, cp3 didn't change.
+        assertEquals(0, tickerFlux.update());
+        // Third update - cp1 and cp2 changed.
+        assertEquals(2, tickerFlux.update());
+
+        await().untilAsserted(() -> assertEquals(5, received.size()));
+        assertEquals(3, tickerFlux.getStaleness().size());
+        assertTrue(tickerFlux.getStaleness().containsKey(cp3));
+    }
+
+    @Test
+    @DisplayName("Check bulk mode")
+    public void checkBulkFetch() {
+        MarketService marketService = mock(MarketService.class);
+        Set<TickerDTO> firstTickers = new LinkedHashSet<>();
+        getFakeTicker(createDate(1), cp1, new BigDecimal("1")).ifPresent(firstTickers::add);
+        getFakeTicker(createDate(1), cp2, new BigDecimal("10")).ifPresent(firstTickers::add);
+        Set<TickerDTO> secondTickers = new LinkedHashSet<>();
+        getFakeTicker(createDate(1), cp1, new BigDecimal("1")).ifPresent(secondTickers::add);
+        getFakeTicker(createDate(2), cp2, new BigDecimal("20")).ifPresent(secondTickers::add);
+        Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        currencyPairs.add(cp1);
+        currencyPairs.add(cp2);
+        given(marketService.isBulkTickersSupported()).willReturn(true);
+        given(marketService.getTickers(currencyPairs)).willReturn(firstTickers, secondTickers);
+
+        // Bulk is the default mode.
+        TickerFlux tickerFlux = new TickerFlux(marketService);
+        assertEquals(TickerFetchMode.BULK, tickerFlux.getFetchMode());
+        tickerFlux.updateRequestedCurrencyPairs(currencyPairs);
+        List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+
+        // First update - both currency pairs are new.
+        assertEquals(2, tickerFlux.update());
+        // Second update - only cp2 changed.
+        assertEquals(1, tickerFlux.update());
+
+        await().untilAsserted(() -> assertEquals(3, received.size()));
+        verify(marketService, never()).getTicker(any());
+    }
+
+    @Test
+    @DisplayName("Check bulk mode falls back to round robin when not supported")
+    public void checkBulkFetchNotSupported() {
+        MarketService marketService = mock(MarketService.class);
+        given(marketService.isBulkTickersSupported()).willReturn(false);
+        given(marketService.getTicker(cp1)).willReturn(getFakeTicker(createDate(1), cp1, new BigDecimal("1")));
+        given(marketService.getTicker(cp2)).willReturn(getFakeTicker(createDate(1), cp2, new BigDecimal("10")));
+        Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        currencyPairs.add(cp1);
+        currencyPairs.add(cp2);
+
+        TickerFlux tickerFlux = new TickerFlux(marketService);
+        tickerFlux.updateRequestedCurrencyPairs(currencyPairs);
+        List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+
+        // One currency pair per update.
+        assertEquals(1, tickerFlux.update());
+        assertEquals(1, tickerFlux.update());
+
+        await().untilAsserted(() -> assertEquals(2, received.size()));
+        verify(marketService, never()).getTickers(any());
+    }
+
+    @Test
+    @DisplayName("Check currency pairs requested twice are only fetched once")
+    public void checkSharedCurrencyPairs() {
+        MarketService marketService = mock(MarketService.class);
+        given(marketService.isBulkTickersSupported()).willReturn(false);
+        given(marketService.getTicker(cp1)).willReturn(getFakeTicker(createDate(1), cp1, new BigDecimal("1")));
+        given(marketService.getTicker(cp2)).willReturn(getFakeTicker(createDate(1), cp2, new BigDecimal("10")));
+        given(marketService.getTicker(cp3)).willReturn(getFakeTicker(createDate(1), cp3, new BigDecimal("100")));
+
+        // Two strategies share cp2.
+        TickerFlux tickerFlux = new TickerFlux(marketService);
+        tickerFlux.updateRequestedCurrencyPairs(new LinkedHashSet<>(List.of(cp1, cp2)));
+        tickerFlux.updateRequestedCurrencyPairs(new LinkedHashSet<>(List.of(cp2, cp3)));
+
+        // Round robin - each currency pair is fetched in turn.
+        assertEquals(1, tickerFlux.update());
+        assertEquals(1, tickerFlux.update());
+        assertEquals(1, tickerFlux.update());
+        verify(marketService, times(1)).getTicker(cp1);
+        verify(marketService, times(1)).getTicker(cp2);
+        verify(marketService, times(1)).getTicker(cp3);
+    }
+
+}
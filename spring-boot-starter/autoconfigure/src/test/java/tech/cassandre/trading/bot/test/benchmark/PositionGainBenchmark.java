@@ -0,0 +1,172 @@
+package tech.cassandre.trading.bot.test.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.BID;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.ETH;
+
+/**
+ * Compares the evaluation of position rules on tickers with gains calculated with doubles (PositionDTO.shouldBeClosed)
+ * and with BigDecimal (previous implementation : three gain calculations per position and per ticker).
+ * Run with the main method (from the IDE, with test classpath).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("checkstyle:VisibilityModifier")
+public class PositionGainBenchmark {
+
+    /** Currency pair. */
+    private final CurrencyPairDTO currencyPair = new CurrencyPairDTO(ETH, BTC);
+
+    /** Number of positions. */
+    @Param({"1000"})
+    public int positionsCount;
+
+    /** Positions. */
+    private List<PositionDTO> positions;
+
+    /** Tickers (prices never reaching the rules). */
+    private List<TickerDTO> tickers;
+
+    /** Index of the next ticker. */
+    private int tickerIndex;
+
+    /**
+     * Creates opened positions with rules and tickers.
+     */
+    @Setup
+    public void setUp() {
+        positions = new ArrayList<>();
+        for (int i = 0; i < positionsCount; i++) {
+            final BigDecimal openingPrice = new BigDecimal("0.03").add(new BigDecimal(i).movePointLeft(6));
+            final TradeDTO trade = TradeDTO.builder()
+                    .id("TRADE_" + i)
+                    .orderId("ORDER_" + i)
+                    .type(BID)
+                    .currencyPair(currencyPair)
+                    .originalAmount(BigDecimal.ONE)
+                    .price(openingPrice)
+                    .build();
+            positions.add(PositionDTO.builder()
+                    .id(i)
+                    .status(OPENED)
+                    .currencyPair(currencyPair)
+                    .amount(BigDecimal.ONE)
+                    .lowestPrice(openingPrice)
+                    .highestPrice(openingPrice)
+                    .rules(PositionRulesDTO.builder().stopGainPercentage(1000f).stopLossPercentage(90f).build())
+                    .openingOrder(OrderDTO.builder()
+                            .id("ORDER_" + i)
+                            .type(BID)
+                            .currencyPair(currencyPair)
+                            .originalAmount(BigDecimal.ONE)
+                            .status(FILLED)
+                            .trades(Set.of(trade))
+                            .build())
+                    .build());
+        }
+        tickers = new ArrayList<>();
+        for (String price : List.of("0.031", "0.029", "0.0305", "0.0295", "0.032", "0.028")) {
+            tickers.add(TickerDTO.builder().currencyPair(currencyPair).last(new BigDecimal(price)).build());
+        }
+    }
+
+    /**
+     * Evaluates all positions with a ticker (gains calculated with doubles).
+     *
+     * @param blackhole blackhole
+     */
+    @Benchmark
+    public void shouldBeClosed(final Blackhole blackhole) {
+        final TickerDTO ticker = nextTicker();
+        for (PositionDTO position : positions) {
+            blackhole.consume(position.shouldBeClosed(ticker));
+        }
+    }
+
+    /**
+     * Evaluates all positions with a ticker (gains calculated with BigDecimal as before).
+     *
+     * @param blackhole blackhole
+     */
+    @Benchmark
+    public void bigDecimalGains(final Blackhole blackhole) {
+        final BigDecimal price = nextTicker().getLast();
+        for (PositionDTO position : positions) {
+            final BigDecimal openingPrice = position.getOpeningOrder().getTrades().iterator().next().getPrice();
+            final float gain = calculateGainPercentage(price, openingPrice);
+            blackhole.consume(gain >= position.getRules().getStopGainPercentage() || gain <= -position.getRules().getStopLossPercentage());
+            blackhole.consume(calculateGainPercentage(position.getHighestPrice(), openingPrice) <= gain);
+            blackhole.consume(calculateGainPercentage(position.getLowestPrice(), openingPrice) >= gain);
+        }
+    }
+
+    /**
+     * Returns the next ticker.
+     *
+     * @return ticker
+     */
+    private TickerDTO nextTicker() {
+        tickerIndex = (tickerIndex + 1) % tickers.size();
+        return tickers.get(tickerIndex);
+    }
+
+    /**
+     * Calculates a gain percentage as PositionDTO does with BigDecimal.
+     *
+     * @param price        price
+     * @param openingPrice opening price
+     * @return gain percentage
+     */
+    private float calculateGainPercentage(final BigDecimal price, final BigDecimal openingPrice) {
+        if (price == null) {
+            return 0;
+        }
+        return (price.subtract(openingPrice)).divide(openingPrice, 4, RoundingMode.FLOOR).floatValue() * 100;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args arguments
+     * @throws RunnerException run exception
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PositionGainBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
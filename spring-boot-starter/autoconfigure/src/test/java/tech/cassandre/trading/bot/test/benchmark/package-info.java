@@ -0,0 +1,4 @@
+/**
+ * Micro benchmarks.
+ */
+package tech.cassandre.trading.bot.test.benchmark;
@@ -3,19 +3,39 @@ package tech.cassandre.trading.bot.test.configuration.strategy;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.test.annotation.DirtiesContext;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
 import tech.cassandre.trading.bot.test.CassandreTradingBot;
 import tech.cassandre.trading.bot.test.util.junit.configuration.Configuration;
 import tech.cassandre.trading.bot.test.util.junit.configuration.Property;
+import tech.cassandre.trading.bot.test.util.strategies.TestableCassandreStrategy;
+import tech.cassandre.trading.bot.test.util.strategies.TestableTa4jCassandreStrategy;
 import tech.cassandre.trading.bot.util.exception.ConfigurationException;
 
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Set;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.USDT;
 import static tech.cassandre.trading.bot.test.util.strategies.InvalidStrategy.PARAMETER_INVALID_STRATEGY_ENABLED;
 import static tech.cassandre.trading.bot.test.util.strategies.NoTradingAccountStrategy.PARAMETER_NO_TRADING_ACCOUNT_STRATEGY_ENABLED;
 import static tech.cassandre.trading.bot.test.util.strategies.TestableCassandreStrategy.PARAMETER_TESTABLE_STRATEGY_ENABLED;
 import static tech.cassandre.trading.bot.test.util.strategies.TestableTa4jCassandreStrategy.PARAMETER_TESTABLE_TA4J_STRATEGY_ENABLED;
+import static tech.cassandre.trading.bot.util.parameters.ExchangeParameters.Modes.PARAMETER_EXCHANGE_DRY;
 
 @DisplayName("Configuration - Strategy - Autoconfiguration")
 @Configuration({
@@ -60,19 +80,56 @@ class CassandreStrategyAutoConfigurationTest {
     }
 
     @Test
-    @DisplayName("Check error messages when two strategies are found")
+    @DisplayName("Check two strategies get their own orders, trades and positions")
     public void checkTwoStrategiesFound() {
-        try {
-            System.setProperty(PARAMETER_INVALID_STRATEGY_ENABLED, "false");
-            System.setProperty(PARAMETER_TESTABLE_STRATEGY_ENABLED, "true");
-            System.setProperty(PARAMETER_TESTABLE_TA4J_STRATEGY_ENABLED, "true");
-            System.setProperty(PARAMETER_NO_TRADING_ACCOUNT_STRATEGY_ENABLED, "false");
-            SpringApplication application = new SpringApplication(CassandreTradingBot.class);
-            application.run();
-            fail("Exception not raised");
-        } catch (Exception e) {
-            assertTrue(e.getCause() instanceof ConfigurationException);
-            assertTrue(e.getCause().getMessage().contains("Several strategies found"));
+        System.setProperty(PARAMETER_INVALID_STRATEGY_ENABLED, "false");
+        System.setProperty(PARAMETER_TESTABLE_STRATEGY_ENABLED, "true");
+        System.setProperty(PARAMETER_TESTABLE_TA4J_STRATEGY_ENABLED, "true");
+        System.setProperty(PARAMETER_NO_TRADING_ACCOUNT_STRATEGY_ENABLED, "false");
+        System.setProperty(PARAMETER_EXCHANGE_DRY, "true");
+        SpringApplication application = new SpringApplication(CassandreTradingBot.class);
+        application.setAdditionalProfiles("schedule-disabled");
+        try (ConfigurableApplicationContext context = application.run()) {
+            final TestableCassandreStrategy strategy1 = context.getBean(TestableCassandreStrategy.class);
+            final TestableTa4jCassandreStrategy strategy2 = context.getBean(TestableTa4jCassandreStrategy.class);
+            final CurrencyPairDTO cp1 = new CurrencyPairDTO(ETH, BTC);
+            final CurrencyPairDTO cp2 = new CurrencyPairDTO(BTC, USDT);
+
+            // Tickers are received (in dry mode, they give the price of the orders).
+            final TickerFlux tickerFlux = context.getBean(TickerFlux.class);
+            tickerFlux.emitValue(TickerDTO.builder().currencyPair(cp1).timestamp(ZonedDateTime.now()).last(new BigDecimal("0.2")).build());
+            tickerFlux.emitValue(TickerDTO.builder().currencyPair(cp2).timestamp(ZonedDateTime.now()).last(new BigDecimal("10000")).build());
+            await().untilAsserted(() -> assertEquals(1, strategy1.getTickersUpdateReceived().size()));
+            await().untilAsserted(() -> assertEquals(1, strategy2.getTickersUpdateReceived().size()));
+
+            // Each strategy creates a position.
+            final PositionCreationResultDTO position1 = strategy1.createPosition(cp1, new BigDecimal("0.0001"), PositionRulesDTO.builder().build());
+            final PositionCreationResultDTO position2 = strategy2.createPosition(cp2, new BigDecimal("0.0001"), PositionRulesDTO.builder().build());
+            assertTrue(position1.isSuccessful());
+            assertTrue(position2.isSuccessful());
+            final String order1Id = position1.getPosition().getOpeningOrder().getId();
+            final String order2Id = position2.getPosition().getOpeningOrder().getId();
+            await().untilAsserted(() -> assertEquals(OPENED, strategy1.getPositions().get(position1.getPosition().getId()).getStatus()));
+            await().untilAsserted(() -> assertEquals(OPENED, strategy2.getPositions().get(position2.getPosition().getId()).getStatus()));
+
+            // Each strategy only sees its own orders, trades and positions.
+            assertEquals(Set.of(order1Id), strategy1.getOrders().keySet());
+            assertEquals(Set.of(order2Id), strategy2.getOrders().keySet());
+            assertEquals(1, strategy1.getTrades().size());
+            assertTrue(strategy1.getTrades().values().stream().allMatch(trade -> order1Id.equals(trade.getOrderId())));
+            assertEquals(1, strategy2.getTrades().size());
+            assertTrue(strategy2.getTrades().values().stream().allMatch(trade -> order2Id.equals(trade.getOrderId())));
+            assertEquals(Set.of(position1.getPosition().getId()), strategy1.getPositions().keySet());
+            assertEquals(Set.of(position2.getPosition().getId()), strategy2.getPositions().keySet());
+
+            // Updates are only dispatched to the strategy that created the order.
+            assertFalse(strategy1.getOrdersUpdateReceived().isEmpty());
+            assertTrue(strategy1.getOrdersUpdateReceived().stream().allMatch(order -> order1Id.equals(order.getId())));
+            assertFalse(strategy1.getTradesUpdateReceived().isEmpty());
+            assertTrue(strategy1.getTradesUpdateReceived().stream().allMatch(trade -> order1Id.equals(trade.getOrderId())));
+            assertTrue(strategy1.getPositionsUpdateReceived().stream().allMatch(p -> p.getId() == position1.getPosition().getId()));
+        } finally {
+            System.clearProperty(PARAMETER_EXCHANGE_DRY);
         }
     }
 
@@ -131,4 +131,13 @@ public class PositionRepositoryTest {
         assertEquals(5, notClosingPositions.get(3).getId());
     }
 
+    @Test
+    @DisplayName("Check find by opening and closing order id")
+    public void checkFindByOrderId() {
+        assertEquals(2, positionRepository.findByOpeningOrderId("BACKUP_OPENING_ORDER_02").orElseThrow().getId());
+        assertEquals(3, positionRepository.findByClosingOrderId("BACKUP_CLOSING_ORDER_01").orElseThrow().getId());
+        assertTrue(positionRepository.findByOpeningOrderId("BACKUP_CLOSING_ORDER_01").isEmpty());
+        assertTrue(positionRepository.findByClosingOrderId("UNKNOWN_ORDER").isEmpty());
+    }
+
 }
@@ -0,0 +1,60 @@
+package tech.cassandre.trading.bot.test.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.scheduler.ActivityMonitor;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.NEW;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.ETH;
+
+@DisplayName("Scheduler - Activity monitor")
+public class ActivityMonitorTest {
+
+    @Test
+    @DisplayName("Check idle status with orders and positions")
+    public void checkIdleStatus() throws InterruptedException {
+        ActivityMonitor monitor = new ActivityMonitor(0);
+        TimeUnit.MILLISECONDS.sleep(1);
+        assertTrue(monitor.isIdle());
+
+        // An open order.
+        monitor.orderUpdate(OrderDTO.builder().id("ORDER_1").status(NEW).build());
+        assertFalse(monitor.isIdle());
+        monitor.orderUpdate(OrderDTO.builder().id("ORDER_1").status(FILLED).build());
+        assertTrue(monitor.isIdle());
+
+        // A position opening.
+        PositionDTO position = new PositionDTO(1, StrategyDTO.builder().id("1").build(), new CurrencyPairDTO(ETH, BTC), BigDecimal.ONE, "ORDER_1", PositionRulesDTO.builder().build());
+        monitor.positionUpdate(position);
+        assertFalse(monitor.isIdle());
+        assertEquals(1, monitor.getPendingPositionsCount());
+        assertEquals(0, monitor.getOpenOrdersCount());
+    }
+
+    @Test
+    @DisplayName("Check listeners are notified on wake-up")
+    public void checkWakeUp() {
+        ActivityMonitor monitor = new ActivityMonitor(TimeUnit.MINUTES.toMillis(1));
+        AtomicInteger wakeUps = new AtomicInteger();
+        monitor.addWakeUpListener(wakeUps::incrementAndGet);
+        monitor.wakeUp();
+        assertEquals(1, wakeUps.get());
+        // Active during the quiet period even if nothing is pending yet.
+        assertFalse(monitor.isIdle());
+    }
+
+}
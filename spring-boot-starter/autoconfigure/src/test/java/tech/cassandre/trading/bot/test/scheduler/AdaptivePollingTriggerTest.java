@@ -0,0 +1,59 @@
+package tech.cassandre.trading.bot.test.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import tech.cassandre.trading.bot.util.scheduler.AdaptivePollingTrigger;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Scheduler - Adaptive polling trigger")
+public class AdaptivePollingTriggerTest {
+
+    @Test
+    @DisplayName("Check delay backoff and reset")
+    public void checkDelayBackoffAndReset() {
+        AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(10, 100);
+        assertEquals(10, trigger.getCurrentDelay());
+
+        // Nothing new -> the delay doubles until the maximum.
+        trigger.recordResult(0);
+        assertEquals(20, trigger.getCurrentDelay());
+        trigger.recordResult(0);
+        assertEquals(40, trigger.getCurrentDelay());
+        trigger.recordResult(0);
+        assertEquals(80, trigger.getCurrentDelay());
+        trigger.recordResult(0);
+        assertEquals(100, trigger.getCurrentDelay());
+        trigger.recordResult(0);
+        assertEquals(100, trigger.getCurrentDelay());
+
+        // New values -> back to the minimum delay.
+        trigger.recordResult(3);
+        assertEquals(10, trigger.getCurrentDelay());
+    }
+
+    @Test
+    @DisplayName("Check next execution time")
+    public void checkNextExecutionTime() {
+        AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(10, 100);
+        trigger.recordResult(0);
+        Date lastCompletion = new Date(1_000);
+        SimpleTriggerContext context = new SimpleTriggerContext(lastCompletion, lastCompletion, lastCompletion);
+        assertEquals(1_020, trigger.nextExecutionTime(context).getTime());
+    }
+
+    @Test
+    @DisplayName("Check invalid bounds")
+    public void checkInvalidBounds() {
+        // Maximum lower than minimum -> maximum is set to minimum.
+        AdaptivePollingTrigger trigger = new AdaptivePollingTrigger(50, 10);
+        assertEquals(50, trigger.getMinimumDelay());
+        assertEquals(50, trigger.getMaximumDelay());
+        trigger.recordResult(0);
+        assertEquals(50, trigger.getCurrentDelay());
+    }
+
+}
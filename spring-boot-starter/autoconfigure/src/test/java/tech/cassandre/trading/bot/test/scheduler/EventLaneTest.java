@@ -0,0 +1,121 @@
+package tech.cassandre.trading.bot.test.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.util.scheduler.EventLane;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Scheduler - Event lane")
+public class EventLaneTest {
+
+    @Test
+    @DisplayName("Check events are run in order and never concurrently")
+    public void checkOrderedEvents() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            EventLane lane1 = new EventLane("1", executor, 100);
+            EventLane lane2 = new EventLane("2", executor, 100);
+            List<Integer> lane1Events = new CopyOnWriteArrayList<>();
+            List<Integer> lane2Events = new CopyOnWriteArrayList<>();
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maximumRunning = new AtomicInteger();
+
+            for (int i = 0; i < 1000; i++) {
+                final int event = i;
+                lane1.execute(() -> {
+                    maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    lane1Events.add(event);
+                    running.decrementAndGet();
+                });
+                lane2.execute(() -> lane2Events.add(event));
+            }
+
+            await().untilAsserted(() -> assertEquals(1000, lane1.getExecutedCount()));
+            await().untilAsserted(() -> assertEquals(1000, lane2.getExecutedCount()));
+            assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), lane1Events);
+            assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), lane2Events);
+            assertEquals(1, maximumRunning.get());
+            assertEquals(0, lane1.getPendingCount());
+            assertEquals(0, lane1.getDroppedCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Check events are dropped when a lane is full and lag is measured")
+    public void checkFullLane() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            EventLane slowLane = new EventLane("slow", executor, 3);
+            EventLane fastLane = new EventLane("fast", executor, 3);
+            CountDownLatch slowLaneBlocked = new CountDownLatch(1);
+            List<String> slowLaneEvents = new CopyOnWriteArrayList<>();
+
+            // The slow lane is blocked by its first event.
+            slowLane.execute(() -> {
+                try {
+                    slowLaneBlocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            await().untilAsserted(() -> assertEquals(0, slowLane.getPendingCount()));
+
+            // The fast lane is not delayed by the slow lane.
+            List<String> fastLaneEvents = new CopyOnWriteArrayList<>();
+            fastLane.execute("BTC", () -> fastLaneEvents.add("BTC"));
+            await().untilAsserted(() -> assertEquals(List.of("BTC"), fastLaneEvents));
+
+            // Slow lane full : a ticker replaces the older ticker with the same key, an order is kept.
+            slowLane.execute("BTC", () -> slowLaneEvents.add("BTC 1"));
+            slowLane.execute(() -> slowLaneEvents.add("ORDER"));
+            slowLane.execute("ETH", () -> slowLaneEvents.add("ETH 1"));
+            slowLane.execute("BTC", () -> slowLaneEvents.add("BTC 2"));
+            assertEquals(3, slowLane.getPendingCount());
+            assertEquals(1, slowLane.getDroppedCount());
+
+            TimeUnit.MILLISECONDS.sleep(50);
+            slowLaneBlocked.countDown();
+            await().untilAsserted(() -> assertEquals(List.of("ORDER", "ETH 1", "BTC 2"), slowLaneEvents));
+            assertTrue(slowLane.getMaximumLag() >= 50);
+            assertTrue(fastLane.getMaximumLag() < 50);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Check an error doesn't stop the lane")
+    public void checkErrors() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            EventLane lane = new EventLane("1", executor, 10);
+            List<String> events = new CopyOnWriteArrayList<>();
+            lane.execute(() -> {
+                throw new IllegalStateException("Error");
+            });
+            lane.execute(() -> events.add("Event"));
+            await().untilAsserted(() -> assertEquals(List.of("Event"), events));
+            assertEquals(2, lane.getExecutedCount());
+            assertEquals(1, lane.getFailureCount());
+            assertEquals(0, lane.getPendingCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
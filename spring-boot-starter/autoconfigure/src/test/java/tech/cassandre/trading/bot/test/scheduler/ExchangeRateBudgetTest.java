@@ -0,0 +1,108 @@
+package tech.cassandre.trading.bot.test.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.scheduler.ExchangeRateBudget;
+import tech.cassandre.trading.bot.util.scheduler.RequestPriority;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.USDT;
+import static tech.cassandre.trading.bot.util.scheduler.RequestPriority.ORDER;
+import static tech.cassandre.trading.bot.util.scheduler.RequestPriority.POLLING;
+import static tech.cassandre.trading.bot.util.scheduler.RequestPriority.POSITION_TICKER;
+
+@DisplayName("Scheduler - Exchange rate budget")
+public class ExchangeRateBudgetTest {
+
+    @Test
+    @DisplayName("Check burst capacity and rate")
+    public void checkBurstAndRate() throws InterruptedException {
+        ExchangeRateBudget budget = new ExchangeRateBudget(200, 2);
+
+        // Burst : two requests without waiting.
+        budget.acquire(POLLING);
+        budget.acquire(POLLING);
+        assertTrue(budget.getMaximumWaitTime(POLLING) < 100);
+
+        // Third request waits for the next token.
+        budget.acquire(POLLING);
+        assertEquals(3, budget.getRequestCount(POLLING));
+        assertTrue(budget.getMaximumWaitTime(POLLING) >= 100);
+        assertEquals(0, budget.getRequestCount(ORDER));
+    }
+
+    @Test
+    @DisplayName("Check requests with a higher priority are served first")
+    public void checkPriorities() throws InterruptedException {
+        ExchangeRateBudget budget = new ExchangeRateBudget(200, 1);
+        budget.acquire(POLLING);
+        List<RequestPriority> servedRequests = new CopyOnWriteArrayList<>();
+
+        // A polling request starts waiting, then an order request.
+        Thread polling = new Thread(() -> acquire(budget, POLLING, servedRequests));
+        polling.start();
+        TimeUnit.MILLISECONDS.sleep(50);
+        Thread order = new Thread(() -> acquire(budget, ORDER, servedRequests));
+        order.start();
+        polling.join();
+        order.join();
+
+        // The order request is served first.
+        assertEquals(List.of(ORDER, POLLING), servedRequests);
+        assertEquals(1, budget.getRequestCount(ORDER));
+        assertEquals(2, budget.getRequestCount(POLLING));
+    }
+
+    @Test
+    @DisplayName("Check no limit when no rate is set")
+    public void checkNoLimit() throws InterruptedException {
+        ExchangeRateBudget budget = new ExchangeRateBudget(0, 1);
+        for (int i = 0; i < 100; i++) {
+            budget.acquire(ORDER);
+        }
+        assertEquals(100, budget.getRequestCount(ORDER));
+        assertTrue(budget.getMaximumWaitTime(ORDER) < 100);
+    }
+
+    @Test
+    @DisplayName("Check tickers of currency pairs with positions have a higher priority")
+    public void checkTickerPriority() {
+        CurrencyPairDTO cp1 = new CurrencyPairDTO(ETH, BTC);
+        CurrencyPairDTO cp2 = new CurrencyPairDTO(ETH, USDT);
+        ExchangeRateBudget budget = new ExchangeRateBudget(0, 1);
+        assertEquals(POLLING, budget.getTickerPriority(cp1));
+
+        budget.positionUpdate(new PositionDTO(1, StrategyDTO.builder().id("1").build(), cp1, BigDecimal.ONE, "ORDER_1", PositionRulesDTO.builder().build()));
+        assertEquals(POSITION_TICKER, budget.getTickerPriority(cp1));
+        assertEquals(POLLING, budget.getTickerPriority(cp2));
+    }
+
+    /**
+     * Acquires a token and records the priority once served.
+     *
+     * @param budget         budget
+     * @param priority       priority
+     * @param servedRequests served requests
+     */
+    private void acquire(final ExchangeRateBudget budget, final RequestPriority priority, final List<RequestPriority> servedRequests) {
+        try {
+            budget.acquire(priority);
+            servedRequests.add(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
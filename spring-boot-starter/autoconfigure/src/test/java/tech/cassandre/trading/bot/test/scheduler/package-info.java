@@ -0,0 +1,4 @@
+/**
+ * Scheduler tests.
+ */
+package tech.cassandre.trading.bot.test.scheduler;
@@ -0,0 +1,54 @@
+package tech.cassandre.trading.bot.test.service.intern;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.strategy.StrategyDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.service.intern.AsynchronousTradeService;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+
+@DisplayName("Service - Intern - Asynchronous trade service")
+public class AsynchronousTradeServiceTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check orders are sent without blocking the caller")
+    public void checkAsynchronousOrders() throws Exception {
+        final CountDownLatch exchangeAnswer = new CountDownLatch(1);
+        TradeService tradeService = mock(TradeService.class);
+        given(tradeService.createSellMarketOrder(any(), any(), any())).willAnswer(invocation -> {
+            exchangeAnswer.await();
+            return new OrderCreationResultDTO(getPendingOrder("ORDER_1", ASK, BigDecimal.ONE, cp1));
+        });
+        AsynchronousTradeService asynchronousTradeService = new AsynchronousTradeService(tradeService, 2, 10);
+        final StrategyDTO strategy = StrategyDTO.builder().id("1").build();
+
+        // Two orders in flight at the same time, the caller is not blocked.
+        CompletableFuture<OrderCreationResultDTO> order1 = asynchronousTradeService.createSellMarketOrder(strategy, cp1, BigDecimal.ONE);
+        CompletableFuture<OrderCreationResultDTO> order2 = asynchronousTradeService.createSellMarketOrder(strategy, cp1, BigDecimal.ONE);
+        assertFalse(order1.isDone());
+        assertFalse(order2.isDone());
+        assertEquals(2, asynchronousTradeService.getInFlightCount());
+
+        // The exchange answers.
+        exchangeAnswer.countDown();
+        assertTrue(order1.get(1, TimeUnit.MINUTES).isSuccessful());
+        assertEquals("ORDER_1", order2.get(1, TimeUnit.MINUTES).getOrderId());
+        assertEquals(2, asynchronousTradeService.getSubmittedCount());
+        asynchronousTradeService.close();
+    }
+
+}
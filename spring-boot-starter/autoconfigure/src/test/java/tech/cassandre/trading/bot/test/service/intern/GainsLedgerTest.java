@@ -0,0 +1,134 @@
+package tech.cassandre.trading.bot.test.service.intern;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyAmountDTO;
+import tech.cassandre.trading.bot.dto.util.GainDTO;
+import tech.cassandre.trading.bot.service.intern.GainsLedger;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.BID;
+import static tech.cassandre.trading.bot.dto.util.CurrencyDTO.BTC;
+
+@DisplayName("Service - Intern - Gains ledger")
+public class GainsLedgerTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check gains are updated when positions are closed")
+    public void checkGains() {
+        // Position 1 is already closed : bought for 100 BTC and sold for 150 BTC.
+        final List<PositionDTO> positionsInDatabase = new CopyOnWriteArrayList<>();
+        positionsInDatabase.add(getClosedPosition(1, "100", getTrade("TRADE_12", "ORDER_12", ASK, "150")));
+        GainsLedger ledger = new GainsLedger(() -> positionsInDatabase);
+        GainDTO gain = ledger.getGains().get(BTC);
+        assertEquals(50, gain.getPercentage());
+        assertEquals(0, new BigDecimal("50").compareTo(gain.getAmount().getValue()));
+        assertEquals(0, new BigDecimal("2").compareTo(gain.getFees().getValue()));
+
+        // Position 2 is closed by a trade not yet in the position : bought for 100 BTC and sold for 50 BTC.
+        final TradeDTO closingTrade = getTrade("TRADE_22", "ORDER_22", ASK, "50");
+        ledger.positionClosed(getClosedPosition(2, "100"), closingTrade);
+        ledger.positionClosed(getClosedPosition(2, "100"), closingTrade);
+        gain = ledger.getGains().get(BTC);
+        assertEquals(0, gain.getPercentage());
+        assertEquals(0, BigDecimal.ZERO.compareTo(gain.getAmount().getValue()));
+        assertEquals(0, new BigDecimal("4").compareTo(gain.getFees().getValue()));
+
+        // The full calculation gives the same result once position 2 is in database.
+        positionsInDatabase.add(getClosedPosition(2, "100", closingTrade));
+        assertFalse(ledger.verify());
+        assertEquals(1, ledger.getVerificationCount());
+    }
+
+    @Test
+    @DisplayName("Check the ledger is corrected by the full calculation")
+    public void checkVerification() {
+        final List<PositionDTO> positionsInDatabase = new CopyOnWriteArrayList<>();
+        GainsLedger ledger = new GainsLedger(() -> positionsInDatabase);
+        assertTrue(ledger.getGains().isEmpty());
+
+        // A position is closed in database without the ledger being updated.
+        positionsInDatabase.add(getClosedPosition(1, "100", getTrade("TRADE_12", "ORDER_12", ASK, "150")));
+        assertTrue(ledger.getGains().isEmpty());
+        assertTrue(ledger.verify());
+        assertEquals(1, ledger.getCorrectionCount());
+        assertEquals(50, ledger.getGains().get(BTC).getPercentage());
+        assertFalse(ledger.verify());
+        assertEquals(1, ledger.getCorrectionCount());
+    }
+
+    /**
+     * Returns a closed position (bought 1 ETH with BTC).
+     *
+     * @param id            position id
+     * @param openingPrice  opening price
+     * @param closingTrades closing trades
+     * @return position
+     */
+    private PositionDTO getClosedPosition(final long id, final String openingPrice, final TradeDTO... closingTrades) {
+        return PositionDTO.builder()
+                .id(id)
+                .status(CLOSED)
+                .currencyPair(cp1)
+                .amount(BigDecimal.ONE)
+                .openingOrder(getOrder("ORDER_" + id + "1", BID, Set.of(getTrade("TRADE_" + id + "1", "ORDER_" + id + "1", BID, openingPrice))))
+                .closingOrder(getOrder("ORDER_" + id + "2", ASK, Set.of(closingTrades)))
+                .build();
+    }
+
+    /**
+     * Returns a filled order.
+     *
+     * @param id     order id
+     * @param type   order type
+     * @param trades trades
+     * @return order
+     */
+    private OrderDTO getOrder(final String id, final OrderTypeDTO type, final Set<TradeDTO> trades) {
+        return OrderDTO.builder()
+                .id(id)
+                .type(type)
+                .currencyPair(cp1)
+                .originalAmount(BigDecimal.ONE)
+                .status(FILLED)
+                .trades(trades)
+                .build();
+    }
+
+    /**
+     * Returns a trade of 1 ETH with a fee of 1 BTC.
+     *
+     * @param id      trade id
+     * @param orderId order id
+     * @param type    type
+     * @param price   price
+     * @return trade
+     */
+    private TradeDTO getTrade(final String id, final String orderId, final OrderTypeDTO type, final String price) {
+        return TradeDTO.builder()
+                .id(id)
+                .orderId(orderId)
+                .type(type)
+                .currencyPair(cp1)
+                .originalAmount(BigDecimal.ONE)
+                .price(new BigDecimal(price))
+                .fee(new CurrencyAmountDTO(BigDecimal.ONE, BTC))
+                .build();
+    }
+
+}
@@ -0,0 +1,232 @@
+package tech.cassandre.trading.bot.test.service.intern;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.position.PositionStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.service.intern.PositionIndex;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.BID;
+
+@DisplayName("Service - Intern - Position index")
+public class PositionIndexTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check positions are indexed by currency pair, status and order id")
+    public void checkIndex() {
+        PositionIndex index = new PositionIndex();
+        assertFalse(index.isLoaded());
+        index.load(() -> List.of(getPosition(1, cp1, OPENING, "ORDER_1", null),
+                getPosition(2, cp1, OPENED, "ORDER_2", null),
+                getPosition(3, cp2, OPENED, "ORDER_3", null),
+                getPosition(4, cp1, CLOSING, "ORDER_4", "ORDER_5")));
+        assertTrue(index.isLoaded());
+        assertEquals(4, index.size());
+
+        // Positions by currency pair and status.
+        assertEquals(1, index.getPositions(cp1, OPENED).size());
+        assertEquals(2, index.getPositions(cp1, OPENED).get(0).getId());
+        assertEquals(1, index.getPositions(cp2, OPENED).size());
+        assertEquals(0, index.getPositions(cp3, OPENED).size());
+
+        // Positions by order id.
+        assertEquals(Optional.of(1L), index.getPositionIdByOrderId("ORDER_1"));
+        assertEquals(Optional.of(4L), index.getPositionIdByOrderId("ORDER_4"));
+        assertEquals(Optional.of(4L), index.getPositionIdByOrderId("ORDER_5"));
+        assertFalse(index.getPositionIdByOrderId("ORDER_6").isPresent());
+
+        // Loaded only once.
+        index.load(List::of);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Check index updates")
+    public void checkUpdates() {
+        PositionIndex index = new PositionIndex();
+        index.load(() -> List.of(getPosition(1, cp1, OPENED, "ORDER_1", null)));
+
+        // Position 1 is closing.
+        index.update(getPosition(1, cp1, CLOSING, "ORDER_1", "ORDER_2"));
+        assertEquals(0, index.getPositions(cp1, OPENED).size());
+        assertEquals(1, index.getPositions(cp1, CLOSING).size());
+        assertEquals(Optional.of(1L), index.getPositionIdByOrderId("ORDER_2"));
+
+        // An update received late from the flux is ignored.
+        index.positionUpdate(getPosition(1, cp1, OPENED, "ORDER_1", null));
+        assertEquals(CLOSING, index.getPosition(1).map(PositionDTO::getStatus).orElse(null));
+
+        // Position 1 is closed and removed from the index, later updates are ignored.
+        index.positionUpdate(getPosition(1, cp1, CLOSED, "ORDER_1", "ORDER_2"));
+        assertEquals(0, index.size());
+        assertFalse(index.getPositionIdByOrderId("ORDER_1").isPresent());
+        index.update(getPosition(1, cp1, CLOSING, "ORDER_1", "ORDER_2"));
+        assertEquals(0, index.size());
+
+        // A new position is added.
+        index.positionUpdate(getPosition(2, cp2, OPENING, "ORDER_3", null));
+        assertEquals(1, index.getPositions(cp2, OPENING).size());
+    }
+
+    @Test
+    @DisplayName("Check only the last closed positions are remembered")
+    public void checkClosedPositions() {
+        PositionIndex index = new PositionIndex();
+        index.load(Collections::emptyList);
+
+        // More positions closed than remembered : a late update of the last one is ignored, not of the first one.
+        final long lastId = PositionIndex.MAXIMUM_CLOSED_POSITIONS + 1;
+        for (long id = 1; id <= lastId; id++) {
+            index.positionUpdate(getPosition(id, cp1, CLOSED, "ORDER_" + id, "CLOSING_ORDER_" + id));
+        }
+        index.positionUpdate(getPosition(lastId, cp1, CLOSING, "ORDER_" + lastId, "CLOSING_ORDER_" + lastId));
+        assertEquals(0, index.size());
+        index.positionUpdate(getPosition(1, cp1, CLOSING, "ORDER_1", "CLOSING_ORDER_1"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Check positions are found by trigger prices")
+    public void checkTriggers() {
+        PositionIndex index = new PositionIndex();
+        final PositionRulesDTO rules = PositionRulesDTO.builder().stopGainPercentage(10f).stopLossPercentage(20f).build();
+        index.load(() -> List.of(getOpenedPosition(1, cp1, new BigDecimal("100"), rules),
+                getOpenedPosition(2, cp1, new BigDecimal("130"), rules),
+                getOpenedPosition(3, cp1, new BigDecimal("100"), PositionRulesDTO.builder().build())));
+
+        // Between triggers (position 1 : 80 to 110, position 2 : 104 to 143), no position found.
+        assertTrue(index.getTriggeredPositionIds(cp1, new BigDecimal("105")).isEmpty());
+        assertTrue(index.getTriggeredPositionIds(cp2, new BigDecimal("1000")).isEmpty());
+
+        // Stop gain of position 1 only.
+        assertEquals(Set.of(1L), index.getTriggeredPositionIds(cp1, new BigDecimal("120")));
+        final PositionDTO position1 = index.getPosition(1).orElseThrow();
+        assertTrue(position1.shouldBeClosed(TickerDTO.builder().currencyPair(cp1).last(new BigDecimal("110")).build()));
+
+        // Stop gain of both positions.
+        assertEquals(Set.of(1L, 2L), index.getTriggeredPositionIds(cp1, new BigDecimal("150")));
+
+        // Stop loss of position 2 only.
+        assertEquals(Set.of(2L), index.getTriggeredPositionIds(cp1, new BigDecimal("100")));
+
+        // Stop loss of both positions.
+        assertEquals(Set.of(1L, 2L), index.getTriggeredPositionIds(cp1, new BigDecimal("80")));
+
+        // Position 1 closing, it's not triggered anymore.
+        index.update(getPosition(1, cp1, CLOSING, "ORDER_1", "ORDER_4"));
+        assertEquals(Set.of(2L), index.getTriggeredPositionIds(cp1, new BigDecimal("250")));
+    }
+
+    @Test
+    @DisplayName("Check prices are updated in place and only changed positions are returned")
+    public void checkPriceUpdates() {
+        PositionIndex index = new PositionIndex();
+        final PositionRulesDTO rules = PositionRulesDTO.builder().stopGainPercentage(10f).build();
+        index.load(() -> List.of(getOpenedPosition(1, cp1, new BigDecimal("100"), rules),
+                getOpenedPosition(2, cp1, new BigDecimal("100"), rules)));
+
+        // First price : highest and lowest prices are set for both positions.
+        assertEquals(2, index.updatePrices(cp1, new BigDecimal("105"), p -> false).size());
+
+        // Same price : nothing changed but the latest price.
+        assertTrue(index.updatePrices(cp1, new BigDecimal("105"), p -> false).isEmpty());
+
+        // Lower price : lowest price changed, position 2 rules are checked so its prices are not updated here.
+        final List<PositionDTO> positions = index.updatePrices(cp1, new BigDecimal("101"), p -> p.getId() == 2);
+        assertEquals(2, positions.size());
+        final PositionDTO position1 = index.getPosition(1).orElseThrow();
+        assertEquals(0, new BigDecimal("101").compareTo(position1.getLowestPrice()));
+        assertEquals(0, new BigDecimal("101").compareTo(position1.getLatestPrice()));
+        assertEquals(0, new BigDecimal("105").compareTo(index.getPosition(2).orElseThrow().getLowestPrice()));
+
+        // Other currency pair : nothing returned.
+        assertTrue(index.updatePrices(cp2, new BigDecimal("1"), p -> false).isEmpty());
+    }
+
+    /**
+     * Returns an opened position with an opening trade.
+     *
+     * @param id           position id
+     * @param currencyPair currency pair
+     * @param price        opening trade price
+     * @param rules        rules
+     * @return position
+     */
+    private PositionDTO getOpenedPosition(final long id,
+                                          final CurrencyPairDTO currencyPair,
+                                          final BigDecimal price,
+                                          final PositionRulesDTO rules) {
+        final TradeDTO trade = TradeDTO.builder()
+                .id("TRADE_" + id)
+                .orderId("ORDER_" + id)
+                .type(BID)
+                .currencyPair(currencyPair)
+                .originalAmount(BigDecimal.ONE)
+                .price(price)
+                .build();
+        return PositionDTO.builder()
+                .id(id)
+                .status(OPENED)
+                .currencyPair(currencyPair)
+                .amount(BigDecimal.ONE)
+                .rules(rules)
+                .openingOrder(OrderDTO.builder()
+                        .id("ORDER_" + id)
+                        .type(BID)
+                        .originalAmount(BigDecimal.ONE)
+                        .currencyPair(currencyPair)
+                        .status(FILLED)
+                        .trades(Set.of(trade))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Returns a position.
+     *
+     * @param id             position id
+     * @param currencyPair   currency pair
+     * @param status         status
+     * @param openingOrderId opening order id
+     * @param closingOrderId closing order id
+     * @return position
+     */
+    private PositionDTO getPosition(final long id,
+                                    final CurrencyPairDTO currencyPair,
+                                    final PositionStatusDTO status,
+                                    final String openingOrderId,
+                                    final String closingOrderId) {
+        PositionDTO.PositionDTOBuilder builder = PositionDTO.builder()
+                .id(id)
+                .status(status)
+                .currencyPair(currencyPair)
+                .amount(BigDecimal.ONE)
+                .openingOrder(getPendingOrder(openingOrderId, BID, BigDecimal.ONE, currencyPair));
+        if (closingOrderId != null) {
+            builder.closingOrder(getPendingOrder(closingOrderId, ASK, BigDecimal.ONE, currencyPair));
+        }
+        return builder.build();
+    }
+
+}
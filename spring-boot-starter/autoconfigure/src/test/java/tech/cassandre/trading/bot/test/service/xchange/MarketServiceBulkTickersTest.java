@@ -0,0 +1,81 @@
+package tech.cassandre.trading.bot.test.service.xchange;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.currency.CurrencyPair;
+import org.knowm.xchange.dto.marketdata.Ticker;
+import org.knowm.xchange.exceptions.NotYetImplementedForExchangeException;
+import org.knowm.xchange.service.marketdata.MarketDataService;
+import org.knowm.xchange.service.marketdata.params.Params;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.service.xchange.MarketServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Service - XChange - Market service bulk tickers")
+public class MarketServiceBulkTickersTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check tickers retrieved with one call")
+    public void checkBulkTickers() throws IOException {
+        MarketDataService marketDataService = mock(MarketDataService.class);
+        given(marketDataService.getTickers(any(Params.class))).willReturn(Arrays.asList(
+                new Ticker.Builder().currencyPair(new CurrencyPair("ETH", "BTC")).last(new BigDecimal("1")).timestamp(new Date()).build(),
+                new Ticker.Builder().currencyPair(new CurrencyPair("ETH", "USDT")).last(new BigDecimal("2")).timestamp(new Date()).build(),
+                new Ticker.Builder().currencyPair(new CurrencyPair("BTC", "USDT")).last(new BigDecimal("3")).timestamp(new Date()).build()));
+        MarketServiceXChangeImplementation marketService = new MarketServiceXChangeImplementation(1, marketDataService);
+
+        // Only requested currency pairs are returned.
+        Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        currencyPairs.add(cp1);
+        currencyPairs.add(cp2);
+        Set<TickerDTO> tickers = marketService.getTickers(currencyPairs);
+        assertEquals(2, tickers.size());
+        assertTrue(tickers.stream().anyMatch(t -> cp1.equals(t.getCurrencyPair())));
+        assertTrue(tickers.stream().anyMatch(t -> cp2.equals(t.getCurrencyPair())));
+        assertTrue(marketService.isBulkTickersSupported());
+        verify(marketDataService, times(1)).getTickers(any(Params.class));
+        verify(marketDataService, never()).getTicker(any(CurrencyPair.class));
+    }
+
+    @Test
+    @DisplayName("Check fallback when the exchange doesn't support bulk tickers")
+    public void checkBulkTickersFallback() throws IOException {
+        MarketDataService marketDataService = mock(MarketDataService.class);
+        given(marketDataService.getTickers(any(Params.class))).willThrow(new NotYetImplementedForExchangeException());
+        given(marketDataService.getTicker(new CurrencyPair("ETH", "BTC"))).willReturn(
+                new Ticker.Builder().currencyPair(new CurrencyPair("ETH", "BTC")).last(new BigDecimal("1")).timestamp(new Date()).build());
+        given(marketDataService.getTicker(new CurrencyPair("ETH", "USDT"))).willReturn(
+                new Ticker.Builder().currencyPair(new CurrencyPair("ETH", "USDT")).last(new BigDecimal("2")).timestamp(new Date()).build());
+        MarketServiceXChangeImplementation marketService = new MarketServiceXChangeImplementation(1, marketDataService);
+
+        Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        currencyPairs.add(cp1);
+        currencyPairs.add(cp2);
+        assertEquals(2, marketService.getTickers(currencyPairs).size());
+        assertFalse(marketService.isBulkTickersSupported());
+
+        // Second call doesn't try the bulk call anymore.
+        assertEquals(2, marketService.getTickers(currencyPairs).size());
+        verify(marketDataService, times(1)).getTickers(any(Params.class));
+        verify(marketDataService, times(2)).getTicker(new CurrencyPair("ETH", "BTC"));
+    }
+
+}
@@ -0,0 +1,106 @@
+package tech.cassandre.trading.bot.test.service.xchange;
+
+import info.bitrich.xchangestream.core.ProductSubscription;
+import info.bitrich.xchangestream.core.StreamingExchange;
+import info.bitrich.xchangestream.core.StreamingMarketDataService;
+import io.reactivex.Completable;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.currency.CurrencyPair;
+import org.knowm.xchange.dto.marketdata.Ticker;
+import org.knowm.xchange.service.marketdata.MarketDataService;
+import org.knowm.xchange.service.marketdata.params.Params;
+import tech.cassandre.trading.bot.batch.TickerFetchMode;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.util.CurrencyPairDTO;
+import tech.cassandre.trading.bot.service.xchange.MarketServiceXChangeStreamingImplementation;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Service - XChange - Market service streaming")
+public class MarketServiceStreamingTest extends BaseTest {
+
+    /** ETH/BTC. */
+    private final CurrencyPair ethBtc = new CurrencyPair("ETH", "BTC");
+
+    /** ETH/USDT. */
+    private final CurrencyPair ethUsdt = new CurrencyPair("ETH", "USDT");
+
+    @Test
+    @DisplayName("Check streamed tickers, resubscription and gap fallback")
+    public void checkStreaming() throws IOException, InterruptedException {
+        // Stand-in for the exchange websocket : one subject per currency pair.
+        PublishSubject<Ticker> ethBtcStream = PublishSubject.create();
+        PublishSubject<Ticker> ethBtcSecondStream = PublishSubject.create();
+        PublishSubject<Ticker> ethUsdtStream = PublishSubject.create();
+        StreamingMarketDataService streamingMarketDataService = mock(StreamingMarketDataService.class);
+        given(streamingMarketDataService.getTicker(ethBtc)).willReturn(ethBtcStream, ethBtcSecondStream);
+        given(streamingMarketDataService.getTicker(ethUsdt)).willReturn(ethUsdtStream);
+        StreamingExchange streamingExchange = mock(StreamingExchange.class);
+        given(streamingExchange.connect(any(ProductSubscription.class))).willReturn(Completable.complete());
+        given(streamingExchange.getStreamingMarketDataService()).willReturn(streamingMarketDataService);
+
+        // REST service used when a currency pair doesn't receive tickers anymore.
+        MarketDataService marketDataService = mock(MarketDataService.class);
+        given(marketDataService.getTickers(any(Params.class))).willReturn(Collections.singletonList(
+                new Ticker.Builder().currencyPair(ethUsdt).last(new BigDecimal("30")).timestamp(new Date(3)).build()));
+
+        MarketServiceXChangeStreamingImplementation marketService = new MarketServiceXChangeStreamingImplementation(1, marketDataService, streamingExchange);
+        final long gapThreshold = 500;
+        TickerFlux tickerFlux = new TickerFlux(marketService, TickerFetchMode.STREAMING, 1, gapThreshold);
+        List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+        Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        currencyPairs.add(cp1);
+        currencyPairs.add(cp2);
+        tickerFlux.updateRequestedCurrencyPairs(currencyPairs);
+
+        // Tickers pushed by the exchange are emitted without any update call.
+        ethBtcStream.onNext(new Ticker.Builder().currencyPair(ethBtc).last(new BigDecimal("1")).timestamp(new Date(1)).build());
+        ethUsdtStream.onNext(new Ticker.Builder().currencyPair(ethUsdt).last(new BigDecimal("10")).timestamp(new Date(1)).build());
+        ethBtcStream.onNext(new Ticker.Builder().currencyPair(ethBtc).last(new BigDecimal("1")).timestamp(new Date(1)).build());
+        await().untilAsserted(() -> assertEquals(2, received.size()));
+
+        // Nothing is missing, no REST call.
+        assertEquals(0, tickerFlux.update());
+        verify(marketDataService, times(0)).getTickers(any(Params.class));
+
+        // An error on the stream -> we subscribe again.
+        ethBtcStream.onError(new IOException("Connection lost"));
+        await().untilAsserted(() -> verify(streamingMarketDataService, atLeast(2)).getTicker(ethBtc));
+        assertTrue(marketService.getResubscriptionCount() > 0);
+
+        // ETH/USDT stops receiving tickers -> REST fallback.
+        TimeUnit.MILLISECONDS.sleep(gapThreshold * 2);
+        ethBtcSecondStream.onNext(new Ticker.Builder().currencyPair(ethBtc).last(new BigDecimal("2")).timestamp(new Date(2)).build());
+        await().untilAsserted(() -> assertEquals(3, received.size()));
+        assertEquals(1, tickerFlux.update());
+        await().untilAsserted(() -> assertEquals(4, received.size()));
+        assertEquals(cp2, received.get(3).getCurrencyPair());
+        assertEquals(0, new BigDecimal("30").compareTo(received.get(3).getLast()));
+
+        marketService.close();
+    }
+
+}
@@ -0,0 +1,154 @@
+package tech.cassandre.trading.bot.test.service.xchange;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.currency.CurrencyPair;
+import org.knowm.xchange.dto.Order;
+import org.knowm.xchange.dto.trade.MarketOrder;
+import org.knowm.xchange.dto.trade.OpenOrders;
+import org.knowm.xchange.service.trade.TradeService;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.service.xchange.OrderTracker;
+import tech.cassandre.trading.bot.service.xchange.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.NEW;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.BID;
+
+@DisplayName("Service - XChange - Order tracker")
+public class OrderTrackerTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check young orders are requested more often and orders are requested by batches")
+    public void checkOrderTracker() {
+        OrderTracker tracker = new OrderTracker(2, 10_000);
+        tracker.track("ORDER_1", 0);
+        tracker.track("ORDER_2", 0);
+        tracker.track("ORDER_3", 0);
+        assertEquals(Arrays.asList(Arrays.asList("ORDER_1", "ORDER_2"), Collections.singletonList("ORDER_3")), tracker.getOrderIdsToRequest(0));
+
+        // Orders are one second old : next request in 250 ms.
+        tracker.requested("ORDER_1", getOrder("ORDER_1", NEW), 1_000);
+        tracker.requested("ORDER_2", null, 1_000);
+        tracker.requested("ORDER_3", getOrder("ORDER_3", NEW), 1_000);
+        assertTrue(tracker.getOrderIdsToRequest(1_100).isEmpty());
+        assertEquals(2, tracker.getOrderIdsToRequest(1_250).size());
+
+        // Orders are one hour old : next request after the maximum interval.
+        tracker.requested("ORDER_1", getOrder("ORDER_1", NEW), 3_600_000);
+        assertFalse(tracker.getOrderIdsToRequest(3_609_999).stream().anyMatch(ids -> ids.contains("ORDER_1")));
+        assertTrue(tracker.getOrderIdsToRequest(3_610_000).stream().anyMatch(ids -> ids.contains("ORDER_1")));
+
+        // A filled order is not tracked anymore.
+        tracker.requested("ORDER_3", getOrder("ORDER_3", FILLED), 3_600_000);
+        assertFalse(tracker.isTracked("ORDER_3"));
+        assertEquals(2, tracker.getTrackedOrdersCount());
+    }
+
+    @Test
+    @DisplayName("Check orders created are requested by id until they are filled")
+    public void checkTrackedOrders() throws IOException {
+        TradeService xChangeTradeService = mock(TradeService.class);
+        given(xChangeTradeService.placeMarketOrder(any(MarketOrder.class))).willReturn("ORDER_1");
+        given(xChangeTradeService.getOpenOrders()).willReturn(new OpenOrders(Collections.emptyList()));
+        given(xChangeTradeService.getOrder(anyString())).willReturn(Collections.singletonList(
+                new MarketOrder.Builder(Order.OrderType.BID, CurrencyPair.ETH_BTC)
+                        .id("ORDER_1")
+                        .originalAmount(BigDecimal.ONE)
+                        .cumulativeAmount(BigDecimal.ONE)
+                        .orderStatus(Order.OrderStatus.FILLED)
+                        .timestamp(new Date())
+                        .build()));
+        TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(1, xChangeTradeService);
+        tradeService.createBuyMarketOrder(null, cp1, BigDecimal.ONE);
+        assertTrue(tradeService.getOrderTracker().isTracked("ORDER_1"));
+
+        // The order is not in open orders anymore, but we see it's filled.
+        final Set<OrderDTO> orders = tradeService.getOrders();
+        assertEquals(1, orders.size());
+        assertEquals(FILLED, orders.iterator().next().getStatus());
+        assertFalse(tradeService.getOrderTracker().isTracked("ORDER_1"));
+
+        // Not requested anymore.
+        assertTrue(tradeService.getOrders().isEmpty());
+        verify(xChangeTradeService, times(1)).getOrder(anyString());
+    }
+
+    @Test
+    @DisplayName("Check an order not returned by the exchange stops being tracked")
+    public void checkMissingOrder() {
+        OrderTracker tracker = new OrderTracker(2, 10_000, 3);
+        tracker.track("ORDER_1", 0);
+        tracker.requested("ORDER_1", null, 1_000);
+        tracker.requested("ORDER_1", null, 2_000);
+        // Received again : misses are reset.
+        tracker.requested("ORDER_1", getOrder("ORDER_1", NEW), 3_000);
+        tracker.requested("ORDER_1", null, 4_000);
+        tracker.requested("ORDER_1", null, 5_000);
+        assertTrue(tracker.isTracked("ORDER_1"));
+        tracker.requested("ORDER_1", null, 6_000);
+        assertFalse(tracker.isTracked("ORDER_1"));
+        assertEquals(0, tracker.getTrackedOrdersCount());
+    }
+
+    @Test
+    @DisplayName("Check open orders are not requested while orders are tracked")
+    public void checkOpenOrdersNotRequested() throws IOException {
+        TradeService xChangeTradeService = mock(TradeService.class);
+        given(xChangeTradeService.getOpenOrders()).willReturn(new OpenOrders(Collections.emptyList()));
+        given(xChangeTradeService.getOrder(anyString())).willReturn(Collections.singletonList(
+                new MarketOrder.Builder(Order.OrderType.BID, CurrencyPair.ETH_BTC)
+                        .id("ORDER_1")
+                        .originalAmount(BigDecimal.ONE)
+                        .orderStatus(Order.OrderStatus.NEW)
+                        .timestamp(new Date())
+                        .build()));
+        TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(1, xChangeTradeService, false, 3_600_000);
+
+        // Order still opened when the bot stopped.
+        tradeService.trackOrders(Collections.singletonList("ORDER_1"));
+        assertTrue(tradeService.getOrderTracker().isTracked("ORDER_1"));
+
+        // Open orders are requested once, then only the tracked order is requested.
+        assertEquals(1, tradeService.getOrders().size());
+        tradeService.getOrders();
+        tradeService.getOrders();
+        verify(xChangeTradeService, times(1)).getOpenOrders();
+        assertTrue(tradeService.getOrderTracker().isTracked("ORDER_1"));
+    }
+
+    /**
+     * Returns an order with a status.
+     *
+     * @param orderId order id
+     * @param status  status
+     * @return order
+     */
+    private OrderDTO getOrder(final String orderId, final OrderStatusDTO status) {
+        return OrderDTO.builder()
+                .id(orderId)
+                .type(BID)
+                .currencyPair(cp1)
+                .status(status)
+                .build();
+    }
+
+}
@@ -0,0 +1,86 @@
+package tech.cassandre.trading.bot.test.service.xchange;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.dto.trade.MarketOrder;
+import org.knowm.xchange.service.trade.TradeService;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationRequestDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.service.xchange.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+
+@DisplayName("Service - XChange - Trade service batch orders")
+public class TradeServiceBatchOrdersTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check results are correlated with orders")
+    public void checkCreateOrders() throws IOException {
+        // The exchange rejects the order with an amount of 2.
+        TradeService xChangeTradeService = mock(TradeService.class);
+        given(xChangeTradeService.placeMarketOrder(any(MarketOrder.class))).willAnswer(invocation -> {
+            final MarketOrder order = invocation.getArgument(0);
+            if (order.getOriginalAmount().compareTo(new BigDecimal("2")) == 0) {
+                throw new IOException("Insufficient funds");
+            }
+            return "ORDER_" + order.getOriginalAmount().toPlainString();
+        });
+        TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(1, xChangeTradeService);
+
+        final List<OrderCreationResultDTO> results = tradeService.createOrders(Arrays.asList(
+                getOrderCreationRequest("1"),
+                getOrderCreationRequest("2"),
+                getOrderCreationRequest("3"),
+                getOrderCreationRequest("4"),
+                getOrderCreationRequest("5"),
+                getOrderCreationRequest("6")));
+        assertEquals(6, results.size());
+        assertEquals("ORDER_1", results.get(0).getOrder().getId());
+        assertFalse(results.get(1).isSuccessful());
+        assertEquals("ORDER_3", results.get(2).getOrder().getId());
+        assertEquals("ORDER_6", results.get(5).getOrder().getId());
+    }
+
+    @Test
+    @DisplayName("Check cancel results are correlated with order ids")
+    public void checkCancelOrders() throws IOException {
+        TradeService xChangeTradeService = mock(TradeService.class);
+        given(xChangeTradeService.cancelOrder("ORDER_1")).willReturn(true);
+        given(xChangeTradeService.cancelOrder("ORDER_2")).willReturn(false);
+        TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(1, xChangeTradeService);
+
+        final Map<String, Boolean> results = tradeService.cancelOrders(new LinkedHashSet<>(Arrays.asList("ORDER_1", "ORDER_2")));
+        assertEquals(2, results.size());
+        assertTrue(results.get("ORDER_1"));
+        assertFalse(results.get("ORDER_2"));
+    }
+
+    /**
+     * Returns a sell market order creation request.
+     *
+     * @param amount amount
+     * @return order creation request
+     */
+    private OrderCreationRequestDTO getOrderCreationRequest(final String amount) {
+        return OrderCreationRequestDTO.builder()
+                .type(ASK)
+                .currencyPair(cp1)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+
+}
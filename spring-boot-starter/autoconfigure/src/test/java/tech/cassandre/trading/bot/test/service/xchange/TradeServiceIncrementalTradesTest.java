@@ -0,0 +1,102 @@
+package tech.cassandre.trading.bot.test.service.xchange;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.currency.Currency;
+import org.knowm.xchange.currency.CurrencyPair;
+import org.knowm.xchange.dto.Order;
+import org.knowm.xchange.dto.marketdata.Trades;
+import org.knowm.xchange.dto.trade.UserTrade;
+import org.knowm.xchange.dto.trade.UserTrades;
+import org.knowm.xchange.service.trade.TradeService;
+import org.knowm.xchange.service.trade.params.TradeHistoryParams;
+import org.knowm.xchange.service.trade.params.TradeHistoryParamsAll;
+import org.mockito.ArgumentCaptor;
+import tech.cassandre.trading.bot.service.xchange.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.junit.BaseTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Service - XChange - Trade service incremental trades")
+public class TradeServiceIncrementalTradesTest extends BaseTest {
+
+    @Test
+    @DisplayName("Check only trades after the cursor are requested")
+    public void checkIncrementalTrades() throws IOException {
+        // Exchange clock is ten seconds ahead.
+        Date tradeDate = new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10));
+        TradeService xChangeTradeService = mock(TradeService.class);
+        given(xChangeTradeService.getTradeHistory(any(TradeHistoryParams.class))).willReturn(getUserTrades(tradeDate));
+        TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(1, xChangeTradeService, true, TimeUnit.HOURS.toMillis(1));
+
+        // First call : one week of trades.
+        assertEquals(1, tradeService.getTrades().size());
+        // Second call : trades after the newest trade received (minus the overlap).
+        assertEquals(1, tradeService.getTrades().size());
+        assertEquals(1, tradeService.getFullSweepCount());
+        assertEquals(1, tradeService.getIncrementalRequestCount());
+
+        ArgumentCaptor<TradeHistoryParams> params = ArgumentCaptor.forClass(TradeHistoryParams.class);
+        verify(xChangeTradeService, times(2)).getTradeHistory(params.capture());
+        final List<TradeHistoryParams> requests = params.getAllValues();
+        assertTrue(((TradeHistoryParamsAll) requests.get(0)).getStartTime().before(new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(6))));
+        assertEquals(new Date(tradeDate.getTime() - TimeUnit.MINUTES.toMillis(1)), ((TradeHistoryParamsAll) requests.get(1)).getStartTime());
+    }
+
+    @Test
+    @DisplayName("Check complete trade history is requested periodically")
+    public void checkFullSweep() throws IOException, InterruptedException {
+        TradeService xChangeTradeService = mock(TradeService.class);
+        given(xChangeTradeService.getTradeHistory(any(TradeHistoryParams.class))).willReturn(getUserTrades(new Date()));
+
+        // Incremental mode with a very short full sweep interval.
+        TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(1, xChangeTradeService, true, 1);
+        tradeService.getTrades();
+        TimeUnit.MILLISECONDS.sleep(2);
+        tradeService.getTrades();
+        assertEquals(2, tradeService.getFullSweepCount());
+        assertEquals(0, tradeService.getIncrementalRequestCount());
+
+        // Incremental mode disabled.
+        TradeServiceXChangeImplementation defaultTradeService = new TradeServiceXChangeImplementation(1, xChangeTradeService);
+        defaultTradeService.getTrades();
+        defaultTradeService.getTrades();
+        assertEquals(2, defaultTradeService.getFullSweepCount());
+        assertEquals(0, defaultTradeService.getIncrementalRequestCount());
+    }
+
+    /**
+     * Returns a trade history with one trade.
+     *
+     * @param date trade date
+     * @return user trades
+     */
+    private UserTrades getUserTrades(final Date date) {
+        UserTrade trade = new UserTrade.Builder()
+                .id("TRADE_1")
+                .orderId("ORDER_1")
+                .type(Order.OrderType.BID)
+                .originalAmount(BigDecimal.ONE)
+                .currencyPair(CurrencyPair.ETH_BTC)
+                .price(BigDecimal.TEN)
+                .timestamp(date)
+                .feeAmount(BigDecimal.ZERO)
+                .feeCurrency(Currency.BTC)
+                .build();
+        return new UserTrades(Collections.singletonList(trade), Trades.TradeSortType.SortByTimestamp);
+    }
+
+}
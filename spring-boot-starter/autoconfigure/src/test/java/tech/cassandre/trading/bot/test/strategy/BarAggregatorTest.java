@@ -0,0 +1,73 @@
+package tech.cassandre.trading.bot.test.strategy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.num.DoubleNum;
+import tech.cassandre.trading.bot.util.ta4j.BarAggregator;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Strategy - Bar aggregator")
+public class BarAggregatorTest {
+
+    @Test
+    @DisplayName("Check ticks are folded into bars closed on time boundaries")
+    public void checkAggregation() {
+        BarSeries series = new BaseBarSeriesBuilder().withNumTypeOf(DoubleNum.class).build();
+        BarAggregator aggregator = new BarAggregator(series, Duration.ofMinutes(5));
+
+        // Four ticks between 10:00 and 10:05 (cumulated volume from 1000 to 1012).
+        assertFalse(aggregator.update(time(10, 0, 30), new BigDecimal("100"), new BigDecimal("1000")));
+        assertFalse(aggregator.update(time(10, 2, 0), new BigDecimal("105"), new BigDecimal("1004")));
+        assertFalse(aggregator.update(time(10, 3, 0), new BigDecimal("98"), new BigDecimal("1010")));
+        assertFalse(aggregator.update(time(10, 4, 59), new BigDecimal("101"), new BigDecimal("1012")));
+        assertEquals(0, series.getBarCount());
+
+        // A tick at 10:05 ends the first bar.
+        assertTrue(aggregator.update(time(10, 5, 0), new BigDecimal("102"), new BigDecimal("1015")));
+        assertEquals(1, series.getBarCount());
+        Bar bar = series.getBar(0);
+        assertEquals(time(10, 5, 0), bar.getEndTime());
+        assertEquals(Duration.ofMinutes(5), bar.getTimePeriod());
+        assertEquals(100, bar.getOpenPrice().doubleValue());
+        assertEquals(105, bar.getHighPrice().doubleValue());
+        assertEquals(98, bar.getLowPrice().doubleValue());
+        assertEquals(101, bar.getClosePrice().doubleValue());
+        assertEquals(12, bar.getVolume().doubleValue());
+
+        // A late tick is ignored, then a tick at 10:21 ends the second bar (no bar for 10:10 and 10:15).
+        assertFalse(aggregator.update(time(10, 4, 0), new BigDecimal("200"), new BigDecimal("1016")));
+        assertTrue(aggregator.update(time(10, 21, 0), new BigDecimal("110"), new BigDecimal("1020")));
+        assertEquals(2, series.getBarCount());
+        bar = series.getBar(1);
+        assertEquals(time(10, 10, 0), bar.getEndTime());
+        assertEquals(102, bar.getOpenPrice().doubleValue());
+        assertEquals(102, bar.getHighPrice().doubleValue());
+        assertEquals(102, bar.getLowPrice().doubleValue());
+        assertEquals(102, bar.getClosePrice().doubleValue());
+        assertEquals(3, bar.getVolume().doubleValue());
+    }
+
+    /**
+     * Returns a time on 2020-01-01 (UTC).
+     *
+     * @param hour   hour
+     * @param minute minute
+     * @param second second
+     * @return time
+     */
+    private ZonedDateTime time(final int hour, final int minute, final int second) {
+        return ZonedDateTime.of(2020, 1, 1, hour, minute, second, 0, ZoneOffset.UTC);
+    }
+
+}
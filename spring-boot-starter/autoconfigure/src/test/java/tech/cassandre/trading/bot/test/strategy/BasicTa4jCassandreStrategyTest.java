@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.DirtiesContext;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
 import tech.cassandre.trading.bot.dto.user.AccountDTO;
 import tech.cassandre.trading.bot.mock.strategy.BasicTa4jCassandreStrategyTestMock;
 import tech.cassandre.trading.bot.test.util.junit.BaseTest;
@@ -14,6 +16,9 @@ import tech.cassandre.trading.bot.test.util.junit.configuration.Property;
 import tech.cassandre.trading.bot.test.util.strategies.TestableTa4jCassandreStrategy;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 
 import static org.awaitility.Awaitility.await;
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
@@ -53,10 +58,24 @@ public class BasicTa4jCassandreStrategyTest extends BaseTest {
         await().untilAsserted(() -> assertEquals(0, new BigDecimal("130").compareTo(strategy.getLastTickers().get(cp3).getLast())));
 
         // Checking ta4j results.
-        await().untilAsserted(() -> assertEquals(5, strategy.getEnterCount()));
-        await().untilAsserted(() -> assertEquals(2, strategy.getExitCount()));
+        // One ticker per day, each ticker ends the bar of the previous day (the bar of the last ticker is not over).
+        await().untilAsserted(() -> assertEquals(4, strategy.getEnterCount()));
+        await().untilAsserted(() -> assertEquals(7, strategy.getExitCount()));
         await().untilAsserted(() -> assertEquals(8, strategy.getSeries().getBarCount()));
 
+        // Checking the two days bars built from the same tickers (days 1 & 2, 3 & 4... 13 & 14).
+        final Optional<BarSeries> twoDaysSeries = strategy.getSeries(Duration.ofDays(2));
+        assertTrue(twoDaysSeries.isPresent());
+        assertEquals(7, twoDaysSeries.get().getBarCount());
+        final Bar bar = twoDaysSeries.get().getBar(2);
+        assertEquals(createDate(7).truncatedTo(ChronoUnit.DAYS).toInstant(), bar.getEndTime().toInstant());
+        assertEquals(140, bar.getOpenPrice().doubleValue());
+        assertEquals(140, bar.getHighPrice().doubleValue());
+        assertEquals(100, bar.getLowPrice().doubleValue());
+        assertEquals(100, bar.getClosePrice().doubleValue());
+        assertEquals(20, bar.getVolume().doubleValue());
+        assertFalse(strategy.getSeries(Duration.ofHours(1)).isPresent());
+
         // Check getEstimatedBuyingCost()
         assertTrue(strategy.getEstimatedBuyingCost(cp3, new BigDecimal(3)).isPresent());
         assertEquals(0, new BigDecimal("390").compareTo(strategy.getEstimatedBuyingCost(cp3, new BigDecimal(3)).get().getValue()));
@@ -0,0 +1,86 @@
+package tech.cassandre.trading.bot.test.strategy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.util.base.ReadThroughCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Strategy - Read-through cache")
+public class ReadThroughCacheTest {
+
+    @Test
+    @DisplayName("Check values are only read again when invalidated")
+    public void checkInvalidation() {
+        // Values in database ("CLOSED_" values can't change anymore).
+        final Map<String, String> database = new ConcurrentHashMap<>();
+        database.put("1", "CLOSED_1");
+        database.put("2", "OPENED_2");
+        final AtomicInteger loadCount = new AtomicInteger();
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(
+                () -> {
+                    loadCount.incrementAndGet();
+                    return List.of(database.get("1"), database.get("2"));
+                },
+                key -> Optional.ofNullable(database.get(key)),
+                value -> value.substring(value.indexOf('_') + 1),
+                value -> value.startsWith("CLOSED_"),
+                0);
+
+        // Loaded once, the same snapshot is returned while nothing changes.
+        assertTrue(cache.isReadRequired());
+        final Map<String, String> snapshot = cache.getValues();
+        assertFalse(cache.isReadRequired());
+        assertEquals(Map.of("1", "CLOSED_1", "2", "OPENED_2"), snapshot);
+        assertSame(snapshot, cache.getValues());
+        assertEquals(1, loadCount.get());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("3", "OPENED_3"));
+
+        // Value 2 is closed and value 3 is created.
+        database.put("2", "CLOSED_2");
+        database.put("3", "OPENED_3");
+        assertEquals("OPENED_2", cache.getValues().get("2"));
+        cache.invalidate("2");
+        cache.invalidate("3");
+        assertTrue(cache.isReadRequired());
+        assertEquals(Map.of("1", "CLOSED_1", "2", "CLOSED_2", "3", "OPENED_3"), cache.getValues());
+        assertEquals(List.of("1", "2", "3"), List.copyOf(cache.getValues().keySet()));
+        assertEquals(1, loadCount.get());
+        assertEquals(2, cache.getReadCount());
+    }
+
+    @Test
+    @DisplayName("Check the oldest closed values are evicted")
+    public void checkEviction() {
+        final Map<String, String> database = new ConcurrentHashMap<>();
+        database.put("1", "CLOSED_1");
+        database.put("2", "OPENED_2");
+        database.put("3", "CLOSED_3");
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(
+                () -> List.of(database.get("1"), database.get("2"), database.get("3")),
+                key -> Optional.ofNullable(database.get(key)),
+                value -> value.substring(value.indexOf('_') + 1),
+                value -> value.startsWith("CLOSED_"),
+                2);
+
+        // Value 1 is evicted.
+        assertEquals(List.of("2", "3"), List.copyOf(cache.getValues().keySet()));
+
+        // Value 4 is created, value 3 is evicted as value 2 is still opened.
+        database.put("4", "OPENED_4");
+        cache.invalidate("4");
+        assertEquals(List.of("2", "4"), List.copyOf(cache.getValues().keySet()));
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+}
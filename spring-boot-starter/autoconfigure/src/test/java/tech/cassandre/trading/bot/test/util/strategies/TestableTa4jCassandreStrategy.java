@@ -72,7 +72,12 @@ public class TestableTa4jCassandreStrategy extends BasicTa4jCassandreStrategy {
 
     @Override
     public Duration getDelayBetweenTwoBars() {
-        return Duration.ofDays(2);
+        return Duration.ofDays(1);
+    }
+
+    @Override
+    public Set<Duration> getAdditionalTimeframes() {
+        return Set.of(Duration.ofDays(2));
     }
 
     @Override